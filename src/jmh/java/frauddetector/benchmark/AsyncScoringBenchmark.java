@@ -0,0 +1,129 @@
+package frauddetector.benchmark;
+
+import com.mongodb.client.MongoCollection;
+import frauddetector.model.Customer;
+import frauddetector.model.Transaction;
+import frauddetector.profile.CustomerProfileCache;
+import frauddetector.rules.FastPathScorer;
+import frauddetector.scoring.EnsembleSettings;
+import frauddetector.search.HnswVectorIndex;
+import frauddetector.search.VectorIndex;
+import frauddetector.service.EmbeddingGenerator;
+import frauddetector.service.TransactionDocuments;
+import frauddetector.service.TransactionVectorSearchService;
+import frauddetector.velocity.VelocityStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * One poll's worth of records scored and saved the way {@code TransactionConsumer} does it (one at a
+ * time on the listener thread) versus the way {@code AsyncTransactionConsumer} does it (all in flight
+ * on virtual threads). The MongoDB save is simulated by parking for {@code saveRoundTripMicros}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AsyncScoringBenchmark {
+
+    private static final int POLL_SIZE = 256;
+
+    @Param({"0", "1000"})
+    private long saveRoundTripMicros;
+
+    private TransactionVectorSearchService service;
+    private ExecutorService persistExecutor;
+    private Transaction[] transactions;
+    private Document[] documents;
+
+    @Setup
+    public void setUp() {
+        List<Customer> customers = BenchmarkFixtures.customers();
+        EmbeddingGenerator embeddingGenerator = new EmbeddingGenerator();
+
+        VectorIndex index = new HnswVectorIndex(384, 16, 100);
+        for (int i = 0; i < 10_000; i++) {
+            Transaction transaction = Transaction.generateRandomTransaction(customers.get(i % customers.size()));
+            index.add(transaction.getTransactionId(), embeddingGenerator.generateEmbedding(transaction), i % 10 == 0);
+        }
+
+        CustomerProfileCache profileCache = new CustomerProfileCache(
+                BenchmarkFixtures.customerRepository(customers), null, 1000, 30, 500);
+        // Rules off, so every record goes through similarity search
+        FastPathScorer fastPathScorer = new FastPathScorer(new DefaultResourceLoader(),
+                "classpath:benchmark-rules-disabled.properties");
+        fastPathScorer.loadRules();
+        MongoCollection<Document> collection = BenchmarkFixtures.unsupported(MongoCollection.class);
+        service = new TransactionVectorSearchService(collection, index, profileCache, fastPathScorer,
+                new VelocityStore(100_000, 86_400_000L), new SimpleMeterRegistry(), EnsembleSettings.defaults(), "hnsw", 5, 50, 0);
+        persistExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+        transactions = new Transaction[POLL_SIZE];
+        documents = new Document[POLL_SIZE];
+        for (int i = 0; i < POLL_SIZE; i++) {
+            Transaction transaction = Transaction.generateRandomTransaction(customers.get(i % customers.size()));
+            transaction.setEmbedding(embeddingGenerator.generateEmbedding(transaction));
+            transactions[i] = transaction;
+            documents[i] = TransactionDocuments.toScoringDocument(transaction);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        persistExecutor.shutdown();
+        service.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POLL_SIZE)
+    public void blocking(Blackhole blackhole) {
+        for (Document document : documents) {
+            blackhole.consume(service.evaluateTransactionFraud(document));
+            save();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POLL_SIZE)
+    public void async(Blackhole blackhole) {
+        CompletableFuture<?>[] inFlight = new CompletableFuture<?>[POLL_SIZE];
+        for (int i = 0; i < POLL_SIZE; i++) {
+            inFlight[i] = service.evaluateAsync(transactions[i])
+                    .thenAcceptAsync(decision -> {
+                        blackhole.consume(decision.fraud());
+                        save();
+                    }, persistExecutor);
+        }
+        CompletableFuture.allOf(inFlight).join();
+    }
+
+    private void save() {
+        if (saveRoundTripMicros > 0) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(saveRoundTripMicros));
+        }
+    }
+}
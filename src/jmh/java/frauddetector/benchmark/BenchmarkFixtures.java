@@ -0,0 +1,87 @@
+package frauddetector.benchmark;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import frauddetector.generator.CustomerGenerator;
+import frauddetector.model.Customer;
+import frauddetector.repository.CustomerRepository;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+/**
+ * Shared inputs and in-memory stand-ins for MongoDB-backed collaborators.
+ */
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * The four sample customers {@code DatasetSeeder} seeds by default.
+     */
+    static List<Customer> customers() {
+        return CustomerGenerator.generate(4, 0);
+    }
+
+    /**
+     * Repository answering {@code findByUserId} and {@code findAll} from memory.
+     */
+    static CustomerRepository customerRepository(List<Customer> customers) {
+        return (CustomerRepository) Proxy.newProxyInstance(
+                CustomerRepository.class.getClassLoader(),
+                new Class<?>[]{CustomerRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findByUserId" -> customers.stream()
+                            .filter(customer -> customer.getUserId().equals(args[0]))
+                            .findFirst();
+                    case "findAll" -> customers;
+                    case "toString" -> "InMemoryCustomerRepository";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * Stand-in for collaborators a benchmark must not touch; any call fails loudly.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T unsupported(Class<?> type) {
+        return (T) Proxy.newProxyInstance(
+                type.getClassLoader(),
+                new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "toString" -> "Unsupported" + type.getSimpleName();
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+                });
+    }
+
+    /**
+     * Database whose collections accept bulk writes and drop them, for write-behind components.
+     */
+    static MongoDatabase discardingDatabase() {
+        MongoCollection<?> collection = (MongoCollection<?>) Proxy.newProxyInstance(
+                MongoCollection.class.getClassLoader(),
+                new Class<?>[]{MongoCollection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "bulkWrite" -> null;
+                    case "toString" -> "DiscardingCollection";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException("MongoCollection." + method.getName());
+                });
+        return (MongoDatabase) Proxy.newProxyInstance(
+                MongoDatabase.class.getClassLoader(),
+                new Class<?>[]{MongoDatabase.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getCollection" -> collection;
+                    case "toString" -> "DiscardingDatabase";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException("MongoDatabase." + method.getName());
+                });
+    }
+}
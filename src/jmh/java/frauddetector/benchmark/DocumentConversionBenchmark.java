@@ -0,0 +1,57 @@
+package frauddetector.benchmark;
+
+import frauddetector.model.Transaction;
+import frauddetector.service.EmbeddingGenerator;
+import frauddetector.service.TransactionDocuments;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The consumer's conversion of a {@link Transaction} into the scoring {@link Document}, next to
+ * the Spring Data mapping that {@code save}/{@code bulkOps} perform before every write.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DocumentConversionBenchmark {
+
+    private MappingMongoConverter converter;
+    private Transaction transaction;
+
+    @Setup
+    public void setUp() {
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+        converter.afterPropertiesSet();
+        transaction = Transaction.generateRandomTransaction(BenchmarkFixtures.customers().get(2));
+        transaction.setEmbedding(new EmbeddingGenerator().generateEmbedding(transaction));
+    }
+
+    @Benchmark
+    public Document toScoringDocument() {
+        return TransactionDocuments.toScoringDocument(transaction);
+    }
+
+    @Benchmark
+    public Document springDataMapping() {
+        Document document = new Document();
+        converter.write(transaction, document);
+        return document;
+    }
+}
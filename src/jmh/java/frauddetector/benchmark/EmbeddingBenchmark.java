@@ -0,0 +1,47 @@
+package frauddetector.benchmark;
+
+import frauddetector.model.Transaction;
+import frauddetector.service.EmbeddingGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Embedding generation and synthetic transaction generation, the producer-side per-message cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmbeddingBenchmark {
+
+    private EmbeddingGenerator embeddingGenerator;
+    private Transaction transaction;
+
+    @Setup
+    public void setUp() {
+        embeddingGenerator = new EmbeddingGenerator();
+        transaction = Transaction.generateRandomTransaction(BenchmarkFixtures.customers().get(0));
+    }
+
+    @Benchmark
+    public float[] generateEmbedding() {
+        return embeddingGenerator.generateEmbedding(transaction);
+    }
+
+    @Benchmark
+    public Transaction generateRandomTransaction() {
+        return Transaction.generateRandomTransaction(BenchmarkFixtures.customers().get(1));
+    }
+}
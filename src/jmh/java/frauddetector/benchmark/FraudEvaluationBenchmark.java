@@ -0,0 +1,92 @@
+package frauddetector.benchmark;
+
+import com.mongodb.client.MongoCollection;
+import frauddetector.model.Customer;
+import frauddetector.model.Transaction;
+import frauddetector.profile.CustomerProfileCache;
+import frauddetector.rules.FastPathScorer;
+import frauddetector.scoring.EnsembleSettings;
+import frauddetector.search.HnswVectorIndex;
+import frauddetector.search.VectorIndex;
+import frauddetector.service.EmbeddingGenerator;
+import frauddetector.service.TransactionDocuments;
+import frauddetector.service.TransactionVectorSearchService;
+import frauddetector.velocity.VelocityStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code evaluateTransactionFraud} against in-memory state: the HNSW index, the profile cache over
+ * an in-memory customer repository, and the fast-path rules. The MongoDB collection is a stand-in
+ * that fails if touched, which guarantees no round-trip hides in the measured path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FraudEvaluationBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    @Param({"10000"})
+    private int indexedTransactions;
+
+    /**
+     * Rule file: the shipped rules, or the same evaluation with the fast path switched off.
+     */
+    @Param({"classpath:fraud-rules.properties", "classpath:benchmark-rules-disabled.properties"})
+    private String rules;
+
+    private TransactionVectorSearchService service;
+    private Document[] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<Customer> customers = BenchmarkFixtures.customers();
+        EmbeddingGenerator embeddingGenerator = new EmbeddingGenerator();
+
+        VectorIndex index = new HnswVectorIndex(384, 16, 100);
+        for (int i = 0; i < indexedTransactions; i++) {
+            Transaction transaction = Transaction.generateRandomTransaction(customers.get(i % customers.size()));
+            index.add(transaction.getTransactionId(), embeddingGenerator.generateEmbedding(transaction), i % 10 == 0);
+        }
+
+        CustomerProfileCache profileCache = new CustomerProfileCache(
+                BenchmarkFixtures.customerRepository(customers), null, 1000, 30, 500);
+        FastPathScorer fastPathScorer = new FastPathScorer(new DefaultResourceLoader(), rules);
+        fastPathScorer.loadRules();
+        MongoCollection<Document> collection = BenchmarkFixtures.unsupported(MongoCollection.class);
+        service = new TransactionVectorSearchService(collection, index, profileCache, fastPathScorer,
+                new VelocityStore(100_000, 86_400_000L), new SimpleMeterRegistry(), EnsembleSettings.defaults(), "hnsw", 5, 50, 0);
+
+        queries = new Document[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            Transaction transaction = Transaction.generateRandomTransaction(customers.get(i % customers.size()));
+            transaction.setEmbedding(embeddingGenerator.generateEmbedding(transaction));
+            queries[i] = TransactionDocuments.toScoringDocument(transaction);
+        }
+    }
+
+    @Benchmark
+    public boolean evaluateTransactionFraud() {
+        return service.evaluateTransactionFraud(queries[next++ & (QUERIES - 1)]);
+    }
+}
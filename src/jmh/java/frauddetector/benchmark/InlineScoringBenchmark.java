@@ -0,0 +1,112 @@
+package frauddetector.benchmark;
+
+import com.mongodb.client.MongoCollection;
+import frauddetector.decision.FraudDecisionSink;
+import frauddetector.model.Customer;
+import frauddetector.model.Transaction;
+import frauddetector.profile.CustomerProfileCache;
+import frauddetector.rules.FastPathScorer;
+import frauddetector.scoring.EnsembleSettings;
+import frauddetector.search.HnswVectorIndex;
+import frauddetector.search.VectorIndex;
+import frauddetector.service.EmbeddingGenerator;
+import frauddetector.service.FraudDecision;
+import frauddetector.service.InlineScoringService;
+import frauddetector.service.TransactionVectorSearchService;
+import frauddetector.velocity.VelocityStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Latency distribution of {@link InlineScoringService#score}, the path behind {@code POST /score},
+ * with 8 concurrent callers. SampleTime mode reports p50/p90/p99/p99.9/p99.99 per configuration;
+ * requests that hit the deadline are answered with the fail-open decision, so p99.9 stays bounded
+ * by {@code deadlineMs}. HTTP handling and JSON mapping are not included.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class InlineScoringBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    @Param({"50"})
+    private long deadlineMs;
+
+    /**
+     * Rule file: the shipped rules, or every request through similarity search.
+     */
+    @Param({"classpath:fraud-rules.properties", "classpath:benchmark-rules-disabled.properties"})
+    private String rules;
+
+    private TransactionVectorSearchService vectorSearchService;
+    private FraudDecisionSink decisionSink;
+    private InlineScoringService scoringService;
+    private Transaction[] queries;
+    private final AtomicInteger next = new AtomicInteger();
+
+    @Setup
+    public void setUp() {
+        List<Customer> customers = BenchmarkFixtures.customers();
+        EmbeddingGenerator embeddingGenerator = new EmbeddingGenerator();
+
+        VectorIndex index = new HnswVectorIndex(384, 16, 100);
+        for (int i = 0; i < 10_000; i++) {
+            Transaction transaction = Transaction.generateRandomTransaction(customers.get(i % customers.size()));
+            index.add(transaction.getTransactionId(), embeddingGenerator.generateEmbedding(transaction), i % 10 == 0);
+        }
+
+        CustomerProfileCache profileCache = new CustomerProfileCache(
+                BenchmarkFixtures.customerRepository(customers), null, 1000, 30, 500);
+        FastPathScorer fastPathScorer = new FastPathScorer(new DefaultResourceLoader(), rules);
+        fastPathScorer.loadRules();
+        MongoCollection<Document> collection = BenchmarkFixtures.unsupported(MongoCollection.class);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        vectorSearchService = new TransactionVectorSearchService(collection, index, profileCache, fastPathScorer,
+                new VelocityStore(100_000, 86_400_000L), meterRegistry, EnsembleSettings.defaults(), "hnsw", 5, 50, 0);
+        decisionSink = new FraudDecisionSink(BenchmarkFixtures.discardingDatabase(), "benchmark", 500, 200, 100_000, 5_000);
+        decisionSink.start();
+        scoringService = new InlineScoringService(vectorSearchService, embeddingGenerator, decisionSink,
+                meterRegistry, deadlineMs, true);
+
+        queries = new Transaction[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            Transaction transaction = Transaction.generateRandomTransaction(customers.get(i % customers.size()));
+            transaction.setEmbedding(embeddingGenerator.generateEmbedding(transaction));
+            queries[i] = transaction;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        decisionSink.shutdown();
+        vectorSearchService.shutdown();
+    }
+
+    @Benchmark
+    public FraudDecision score() {
+        return scoringService.score(queries[next.getAndIncrement() & (QUERIES - 1)]).join();
+    }
+}
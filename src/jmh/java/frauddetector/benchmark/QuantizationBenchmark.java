@@ -0,0 +1,155 @@
+package frauddetector.benchmark;
+
+import frauddetector.quantization.ProductQuantizer;
+import frauddetector.quantization.ScalarQuantizer;
+import frauddetector.search.EmbeddingLookup;
+import frauddetector.search.ExactVectorIndex;
+import frauddetector.search.Neighbor;
+import frauddetector.search.QuantizedVectorIndex;
+import frauddetector.search.VectorIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search latency of quantized indexes against exact search. Recall@10 (measured against exact
+ * search) and bytes per vector for each variant are printed during setup.
+ * <p>
+ * Embeddings are drawn around a few hundred cluster centres and vary along a shared low-dimensional
+ * subspace plus a little isotropic noise, which is closer to real embedding distributions than
+ * uniform noise and is the structure quantization relies on. Re-ranking reads full
+ * vectors from an in-memory map standing in for MongoDB.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuantizationBenchmark {
+
+    private static final int DIMENSIONS = 384;
+    private static final int CLUSTERS = 256;
+    private static final int INTRINSIC_DIMENSIONS = 24;
+    private static final int K = 10;
+    private static final int CANDIDATES = 50;
+    private static final int RECALL_QUERIES = 200;
+
+    @Param({"50000"})
+    private int size;
+
+    @Param({"exact", "sq", "sq-rerank", "pq", "pq-rerank"})
+    private String index;
+
+    private VectorIndex vectorIndex;
+    private float[][] basis;
+    private float[][] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        basis = new float[INTRINSIC_DIMENSIONS][];
+        for (int j = 0; j < INTRINSIC_DIMENSIONS; j++) {
+            basis[j] = gaussian(random, 1.0f);
+        }
+        float[][] centres = new float[CLUSTERS][];
+        for (int c = 0; c < CLUSTERS; c++) {
+            centres[c] = gaussian(random, 1.0f);
+        }
+        Map<String, float[]> fullPrecision = new HashMap<>();
+        EmbeddingLookup lookup = ids -> {
+            Map<String, float[]> found = new HashMap<>();
+            ids.forEach(id -> found.put(id, fullPrecision.get(id)));
+            return found;
+        };
+        int trainingSample = Math.min(size, 10_000);
+        ExactVectorIndex exact = new ExactVectorIndex(DIMENSIONS, size);
+        vectorIndex = switch (index) {
+            case "sq" -> new QuantizedVectorIndex(DIMENSIONS, size, trainingSample,
+                    samples -> ScalarQuantizer.train(samples, DIMENSIONS), null);
+            case "sq-rerank" -> new QuantizedVectorIndex(DIMENSIONS, size, trainingSample,
+                    samples -> ScalarQuantizer.train(samples, DIMENSIONS), lookup);
+            case "pq" -> new QuantizedVectorIndex(DIMENSIONS, size, trainingSample,
+                    samples -> ProductQuantizer.train(samples, DIMENSIONS, 48, 15, 42L), null);
+            case "pq-rerank" -> new QuantizedVectorIndex(DIMENSIONS, size, trainingSample,
+                    samples -> ProductQuantizer.train(samples, DIMENSIONS, 48, 15, 42L), lookup);
+            default -> exact;
+        };
+        for (int i = 0; i < size; i++) {
+            float[] vector = around(random, centres[random.nextInt(CLUSTERS)]);
+            String id = "tx" + i;
+            fullPrecision.put(id, vector);
+            vectorIndex.add(id, vector, i % 10 == 0);
+            if (vectorIndex != exact) {
+                exact.add(id, vector, i % 10 == 0);
+            }
+        }
+        queries = new float[RECALL_QUERIES][];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = around(random, centres[random.nextInt(CLUSTERS)]);
+        }
+
+        int found = 0;
+        for (float[] query : queries) {
+            Set<String> truth = new HashSet<>();
+            exact.search(query, K, 0).forEach(n -> truth.add(n.transactionId()));
+            for (Neighbor neighbor : vectorIndex.search(query, K, CANDIDATES)) {
+                if (truth.contains(neighbor.transactionId())) {
+                    found++;
+                }
+            }
+        }
+        int bytesPerVector = vectorIndex instanceof QuantizedVectorIndex quantized
+                ? quantized.bytesPerVector()
+                : DIMENSIONS * Float.BYTES;
+        System.out.printf("%n%s: recall@%d=%.3f, %d bytes/vector (%.1fx smaller than float32)%n",
+                index, K, (double) found / (RECALL_QUERIES * K), bytesPerVector,
+                (double) DIMENSIONS * Float.BYTES / bytesPerVector);
+    }
+
+    @Benchmark
+    public List<Neighbor> search() {
+        float[] query = queries[next++ % queries.length];
+        return vectorIndex.search(query, K, CANDIDATES);
+    }
+
+    private float[] around(SplittableRandom random, float[] centre) {
+        float[] vector = gaussian(random, 0.05f);
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] += centre[i];
+        }
+        for (float[] direction : basis) {
+            float weight = (float) random.nextGaussian() * 0.15f;
+            for (int i = 0; i < DIMENSIONS; i++) {
+                vector[i] += weight * direction[i];
+            }
+        }
+        return vector;
+    }
+
+    private static float[] gaussian(SplittableRandom random, float sigma) {
+        float[] vector = new float[DIMENSIONS];
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] = (float) random.nextGaussian() * sigma;
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,86 @@
+package frauddetector.benchmark;
+
+import frauddetector.model.Transaction;
+import frauddetector.serde.TransactionDeserializer;
+import frauddetector.serde.TransactionSerializer;
+import frauddetector.service.EmbeddingGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kafka value (de)serialization of a {@link Transaction} with a 384-dimension embedding:
+ * Spring's JSON serde against the binary serde.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerdeBenchmark {
+
+    private static final String TOPIC = "transactions";
+
+    private JsonSerializer<Transaction> jsonSerializer;
+    private JsonDeserializer<Transaction> jsonDeserializer;
+    private TransactionSerializer binarySerializer;
+    private TransactionDeserializer binaryDeserializer;
+    private Transaction transaction;
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() {
+        transaction = Transaction.generateRandomTransaction(BenchmarkFixtures.customers().get(0));
+        transaction.setEmbedding(new EmbeddingGenerator().generateEmbedding(transaction));
+
+        jsonSerializer = new JsonSerializer<>();
+        jsonDeserializer = new JsonDeserializer<>(Transaction.class, false);
+        binarySerializer = new TransactionSerializer();
+        binaryDeserializer = new TransactionDeserializer();
+        binaryDeserializer.configure(Map.of(), false);
+
+        json = jsonSerializer.serialize(TOPIC, transaction);
+        binary = binarySerializer.serialize(TOPIC, transaction);
+    }
+
+    @TearDown
+    public void tearDown() {
+        jsonSerializer.close();
+        jsonDeserializer.close();
+    }
+
+    @Benchmark
+    public byte[] jsonSerialize() {
+        return jsonSerializer.serialize(TOPIC, transaction);
+    }
+
+    @Benchmark
+    public Transaction jsonDeserialize() {
+        return jsonDeserializer.deserialize(TOPIC, json);
+    }
+
+    @Benchmark
+    public byte[] binarySerialize() {
+        return binarySerializer.serialize(TOPIC, transaction);
+    }
+
+    @Benchmark
+    public Transaction binaryDeserialize() {
+        return binaryDeserializer.deserialize(TOPIC, binary);
+    }
+}
@@ -0,0 +1,63 @@
+package frauddetector.benchmark;
+
+import frauddetector.generator.TransactionGenerator;
+import frauddetector.model.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Synthetic transaction generation on all cores: the legacy static path against the
+ * {@link TransactionGenerator} with per-thread seeded streams.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(Threads.MAX)
+@Fork(1)
+public class TransactionGeneratorBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+        TransactionGenerator generator;
+        final AtomicInteger streams = new AtomicInteger();
+
+        @Setup
+        public void setUp() {
+            generator = new TransactionGenerator(BenchmarkFixtures.customers(), 42L);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Stream {
+        SplittableRandom random;
+
+        @Setup
+        public void setUp(Shared shared) {
+            random = shared.generator.stream(shared.streams.getAndIncrement());
+        }
+    }
+
+    @Benchmark
+    public Transaction legacyGenerateRandomTransaction() {
+        return Transaction.generateRandomTransaction(BenchmarkFixtures.customers().get(1));
+    }
+
+    @Benchmark
+    public Transaction seededGenerator(Shared shared, Stream stream) {
+        return shared.generator.next(stream.random);
+    }
+}
@@ -0,0 +1,79 @@
+package frauddetector.benchmark;
+
+import frauddetector.search.ExactVectorIndex;
+import frauddetector.search.HnswVectorIndex;
+import frauddetector.search.Neighbor;
+import frauddetector.search.VectorIndex;
+import frauddetector.search.VectorKernels;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory similarity search over 384-dimensional embeddings: exact kNN with the SIMD and scalar
+ * kernels against the HNSW index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VectorSearchBenchmark {
+
+    private static final int DIMENSIONS = 384;
+
+    @Param({"10000", "100000"})
+    private int size;
+
+    @Param({"exact-best", "exact-scalar", "hnsw"})
+    private String index;
+
+    private VectorIndex vectorIndex;
+    private float[][] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        vectorIndex = switch (index) {
+            case "exact-best" -> new ExactVectorIndex(DIMENSIONS, size, VectorKernels.best());
+            case "exact-scalar" -> new ExactVectorIndex(DIMENSIONS, size, VectorKernels.scalar());
+            default -> new HnswVectorIndex(DIMENSIONS, 16, 100);
+        };
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < size; i++) {
+            vectorIndex.add("tx" + i, randomVector(random), i % 10 == 0);
+        }
+        queries = new float[64][];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = randomVector(random);
+        }
+    }
+
+    @Benchmark
+    public List<Neighbor> search() {
+        float[] query = queries[next++ & (queries.length - 1)];
+        return vectorIndex.search(query, 6, 50);
+    }
+
+    private static float[] randomVector(SplittableRandom random) {
+        float[] vector = new float[DIMENSIONS];
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] = random.nextFloat();
+        }
+        return vector;
+    }
+}
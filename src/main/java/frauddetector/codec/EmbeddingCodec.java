@@ -0,0 +1,60 @@
+package frauddetector.codec;
+
+import frauddetector.search.Embeddings;
+import org.bson.BsonBinary;
+import org.bson.BsonInvalidOperationException;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import java.util.Arrays;
+
+/**
+ * Driver codec so that {@code float[]} values placed in raw {@link org.bson.Document}s are written
+ * as packed float32 BSON vectors rather than arrays of doubles. Legacy arrays are read whatever
+ * numeric type their elements were stored as.
+ */
+public class EmbeddingCodec implements Codec<float[]> {
+
+    @Override
+    public void encode(BsonWriter writer, float[] value, EncoderContext encoderContext) {
+        writer.writeBinaryData(new BsonBinary(Embeddings.VECTOR_SUBTYPE, Embeddings.toVectorBytes(value)));
+    }
+
+    @Override
+    public float[] decode(BsonReader reader, DecoderContext decoderContext) {
+        if (reader.getCurrentBsonType() == BsonType.ARRAY) {
+            float[] values = new float[16];
+            int size = 0;
+            reader.readStartArray();
+            while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                if (size == values.length) {
+                    values = Arrays.copyOf(values, size * 2);
+                }
+                values[size++] = readNumber(reader);
+            }
+            reader.readEndArray();
+            return Arrays.copyOf(values, size);
+        }
+        return Embeddings.fromVectorBytes(reader.readBinaryData().getData());
+    }
+
+    private static float readNumber(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case DOUBLE -> (float) reader.readDouble();
+            case INT32 -> reader.readInt32();
+            case INT64 -> reader.readInt64();
+            case DECIMAL128 -> (float) reader.readDecimal128().doubleValue();
+            default -> throw new BsonInvalidOperationException(
+                    "Embedding element of type " + reader.getCurrentBsonType() + " is not a number");
+        };
+    }
+
+    @Override
+    public Class<float[]> getEncoderClass() {
+        return float[].class;
+    }
+}
@@ -0,0 +1,22 @@
+package frauddetector.codec;
+
+import frauddetector.search.Embeddings;
+import org.springframework.data.mongodb.core.convert.MongoConversionContext;
+import org.springframework.data.mongodb.core.convert.MongoValueConverter;
+
+/**
+ * Spring Data property converter for {@code Transaction.embedding}: writes packed float32 BSON
+ * vectors and reads both those and legacy arrays of doubles.
+ */
+public class EmbeddingValueConverter implements MongoValueConverter<float[], Object> {
+
+    @Override
+    public float[] read(Object value, MongoConversionContext context) {
+        return Embeddings.toFloatArray(value);
+    }
+
+    @Override
+    public Object write(float[] value, MongoConversionContext context) {
+        return Embeddings.toBinaryVector(value);
+    }
+}
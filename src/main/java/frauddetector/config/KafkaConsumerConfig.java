@@ -0,0 +1,82 @@
+package frauddetector.config;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+
+import java.util.Properties;
+
+@Configuration
+public class KafkaConsumerConfig {
+
+    public static final String BATCH_LISTENER_CONTAINER_FACTORY = "batchKafkaListenerContainerFactory";
+    public static final String ASYNC_LISTENER_CONTAINER_FACTORY = "asyncKafkaListenerContainerFactory";
+
+    @Value("${fraud.consumer.batch.max-records:500}")
+    private int maxRecords;
+
+    @Value("${fraud.consumer.batch.fetch-min-bytes:65536}")
+    private int fetchMinBytes;
+
+    @Value("${fraud.consumer.batch.fetch-max-wait-ms:100}")
+    private int fetchMaxWaitMs;
+
+    @Value("${fraud.consumer.async.max-in-flight:256}")
+    private int maxInFlight;
+
+    /**
+     * Container factory for the batch consumer. Offsets are acknowledged manually so they are only
+     * committed once the whole poll has been written to MongoDB.
+     */
+    @Bean(name = BATCH_LISTENER_CONTAINER_FACTORY)
+    @ConditionalOnProperty(name = "fraud.consumer.mode", havingValue = "batch")
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> batchKafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(true);
+
+        ContainerProperties containerProperties = factory.getContainerProperties();
+        containerProperties.setAckMode(ContainerProperties.AckMode.MANUAL);
+
+        // Batch size and linger: the broker holds a fetch until fetch.min.bytes are available
+        // or fetch.max.wait.ms has elapsed, and each poll returns at most max.poll.records
+        Properties consumerProperties = new Properties();
+        consumerProperties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(maxRecords));
+        consumerProperties.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, String.valueOf(fetchMinBytes));
+        consumerProperties.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, String.valueOf(fetchMaxWaitMs));
+        containerProperties.setKafkaConsumerProperties(consumerProperties);
+        return factory;
+    }
+
+    /**
+     * Container factory for the async consumer. Records are acknowledged from the threads that finish
+     * them, in any order; with async acks the container commits a partition's offset only once every
+     * earlier record of it has been acknowledged, and holds back the next poll until the current one
+     * is done, so at most max.poll.records evaluations are in flight per container.
+     */
+    @Bean(name = ASYNC_LISTENER_CONTAINER_FACTORY)
+    @ConditionalOnProperty(name = "fraud.consumer.mode", havingValue = "async")
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> asyncKafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+
+        ContainerProperties containerProperties = factory.getContainerProperties();
+        containerProperties.setAckMode(ContainerProperties.AckMode.MANUAL);
+        containerProperties.setAsyncAcks(true);
+
+        Properties consumerProperties = new Properties();
+        consumerProperties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(maxInFlight));
+        containerProperties.setKafkaConsumerProperties(consumerProperties);
+        return factory;
+    }
+}
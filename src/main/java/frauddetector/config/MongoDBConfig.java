@@ -3,7 +3,9 @@ package frauddetector.config;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import frauddetector.codec.EmbeddingCodec;
 import org.bson.Document;
+import org.bson.codecs.configuration.CodecRegistries;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -20,6 +22,10 @@ public class MongoDBConfig {
 
     @Bean
     public MongoCollection<Document> transactionsCollection(MongoDatabase fraudDatabase) {
-        return fraudDatabase.getCollection(TRANSACTIONS_COLLECTION);
+        // float[] embeddings in raw documents are written as packed BSON vectors
+        return fraudDatabase.getCollection(TRANSACTIONS_COLLECTION)
+                .withCodecRegistry(CodecRegistries.fromRegistries(
+                        CodecRegistries.fromCodecs(new EmbeddingCodec()),
+                        fraudDatabase.getCodecRegistry()));
     }
 }
\ No newline at end of file
@@ -0,0 +1,105 @@
+package frauddetector.config;
+
+import com.mongodb.client.MongoCollection;
+import frauddetector.quantization.ProductQuantizer;
+import frauddetector.quantization.Quantizer;
+import frauddetector.quantization.ScalarQuantizer;
+import frauddetector.search.ExactVectorIndex;
+import frauddetector.search.HnswVectorIndex;
+import frauddetector.search.MongoEmbeddingLookup;
+import frauddetector.search.QuantizedVectorIndex;
+import frauddetector.search.VectorIndex;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.embedding.EmbeddingClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Configuration
+public class VectorSearchConfig {
+    private static final Logger logger = LoggerFactory.getLogger(VectorSearchConfig.class);
+
+    private static final String STRATEGY_EXACT = "exact";
+    private static final String STRATEGY_QUANTIZED = "quantized";
+    private static final String QUANTIZATION_PRODUCT = "pq";
+    private static final String PROVIDER_CLIENT = "client";
+
+    @Value("${fraud.search.strategy:hnsw}")
+    private String strategy;
+
+    @Value("${fraud.search.dimensions:384}")
+    private int dimensions;
+
+    @Value("${fraud.embedding.provider:random}")
+    private String embeddingProvider;
+
+    @Value("${fraud.search.hnsw.m:16}")
+    private int m;
+
+    @Value("${fraud.search.hnsw.ef-construction:100}")
+    private int efConstruction;
+
+    @Value("${fraud.search.exact.capacity:100000}")
+    private int exactCapacity;
+
+    @Value("${fraud.search.quantization.type:sq}")
+    private String quantizationType;
+
+    @Value("${fraud.search.quantization.capacity:1000000}")
+    private int quantizedCapacity;
+
+    @Value("${fraud.search.quantization.training-sample:10000}")
+    private int trainingSample;
+
+    @Value("${fraud.search.quantization.pq.subspaces:48}")
+    private int pqSubspaces;
+
+    @Value("${fraud.search.quantization.pq.iterations:15}")
+    private int pqIterations;
+
+    @Value("${fraud.search.quantization.rerank:true}")
+    private boolean rerank;
+
+    @Bean
+    public VectorIndex vectorIndex(MongoCollection<Document> transactionCollection,
+                                   ObjectProvider<EmbeddingClient> embeddingClient) {
+        checkEmbeddingDimensions(embeddingClient);
+        if (STRATEGY_QUANTIZED.equalsIgnoreCase(strategy)) {
+            Function<List<float[]>, Quantizer> trainer = QUANTIZATION_PRODUCT.equalsIgnoreCase(quantizationType)
+                    ? samples -> ProductQuantizer.train(samples, dimensions, pqSubspaces, pqIterations, 42L)
+                    : samples -> ScalarQuantizer.train(samples, dimensions);
+            logger.info("Using {} quantized search over the latest {} embeddings, trained on the first {}{}",
+                    quantizationType, quantizedCapacity, trainingSample, rerank ? ", re-ranked from MongoDB" : "");
+            return new QuantizedVectorIndex(dimensions, quantizedCapacity, trainingSample, trainer,
+                    rerank ? new MongoEmbeddingLookup(transactionCollection) : null);
+        }
+        if (STRATEGY_EXACT.equalsIgnoreCase(strategy)) {
+            ExactVectorIndex index = new ExactVectorIndex(dimensions, exactCapacity);
+            logger.info("Using exact kNN over the latest {} embeddings with {} kernels", exactCapacity, index.kernelName());
+            return index;
+        }
+        return new HnswVectorIndex(dimensions, m, efConstruction);
+    }
+
+    /**
+     * Fails startup when the embedding model's output size differs from the index dimensions, rather
+     * than rejecting every embedding once traffic arrives. The client may issue one embedding call
+     * when it does not know the model's size.
+     */
+    private void checkEmbeddingDimensions(ObjectProvider<EmbeddingClient> embeddingClient) {
+        if (!PROVIDER_CLIENT.equalsIgnoreCase(embeddingProvider)) {
+            return;
+        }
+        int modelDimensions = embeddingClient.getObject().dimensions();
+        if (modelDimensions != dimensions) {
+            throw new IllegalStateException("Embedding model produces " + modelDimensions
+                    + " dimensions but fraud.search.dimensions is " + dimensions);
+        }
+    }
+}
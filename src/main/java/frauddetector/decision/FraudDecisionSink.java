@@ -0,0 +1,260 @@
+package frauddetector.decision;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.WriteModel;
+import frauddetector.service.FraudDecision;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind store for fraud decisions. Scorers hand decisions over with {@link #record} and move
+ * on; a flusher thread writes them to the {@code fraudDecisions} collection as unordered bulk writes
+ * of up to {@code fraud.decisions.batch-size}, at the latest {@code fraud.decisions.flush-interval-ms}
+ * after the first one was queued. Decisions are keyed by transaction ID, so a redelivered
+ * transaction overwrites its earlier decision instead of adding a second one.
+ * <p>
+ * The queue is bounded: when the database falls behind, {@link #record} blocks rather than buffering
+ * without limit. On shutdown the flusher drains the queue for up to
+ * {@code fraud.decisions.shutdown-timeout-ms}; whatever is left after that is logged and dropped.
+ */
+@Service
+public class FraudDecisionSink implements MeterBinder {
+    private static final Logger logger = LoggerFactory.getLogger(FraudDecisionSink.class);
+
+    private static final String DECISIONS_COLLECTION = "fraudDecisions";
+    private static final ReplaceOptions UPSERT = new ReplaceOptions().upsert(true);
+    private static final BulkWriteOptions UNORDERED = new BulkWriteOptions().ordered(false);
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final MongoCollection<Document> decisionCollection;
+    private final String modelVersion;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long shutdownTimeoutMs;
+    private final BlockingQueue<PendingDecision> pending;
+    // Source of each decision handed to record() whose bulk write has not completed yet
+    private final Map<String, String> unflushed = new ConcurrentHashMap<>();
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    @Autowired
+    public FraudDecisionSink(MongoDatabase fraudDatabase,
+                             @Value("${fraud.decisions.model-version:1}") String modelVersion,
+                             @Value("${fraud.decisions.batch-size:500}") int batchSize,
+                             @Value("${fraud.decisions.flush-interval-ms:200}") long flushIntervalMs,
+                             @Value("${fraud.decisions.queue-capacity:20000}") int queueCapacity,
+                             @Value("${fraud.decisions.shutdown-timeout-ms:10000}") long shutdownTimeoutMs) {
+        this(fraudDatabase.getCollection(DECISIONS_COLLECTION), modelVersion, batchSize, flushIntervalMs,
+                queueCapacity, shutdownTimeoutMs);
+    }
+
+    FraudDecisionSink(MongoCollection<Document> decisionCollection, String modelVersion, int batchSize,
+                      long flushIntervalMs, int queueCapacity, long shutdownTimeoutMs) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Decision batch size must be positive");
+        }
+        this.decisionCollection = decisionCollection;
+        this.modelVersion = modelVersion;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.pending = new ArrayBlockingQueue<>(queueCapacity);
+        this.flusher = new Thread(this::flushLoop, "decision-flusher");
+        this.flusher.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        try {
+            flusher.join(shutdownTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (flusher.isAlive()) {
+            flusher.interrupt();
+        }
+        int dropped = pending.size();
+        pending.clear();
+        unflushed.clear();
+        logger.info("Decision sink stopped: {} written, {} failed, {} dropped", written.get(), failed.get(), dropped);
+    }
+
+    /**
+     * Queues a decision for the next bulk write, blocking while the queue is full.
+     *
+     * @param source which pipeline made the decision, e.g. {@code kafka} or {@code changestream}
+     */
+    public void record(FraudDecision decision, String source) {
+        if (!running) {
+            logger.warn("Decision sink stopped, dropping decision for {}", decision.transactionId());
+            return;
+        }
+        unflushed.put(decision.transactionId(), source);
+        try {
+            pending.put(new PendingDecision(decision, source, System.currentTimeMillis()));
+        } catch (InterruptedException e) {
+            unflushed.remove(decision.transactionId(), source);
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while queueing decision for {}", decision.transactionId());
+        }
+    }
+
+    /**
+     * Whether a decision from one of {@code sources} exists for the transaction, either still queued
+     * or already written. Queued decisions count until their bulk write completes, so there is no gap
+     * between handing a decision over and it being readable. The lookup by {@code _id} is served by
+     * the primary key index.
+     */
+    public boolean hasDecision(String transactionId, Collection<String> sources) {
+        String queuedSource = unflushed.get(transactionId);
+        if (queuedSource != null && sources.contains(queuedSource)) {
+            return true;
+        }
+        try {
+            return decisionCollection.find(Filters.and(Filters.eq("_id", transactionId), Filters.in("source", sources)))
+                    .projection(Projections.include("_id"))
+                    .first() != null;
+        } catch (MongoException e) {
+            logger.warn("Decision lookup for {} failed", transactionId, e);
+            return false;
+        }
+    }
+
+    public int getQueueDepth() {
+        return pending.size();
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("fraud.decisions.queue.depth", this, FraudDecisionSink::getQueueDepth)
+                .description("Decisions waiting to be written")
+                .register(registry);
+        FunctionCounter.builder("fraud.decisions.written", written, AtomicLong::get)
+                .description("Decisions written to MongoDB")
+                .register(registry);
+        FunctionCounter.builder("fraud.decisions.failed", failed, AtomicLong::get)
+                .description("Decisions lost to failed bulk writes")
+                .register(registry);
+    }
+
+    private void flushLoop() {
+        List<PendingDecision> batch = new ArrayList<>(batchSize);
+        // Keeps going after shutdown starts until the queue is empty
+        while (running || !pending.isEmpty()) {
+            try {
+                nextBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void nextBatch(List<PendingDecision> batch) throws InterruptedException {
+        PendingDecision first = pending.poll(POLL_NANOS, TimeUnit.NANOSECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (batch.size() < batchSize) {
+            if (pending.drainTo(batch, batchSize - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || !running) {
+                break;
+            }
+            // Short polls, so a shutdown does not wait out a long flush interval
+            PendingDecision next = pending.poll(Math.min(remaining, POLL_NANOS), TimeUnit.NANOSECONDS);
+            if (next != null) {
+                batch.add(next);
+            }
+        }
+    }
+
+    private void write(List<PendingDecision> batch) {
+        List<WriteModel<Document>> writes = new ArrayList<>(batch.size());
+        for (PendingDecision pendingDecision : batch) {
+            Document document = toDocument(pendingDecision);
+            writes.add(new ReplaceOneModel<>(Filters.eq("_id", document.get("_id")), document, UPSERT));
+        }
+        try {
+            decisionCollection.bulkWrite(writes, UNORDERED);
+            written.addAndGet(batch.size());
+        } catch (MongoException e) {
+            failed.addAndGet(batch.size());
+            logger.error("Failed to write {} fraud decisions", batch.size(), e);
+        } finally {
+            for (PendingDecision pendingDecision : batch) {
+                unflushed.remove(pendingDecision.decision().transactionId(), pendingDecision.source());
+            }
+        }
+    }
+
+    private Document toDocument(PendingDecision pendingDecision) {
+        FraudDecision decision = pendingDecision.decision();
+        return new Document("_id", decision.transactionId())
+                .append("userId", decision.userId())
+                .append("isFraud", decision.fraud())
+                .append("score", decision.score())
+                .append("fastPath", decision.fastPath().name())
+                .append("reasons", decision.reasons())
+                .append("modelVersion", modelVersion)
+                .append("latencyMicros", TimeUnit.NANOSECONDS.toMicros(decision.latencyNanos()))
+                .append("source", pendingDecision.source())
+                .append("decidedAt", new Date(pendingDecision.decidedAtMillis()));
+    }
+
+    private record PendingDecision(FraudDecision decision, String source, long decidedAtMillis) {
+    }
+}
@@ -0,0 +1,149 @@
+package frauddetector.dedupe;
+
+import frauddetector.decision.FraudDecisionSink;
+import frauddetector.service.TransactionChangeStreamListener;
+import frauddetector.service.TransactionDocuments;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Suppresses scoring a transaction more than once: Kafka redeliveries after a rebalance, and change
+ * stream inserts of transactions the Kafka consumers already scored. Checked by {@code transactionId}
+ * before any MongoDB or search work.
+ * <p>
+ * A {@link RotatingBloomFilter} over the last {@code fraud.dedupe.window-ms} answers most checks in
+ * memory. Only a probable hit is confirmed: against the transactions currently being scored, then
+ * by looking for a pipeline decision for the transaction in the {@link FraudDecisionSink}; an
+ * unconfirmed hit is a false positive and the transaction is scored as usual.
+ * <p>
+ * A check that finds no duplicate claims the transaction until {@link #release} is called, which
+ * the caller does once the decision is in the sink (or scoring failed). This covers the window
+ * between a consumer storing a transaction and recording its decision, in which the change stream
+ * insert event could otherwise find nothing to confirm against.
+ * <p>
+ * Decisions made by {@code POST /score} do not count: those transactions still come through the
+ * pipeline afterwards.
+ */
+@Service
+public class DuplicateFilter implements MeterBinder {
+    private static final Logger logger = LoggerFactory.getLogger(DuplicateFilter.class);
+
+    private static final List<String> PIPELINE_SOURCES =
+            List.of(TransactionDocuments.SCORED_BY_KAFKA, TransactionChangeStreamListener.DECISION_SOURCE);
+
+    private final FraudDecisionSink decisionSink;
+    private final boolean enabled;
+    private final RotatingBloomFilter filter;
+    private final Set<String> inProgress = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong checks = new AtomicLong();
+    private final AtomicLong probableHits = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+
+    @Autowired
+    public DuplicateFilter(FraudDecisionSink decisionSink,
+                           @Value("${fraud.dedupe.enabled:true}") boolean enabled,
+                           @Value("${fraud.dedupe.window-ms:600000}") long windowMillis,
+                           @Value("${fraud.dedupe.generations:4}") int generations,
+                           @Value("${fraud.dedupe.expected-insertions:1000000}") long expectedInsertions,
+                           @Value("${fraud.dedupe.false-positive-rate:0.001}") double falsePositiveRate) {
+        this.decisionSink = decisionSink;
+        this.enabled = enabled;
+        this.filter = new RotatingBloomFilter(expectedInsertions, falsePositiveRate, windowMillis, generations,
+                System::currentTimeMillis);
+        if (enabled) {
+            logger.info("Duplicate filter: {} ms window in {} generations, {} KiB, {} hashes",
+                    windowMillis, generations, filter.sizeInBytes() / 1024, filter.hashCount());
+        }
+    }
+
+    /**
+     * Records the transaction as seen and returns whether it was already scored, or is being scored,
+     * by the pipeline. When it returns {@code false} the caller holds the claim on the transaction
+     * and must {@link #release} it.
+     */
+    public boolean isDuplicate(String transactionId) {
+        if (!enabled || transactionId == null) {
+            return false;
+        }
+        checks.incrementAndGet();
+        if (!filter.put(transactionId)) {
+            if (!inProgress.add(transactionId)) {
+                // Still being scored after its Bloom filter generation rotated out
+                duplicates.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+        probableHits.incrementAndGet();
+        if (inProgress.contains(transactionId) || decisionSink.hasDecision(transactionId, PIPELINE_SOURCES)) {
+            duplicates.incrementAndGet();
+            return true;
+        }
+        if (!inProgress.add(transactionId)) {
+            // Claimed by another scorer between the two checks
+            duplicates.incrementAndGet();
+            return true;
+        }
+        logger.debug("Duplicate filter false positive for transaction {}", transactionId);
+        return false;
+    }
+
+    /**
+     * Gives up the claim taken by {@link #isDuplicate}; call after the decision has been handed to the
+     * {@link FraudDecisionSink}, or when scoring failed.
+     */
+    public void release(String transactionId) {
+        if (transactionId != null) {
+            inProgress.remove(transactionId);
+        }
+    }
+
+    public int getInProgressCount() {
+        return inProgress.size();
+    }
+
+    public long getDuplicateCount() {
+        return duplicates.get();
+    }
+
+    /**
+     * Share of first-time transactions the filter reported as probable hits.
+     */
+    public double getObservedFalsePositiveRate() {
+        long falsePositives = probableHits.get() - duplicates.get();
+        long negatives = checks.get() - duplicates.get();
+        return negatives > 0 ? (double) falsePositives / negatives : 0.0;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("fraud.dedupe.checks", checks, AtomicLong::get)
+                .description("Transactions checked against the duplicate filter")
+                .register(registry);
+        FunctionCounter.builder("fraud.dedupe.duplicates", duplicates, AtomicLong::get)
+                .description("Confirmed duplicates skipped")
+                .register(registry);
+        FunctionCounter.builder("fraud.dedupe.false-positives", this, f -> f.probableHits.get() - f.duplicates.get())
+                .description("Probable hits not confirmed by a stored decision")
+                .register(registry);
+        Gauge.builder("fraud.dedupe.false-positive-rate", this, DuplicateFilter::getObservedFalsePositiveRate)
+                .description("Observed share of new transactions reported as probable hits")
+                .register(registry);
+        Gauge.builder("fraud.dedupe.estimated-false-positive-rate", filter, RotatingBloomFilter::estimatedFalsePositiveRate)
+                .description("False positive rate estimated from the filter's fill")
+                .register(registry);
+    }
+}
@@ -0,0 +1,178 @@
+package frauddetector.dedupe;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Time-windowed Bloom filter over strings. The window is split into {@code generations} equal
+ * slices, each with its own bit array; keys are added to the newest, looked up in all, and every
+ * slice the oldest array is cleared and becomes the newest. A key is therefore remembered for
+ * between {@code (generations - 1) / generations} of the window and the whole window, and memory
+ * stays fixed however many keys arrive.
+ * <p>
+ * Each array is sized for its share of {@code expectedInsertions} at {@code falsePositiveRate /
+ * generations}, so a lookup across all of them stays near {@code falsePositiveRate} at the expected
+ * load. Bits are set with compare-and-set, so lookups and inserts take no lock; only rotation does.
+ */
+public class RotatingBloomFilter {
+
+    private final int generations;
+    private final long rotationMillis;
+    private final long bits;
+    private final int words;
+    private final int hashes;
+    private final LongSupplier clock;
+    private final AtomicReferenceArray<AtomicLongArray> filters;
+    private volatile int current;
+    private volatile long nextRotationMillis;
+
+    public RotatingBloomFilter(long expectedInsertions, double falsePositiveRate, long windowMillis,
+                               int generations, LongSupplier clock) {
+        if (expectedInsertions <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1
+                || windowMillis <= 0 || generations < 2) {
+            throw new IllegalArgumentException("Invalid Bloom filter settings");
+        }
+        long perGeneration = Math.max(1, expectedInsertions / generations);
+        double perGenerationRate = falsePositiveRate / generations;
+        long optimalBits = (long) Math.ceil(-perGeneration * Math.log(perGenerationRate) / (Math.log(2) * Math.log(2)));
+        this.words = (int) Math.min(Integer.MAX_VALUE - 8, (optimalBits + Long.SIZE - 1) / Long.SIZE);
+        this.bits = (long) words * Long.SIZE;
+        this.hashes = Math.max(1, (int) Math.round((double) bits / perGeneration * Math.log(2)));
+        this.generations = generations;
+        this.rotationMillis = Math.max(1, windowMillis / generations);
+        this.clock = clock;
+        this.filters = new AtomicReferenceArray<>(generations);
+        for (int i = 0; i < generations; i++) {
+            filters.set(i, new AtomicLongArray(words));
+        }
+        this.nextRotationMillis = clock.getAsLong() + rotationMillis;
+    }
+
+    /**
+     * Adds the key and returns whether it was probably present already; {@code false} is exact.
+     */
+    public boolean put(String key) {
+        rotateIfDue();
+        long hash = hash(key);
+        long h1 = mix(hash);
+        long h2 = mix(h1 ^ hash) | 1L;
+        int newest = current;
+        for (int i = 0; i < generations; i++) {
+            if (i != newest && contains(filters.get(i), h1, h2)) {
+                set(filters.get(newest), h1, h2);
+                return true;
+            }
+        }
+        return !set(filters.get(newest), h1, h2);
+    }
+
+    public boolean mightContain(String key) {
+        rotateIfDue();
+        long hash = hash(key);
+        long h1 = mix(hash);
+        long h2 = mix(h1 ^ hash) | 1L;
+        for (int i = 0; i < generations; i++) {
+            if (contains(filters.get(i), h1, h2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Chance that a lookup of an absent key reports it present, estimated from how full each bit
+     * array is. Scans every array, so meant for occasional reporting rather than per-call use.
+     */
+    public double estimatedFalsePositiveRate() {
+        double absent = 1.0;
+        for (int i = 0; i < generations; i++) {
+            AtomicLongArray filter = filters.get(i);
+            long set = 0;
+            for (int w = 0; w < words; w++) {
+                set += Long.bitCount(filter.get(w));
+            }
+            absent *= 1.0 - Math.pow((double) set / bits, hashes);
+        }
+        return 1.0 - absent;
+    }
+
+    public long sizeInBytes() {
+        return (long) generations * words * Long.BYTES;
+    }
+
+    public int hashCount() {
+        return hashes;
+    }
+
+    private void rotateIfDue() {
+        long now = clock.getAsLong();
+        if (now < nextRotationMillis) {
+            return;
+        }
+        synchronized (this) {
+            // Catch up on every slice that has elapsed, but never clear more than all of them
+            for (int i = 0; i < generations && now >= nextRotationMillis; i++) {
+                int oldest = (current + 1) % generations;
+                filters.set(oldest, new AtomicLongArray(words));
+                current = oldest;
+                nextRotationMillis += rotationMillis;
+            }
+            if (now >= nextRotationMillis) {
+                nextRotationMillis = now + rotationMillis;
+            }
+        }
+    }
+
+    private boolean contains(AtomicLongArray filter, long h1, long h2) {
+        for (int i = 0; i < hashes; i++) {
+            long index = Math.floorMod(h1 + i * h2, bits);
+            if ((filter.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sets the key's bits and returns whether any of them changed.
+     */
+    private boolean set(AtomicLongArray filter, long h1, long h2) {
+        boolean changed = false;
+        for (int i = 0; i < hashes; i++) {
+            long index = Math.floorMod(h1 + i * h2, bits);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long old;
+            do {
+                old = filter.get(word);
+                if ((old & mask) != 0) {
+                    break;
+                }
+            } while (!filter.compareAndSet(word, old, old | mask));
+            changed |= (old & mask) == 0;
+        }
+        return changed;
+    }
+
+    // 64-bit FNV-1a over the UTF-8 bytes
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // MurmurHash3 finalizer, to spread FNV's weak low bits before double hashing
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,117 @@
+package frauddetector.diagnostics;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In virtual-thread mode, streams JFR {@code jdk.VirtualThreadPinned} events (a virtual thread that
+ * blocked while holding a monitor or inside a native frame, and so held on to its carrier) and
+ * reports how often each call site pinned. Only pins longer than the threshold are recorded.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int REPORTED_FRAMES = 4;
+    private static final int REPORTED_SITES = 10;
+
+    private final Duration threshold;
+    private final Map<String, LongAdder> pinsBySite = new ConcurrentHashMap<>();
+    private RecordingStream stream;
+
+    @Autowired
+    public VirtualThreadPinningMonitor(@Value("${fraud.threads.pinning.threshold-ms:20}") long thresholdMs) {
+        this.threshold = Duration.ofMillis(thresholdMs);
+    }
+
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        logger.info("Monitoring virtual thread pinning longer than {} ms", threshold.toMillis());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        String site = callSite(event.getStackTrace());
+        pinsBySite.computeIfAbsent(site, key -> new LongAdder()).increment();
+        logger.debug("Virtual thread pinned for {} ms at {}", event.getDuration().toMillis(), site);
+    }
+
+    @Scheduled(fixedDelayString = "${fraud.threads.pinning.report-interval-ms:60000}")
+    public void report() {
+        if (pinsBySite.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<String, Long>> sites = new ArrayList<>();
+        pinsBySite.forEach((site, count) -> sites.add(Map.entry(site, count.sumThenReset())));
+        sites.removeIf(entry -> entry.getValue() == 0);
+        sites.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        for (Map.Entry<String, Long> entry : sites.subList(0, Math.min(REPORTED_SITES, sites.size()))) {
+            logger.warn("Virtual thread pinned {} times at {}", entry.getValue(), entry.getKey());
+        }
+    }
+
+    private static String callSite(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "<no stack trace>";
+        }
+        // The top frames are the JDK's own park/sleep path; start at the code that blocked
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        int first = 0;
+        while (first < frames.size() && isJdkFrame(frames.get(first))) {
+            first++;
+        }
+        if (first == frames.size()) {
+            first = 0;
+        }
+        StringBuilder site = new StringBuilder();
+        for (int i = first; i < Math.min(first + REPORTED_FRAMES, frames.size()); i++) {
+            RecordedFrame frame = frames.get(i);
+            if (i > first) {
+                site.append(" <- ");
+            }
+            site.append(frame.getMethod().getType().getName())
+                    .append('.')
+                    .append(frame.getMethod().getName())
+                    .append(':')
+                    .append(frame.getLineNumber());
+        }
+        return site.toString();
+    }
+
+    private static boolean isJdkFrame(RecordedFrame frame) {
+        String type = frame.getMethod().getType().getName();
+        return type.startsWith("java.") || type.startsWith("jdk.") || type.startsWith("sun.");
+    }
+}
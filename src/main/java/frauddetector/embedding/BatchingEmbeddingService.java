@@ -0,0 +1,189 @@
+package frauddetector.embedding;
+
+import frauddetector.model.Transaction;
+import frauddetector.search.Embeddings;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.embedding.EmbeddingClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro-batching front end for the configured {@link EmbeddingClient}, enabled with
+ * {@code fraud.embedding.provider=client}.
+ * <p>
+ * Callers get a {@link CompletableFuture} per text. A dispatcher thread groups pending texts into
+ * batches of at most {@code max-batch-size}, waiting at most {@code max-wait-ms} after the first
+ * text of a batch, and issues one {@link EmbeddingClient#embed(List)} call per batch. At most
+ * {@code max-concurrent-requests} calls are outstanding; while they are, texts keep queueing, so
+ * batches grow under load instead of requests piling up at the provider. The pending queue is
+ * bounded and {@link #embed(String)} blocks when it is full.
+ */
+@Service
+@ConditionalOnProperty(name = "fraud.embedding.provider", havingValue = "client")
+public class BatchingEmbeddingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchingEmbeddingService.class);
+
+    private final EmbeddingClient embeddingClient;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final BlockingQueue<PendingEmbedding> pending;
+    private final Semaphore inFlightRequests;
+    private final ExecutorService requestExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Thread dispatcher;
+    private volatile boolean running = true;
+
+    @Autowired
+    public BatchingEmbeddingService(EmbeddingClient embeddingClient,
+                                    @Value("${fraud.embedding.max-batch-size:64}") int maxBatchSize,
+                                    @Value("${fraud.embedding.max-wait-ms:10}") long maxWaitMs,
+                                    @Value("${fraud.embedding.max-concurrent-requests:4}") int maxConcurrentRequests,
+                                    @Value("${fraud.embedding.queue-capacity:10000}") int queueCapacity) {
+        if (maxBatchSize <= 0 || maxConcurrentRequests <= 0) {
+            throw new IllegalArgumentException("Embedding batch size and concurrency must be positive");
+        }
+        this.embeddingClient = embeddingClient;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.pending = new ArrayBlockingQueue<>(queueCapacity);
+        this.inFlightRequests = new Semaphore(maxConcurrentRequests);
+        this.dispatcher = new Thread(this::dispatch, "embedding-dispatcher");
+        this.dispatcher.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        dispatcher.interrupt();
+        try {
+            dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        requestExecutor.shutdown();
+        List<PendingEmbedding> abandoned = new ArrayList<>();
+        pending.drainTo(abandoned);
+        abandoned.forEach(p -> p.future().completeExceptionally(
+                new IllegalStateException("Embedding service shut down")));
+    }
+
+    public CompletableFuture<float[]> embed(Transaction transaction) {
+        return embed(CanonicalFeatures.text(transaction));
+    }
+
+    public CompletableFuture<float[]> embed(String text) {
+        CompletableFuture<float[]> future = new CompletableFuture<>();
+        if (!running) {
+            future.completeExceptionally(new IllegalStateException("Embedding service shut down"));
+            return future;
+        }
+        try {
+            pending.put(new PendingEmbedding(text, future));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Texts waiting to be sent to the embedding client.
+     */
+    public int getQueueDepth() {
+        return pending.size();
+    }
+
+    private void dispatch() {
+        while (running) {
+            try {
+                // Take a request slot first: while all slots are busy, texts keep accumulating
+                inFlightRequests.acquire();
+                List<PendingEmbedding> batch = nextBatch();
+                if (batch.isEmpty()) {
+                    inFlightRequests.release();
+                    continue;
+                }
+                requestExecutor.execute(() -> {
+                    try {
+                        call(batch);
+                    } finally {
+                        inFlightRequests.release();
+                    }
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private List<PendingEmbedding> nextBatch() throws InterruptedException {
+        List<PendingEmbedding> batch = new ArrayList<>(maxBatchSize);
+        PendingEmbedding first = pending.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return batch;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + maxWaitNanos;
+        while (batch.size() < maxBatchSize) {
+            if (pending.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            PendingEmbedding next = pending.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    private void call(List<PendingEmbedding> batch) {
+        List<String> texts = new ArrayList<>(batch.size());
+        for (PendingEmbedding request : batch) {
+            texts.add(request.text());
+        }
+        try {
+            List<List<Double>> embeddings = embeddingClient.embed(texts);
+            if (embeddings == null || embeddings.size() != batch.size()) {
+                throw new IllegalStateException("Embedding client returned "
+                        + (embeddings == null ? 0 : embeddings.size()) + " embeddings for " + batch.size() + " texts");
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future().complete(Embeddings.toFloatArray(embeddings.get(i)));
+            }
+        } catch (Exception e) {
+            logger.error("Embedding request for {} texts failed", batch.size(), e);
+            for (PendingEmbedding request : batch) {
+                request.future().completeExceptionally(e);
+            }
+        }
+    }
+
+    private record PendingEmbedding(String text, CompletableFuture<float[]> future) {
+    }
+}
@@ -0,0 +1,62 @@
+package frauddetector.embedding;
+
+import frauddetector.model.Transaction;
+
+import java.util.Locale;
+
+/**
+ * Canonical embedding input for a transaction: only the features that describe the spending
+ * pattern ({@code userId}, amount bucket, currency, merchant, category). Unlike
+ * {@link Transaction#generateEmbeddingText()} it leaves out the transaction ID and the fraud
+ * label, so repeat purchases map to the same text and can share one embedding.
+ */
+public final class CanonicalFeatures {
+
+    /**
+     * Upper/lower bound ratio of an amount bucket: 4.10 and 4.60 share a bucket, 4.10 and 5.50 do not.
+     */
+    static final double AMOUNT_BUCKET_RATIO = 1.25;
+    private static final double LOG_BUCKET_RATIO = Math.log(AMOUNT_BUCKET_RATIO);
+
+    private CanonicalFeatures() {
+    }
+
+    public static String text(Transaction transaction) {
+        return text(transaction.getUserId(), transaction.getAmount(), String.valueOf(transaction.getCurrency()),
+                String.valueOf(transaction.getMerchant()), String.valueOf(transaction.getCategory()));
+    }
+
+    public static String text(String userId, double amount, String currency, String merchant, String category) {
+        return userId + ' ' + amountBucket(amount) + ' ' + currency + ' ' + merchant + ' ' + category;
+    }
+
+    /**
+     * Geometric bucket of the amount, rendered as its range, e.g. {@code 3.73-4.66}.
+     */
+    static String amountBucket(double amount) {
+        if (!(amount > 0.01)) {
+            return "0";
+        }
+        long bucket = (long) Math.floor(Math.log(amount) / LOG_BUCKET_RATIO);
+        double lower = Math.pow(AMOUNT_BUCKET_RATIO, bucket);
+        return String.format(Locale.ROOT, "%.2f-%.2f", lower, lower * AMOUNT_BUCKET_RATIO);
+    }
+
+    /**
+     * 64-bit hash of a canonical text (FNV-1a over the chars with a final avalanche), used as the
+     * embedding cache key.
+     */
+    public static long hash(String text) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            h ^= text.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,136 @@
+package frauddetector.embedding;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded LRU cache of embeddings keyed by the {@link CanonicalFeatures#hash(String) hash} of the
+ * canonical transaction text, with a time-to-live per entry.
+ * <p>
+ * Entries hold the embedding future, so concurrent misses for the same text share one load. A
+ * load that fails is removed again and the next lookup retries. Cached arrays are shared between
+ * callers and must not be modified.
+ */
+@Service
+@ConditionalOnProperty(name = "fraud.embedding.cache.enabled", havingValue = "true", matchIfMissing = true)
+public class EmbeddingCache {
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddingCache.class);
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<Long, Entry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private long lastReportedLookups;
+
+    public EmbeddingCache(@Value("${fraud.embedding.cache.max-size:100000}") int maxSize,
+                          @Value("${fraud.embedding.cache.ttl-ms:3600000}") long ttlMs) {
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() <= EmbeddingCache.this.maxSize) {
+                    return false;
+                }
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached embedding for the canonical text, calling {@code loader} on a miss.
+     */
+    public CompletableFuture<float[]> get(String canonicalText, Function<String, CompletableFuture<float[]>> loader) {
+        Long key = CanonicalFeatures.hash(canonicalText);
+        long now = System.nanoTime();
+        Entry entry;
+        synchronized (entries) {
+            Entry cached = entries.get(key);
+            if (cached != null && now - cached.createdAt() < ttlNanos) {
+                hits.increment();
+                return cached.embedding();
+            }
+            if (cached != null) {
+                expirations.increment();
+            }
+            entry = new Entry(new CompletableFuture<>(), now);
+            entries.put(key, entry);
+        }
+        misses.increment();
+
+        CompletableFuture<float[]> loading;
+        try {
+            loading = loader.apply(canonicalText);
+        } catch (RuntimeException e) {
+            loading = CompletableFuture.failedFuture(e);
+        }
+        loading.whenComplete((embedding, ex) -> {
+            if (ex != null) {
+                synchronized (entries) {
+                    entries.remove(key, entry);
+                }
+                entry.embedding().completeExceptionally(ex);
+            } else {
+                entry.embedding().complete(embedding);
+            }
+        });
+        return entry.embedding();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getExpirations() {
+        return expirations.sum();
+    }
+
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long lookups = hitCount + misses.sum();
+        return lookups == 0 ? 0.0 : (double) hitCount / lookups;
+    }
+
+    @Scheduled(fixedDelayString = "${fraud.embedding.cache.report-interval-ms:60000}")
+    public void report() {
+        long lookups = hits.sum() + misses.sum();
+        if (lookups == lastReportedLookups) {
+            return;
+        }
+        lastReportedLookups = lookups;
+        logger.info("Embedding cache: size {}, hit rate {}, hits {}, misses {}, evictions {}, expirations {}",
+                size(), String.format("%.3f", getHitRate()), getHits(), getMisses(), getEvictions(), getExpirations());
+    }
+
+    private record Entry(CompletableFuture<float[]> embedding, long createdAt) {
+    }
+}
@@ -1,8 +1,7 @@
 package frauddetector.enums;  
   
 import java.util.List;
-import java.util.Random;
-import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
 
 public enum Category {  
     RETAIL, TECH, GROCERY,
@@ -15,27 +14,38 @@ public enum Category {
     ENTERTAINMENT,
     SUBSCRIPTION;
 
-    private static final Random RANDOM = new Random();
-    private static final List<Category> ALL_CATEGORIES = Arrays.asList(values());
+    private static final Category[] ALL_CATEGORIES = values();
 
     public static Category getFrequentCategory(List<Category> userCategories) {  
+        ThreadLocalRandom random = ThreadLocalRandom.current();
         if (userCategories == null || userCategories.isEmpty()) {
-            return ALL_CATEGORIES.get(RANDOM.nextInt(ALL_CATEGORIES.size()));
+            return ALL_CATEGORIES[random.nextInt(ALL_CATEGORIES.length)];
         }
-        return userCategories.get(RANDOM.nextInt(userCategories.size()));  
+        return userCategories.get(random.nextInt(userCategories.size()));  
     }
 
     public static Category getUnfrequentCategory(List<Category> userCategories) {   
+        ThreadLocalRandom random = ThreadLocalRandom.current();
         if (userCategories == null || userCategories.isEmpty()) {
-            return ALL_CATEGORIES.get(RANDOM.nextInt(ALL_CATEGORIES.size()));
+            return ALL_CATEGORIES[random.nextInt(ALL_CATEGORIES.length)];
         }
-        
-        List<Category> infrequentCategories = ALL_CATEGORIES.stream()  
-                .filter(category -> !userCategories.contains(category)) 
-                .toList();  
-        if (infrequentCategories.isEmpty()) {
+
+        // Pick the n-th category outside the user's list without materialising the complement
+        int infrequentCount = 0;
+        for (Category category : ALL_CATEGORIES) {
+            if (!userCategories.contains(category)) {
+                infrequentCount++;
+            }
+        }
+        if (infrequentCount == 0) {
             return getFrequentCategory(userCategories);
         }
-        return infrequentCategories.get(RANDOM.nextInt(infrequentCategories.size()));  
+        int pick = random.nextInt(infrequentCount);
+        for (Category category : ALL_CATEGORIES) {
+            if (!userCategories.contains(category) && pick-- == 0) {
+                return category;
+            }
+        }
+        throw new IllegalStateException("Unreachable");
     }
-}
\ No newline at end of file
+}
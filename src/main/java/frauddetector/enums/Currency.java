@@ -1,24 +1,22 @@
 package frauddetector.enums;  
   
-import java.util.List;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 public enum Currency {  
     EUR, USD, GBP;  
 
-    public static Currency getRandomSuspiciousCurrency(Currency preferredCurrency) {  
-        List<Currency> allCurrencies = List.of(Currency.values());  
-
-        List<Currency> infrequentCurrencies = allCurrencies.stream()  
-                .filter(currency -> !currency.equals(preferredCurrency))  
-                .toList();  
+    private static final Currency[] ALL_CURRENCIES = values();
 
-        if (infrequentCurrencies.isEmpty()) {  
+    public static Currency getRandomSuspiciousCurrency(Currency preferredCurrency) {  
+        if (preferredCurrency == null) {
+            return ALL_CURRENCIES[ThreadLocalRandom.current().nextInt(ALL_CURRENCIES.length)];
+        }
+        if (ALL_CURRENCIES.length == 1) {  
             return preferredCurrency;  
         }  
 
-        Random random = new Random();  
-
-        return infrequentCurrencies.get(random.nextInt(infrequentCurrencies.size()));  
+        // Draw from the other currencies by skipping over the preferred one's ordinal
+        int index = ThreadLocalRandom.current().nextInt(ALL_CURRENCIES.length - 1);  
+        return ALL_CURRENCIES[index >= preferredCurrency.ordinal() ? index + 1 : index];  
     }
-}
\ No newline at end of file
+}
@@ -1,9 +1,9 @@
 package frauddetector.enums;  
   
+import java.util.EnumMap;  
 import java.util.List;  
 import java.util.Map;  
-import java.util.Random;  
-import java.util.Map.Entry;  
+import java.util.concurrent.ThreadLocalRandom;  
 import static java.util.Map.entry;  
   
 public enum Merchant {  
@@ -29,7 +29,7 @@ public enum Merchant {
     // Shopping  
     ZARA, H_M, NIKE, ADIDAS, GAP;  
   
-    private static final Random RANDOM = new Random();  
+    private static final Merchant[] ALL_MERCHANTS = values();  
   
     private static final Map<Category, List<Merchant>> CATEGORY_MERCHANTS = Map.ofEntries(  
             entry(Category.RETAIL, List.of(AMAZON, WALMART, BEST_BUY, TARGET, COSTCO, ETSY, EBAY, IKEA)),  
@@ -45,13 +45,24 @@ public enum Merchant {
             entry(Category.ELECTRONICS, List.of(APPLE, MICROSOFT, GOOGLE, SAMSUNG, SONY, DELL, HP, LENOVO))  
     );  
   
+    private static final Map<Category, Merchant[]> CATEGORY_MERCHANT_ARRAYS = new EnumMap<>(Category.class);  
+  
+    static {  
+        CATEGORY_MERCHANTS.forEach((category, merchants) ->  
+                CATEGORY_MERCHANT_ARRAYS.put(category, merchants.toArray(new Merchant[0])));  
+    }  
+  
+    public static List<Merchant> getMerchants(Category category) {  
+        List<Merchant> merchants = category != null ? CATEGORY_MERCHANTS.get(category) : null;  
+        return merchants != null ? merchants : List.of(ALL_MERCHANTS);  
+    }  
+  
     public static Merchant getRandomMerchant(Category category) {  
-        List<Merchant> merchants = CATEGORY_MERCHANTS.get(category);  
-        if (merchants == null || merchants.isEmpty()) {  
+        Merchant[] merchants = category != null ? CATEGORY_MERCHANT_ARRAYS.get(category) : null;  
+        if (merchants == null || merchants.length == 0) {  
             // Fallback to all merchants if category not found  
-            Merchant[] allMerchants = values();  
-            return allMerchants[RANDOM.nextInt(allMerchants.length)];  
+            merchants = ALL_MERCHANTS;  
         }  
-        return merchants.get(RANDOM.nextInt(merchants.size()));  
+        return merchants[ThreadLocalRandom.current().nextInt(merchants.length)];  
     }  
 }
\ No newline at end of file
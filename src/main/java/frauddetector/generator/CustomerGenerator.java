@@ -0,0 +1,71 @@
+package frauddetector.generator;
+
+import frauddetector.enums.Category;
+import frauddetector.enums.Currency;
+import frauddetector.enums.Merchant;
+import frauddetector.model.Customer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic customer profiles for seeding. The first four are the original sample customers
+ * ({@code user1} to {@code user4}); the rest ({@code user5}, ...) get two trusted categories, a
+ * trusted merchant from each, a log-normal mean spend with a 10-30% standard deviation and a random
+ * preferred currency. The same seed always yields the same customers.
+ */
+public final class CustomerGenerator {
+
+    private static final Category[] ALL_CATEGORIES = Category.values();
+    private static final Currency[] ALL_CURRENCIES = Currency.values();
+    private static final int TRUSTED_CATEGORIES = 2;
+
+    private static final List<Customer> SAMPLE_CUSTOMERS = List.of(
+            new Customer("user1", List.of(Merchant.AMAZON, Merchant.WALMART),
+                    List.of(Category.RETAIL, Category.TECH), 100.0, 20.0, Currency.USD),
+            new Customer("user2", List.of(Merchant.STARBUCKS, Merchant.MCDONALDS),
+                    List.of(Category.FOOD, Category.BEVERAGES), 50.0, 10.0, Currency.EUR),
+            new Customer("user3", List.of(Merchant.APPLE, Merchant.MICROSOFT),
+                    List.of(Category.TECH, Category.ELECTRONICS), 200.0, 50.0, Currency.GBP),
+            new Customer("user4", List.of(Merchant.TESCO, Merchant.LIDL),
+                    List.of(Category.GROCERY, Category.FOOD), 75.0, 15.0, Currency.EUR));
+
+    private CustomerGenerator() {
+    }
+
+    public static List<Customer> generate(int count, long seed) {
+        List<Customer> customers = new ArrayList<>(count);
+        for (int i = 0; i < Math.min(count, SAMPLE_CUSTOMERS.size()); i++) {
+            customers.add(SAMPLE_CUSTOMERS.get(i));
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = customers.size(); i < count; i++) {
+            customers.add(randomCustomer("user" + (i + 1), random));
+        }
+        return customers;
+    }
+
+    private static Customer randomCustomer(String userId, SplittableRandom random) {
+        List<Category> categories = new ArrayList<>(TRUSTED_CATEGORIES);
+        while (categories.size() < TRUSTED_CATEGORIES) {
+            Category category = ALL_CATEGORIES[random.nextInt(ALL_CATEGORIES.length)];
+            if (!categories.contains(category)) {
+                categories.add(category);
+            }
+        }
+        List<Merchant> merchants = new ArrayList<>(TRUSTED_CATEGORIES);
+        for (Category category : categories) {
+            Merchant[] candidates = CustomerSampler.merchantsOf(category);
+            Merchant merchant = candidates[random.nextInt(candidates.length)];
+            if (!merchants.contains(merchant)) {
+                merchants.add(merchant);
+            }
+        }
+        // Median spend around 80, most customers between 20 and 300
+        double meanSpending = Math.round(Math.exp(4.4 + 0.7 * random.nextGaussian()) * 100) / 100.0;
+        double spendingStdDev = Math.round(meanSpending * random.nextDouble(0.1, 0.3) * 100) / 100.0;
+        Currency currency = ALL_CURRENCIES[random.nextInt(ALL_CURRENCIES.length)];
+        return new Customer(userId, merchants, categories, meanSpending, spendingStdDev, currency);
+    }
+}
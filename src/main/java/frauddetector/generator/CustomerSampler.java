@@ -0,0 +1,109 @@
+package frauddetector.generator;
+
+import frauddetector.enums.Category;
+import frauddetector.enums.Currency;
+import frauddetector.enums.Merchant;
+import frauddetector.model.Customer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Precomputed sampling tables for one customer: trusted categories, their complement, the
+ * non-preferred currencies and the merchants of every category. Immutable and shared across
+ * threads; drawing from it only indexes into arrays.
+ */
+public final class CustomerSampler {
+
+    private static final Category[] ALL_CATEGORIES = Category.values();
+    private static final Currency[] ALL_CURRENCIES = Currency.values();
+    private static final Merchant[][] MERCHANTS_BY_CATEGORY = new Merchant[ALL_CATEGORIES.length][];
+
+    static {
+        for (Category category : ALL_CATEGORIES) {
+            MERCHANTS_BY_CATEGORY[category.ordinal()] = Merchant.getMerchants(category).toArray(new Merchant[0]);
+        }
+    }
+
+    private final String userId;
+    private final double meanSpending;
+    private final double spendingStdDev;
+    private final Currency preferredCurrency;
+    private final Category[] frequentCategories;
+    private final Category[] infrequentCategories;
+    private final Currency[] suspiciousCurrencies;
+
+    public CustomerSampler(Customer customer) {
+        this.userId = customer.getUserId();
+        this.meanSpending = customer.getMeanSpending() != null ? customer.getMeanSpending() : 0.0;
+        this.spendingStdDev = customer.getSpendingStdDev() != null ? customer.getSpendingStdDev() : 0.0;
+        this.preferredCurrency = customer.getPreferredCurrency();
+
+        List<Category> trusted = customer.getCategories() != null ? customer.getCategories() : List.of();
+        List<Category> others = new ArrayList<>();
+        for (Category category : ALL_CATEGORIES) {
+            if (!trusted.contains(category)) {
+                others.add(category);
+            }
+        }
+        // Same fallbacks as Category: no trusted list means any category, no complement means a trusted one
+        this.frequentCategories = trusted.isEmpty() ? ALL_CATEGORIES : trusted.toArray(new Category[0]);
+        this.infrequentCategories = trusted.isEmpty() || others.isEmpty()
+                ? frequentCategories
+                : others.toArray(new Category[0]);
+
+        List<Currency> suspicious = new ArrayList<>();
+        for (Currency currency : ALL_CURRENCIES) {
+            if (currency != preferredCurrency) {
+                suspicious.add(currency);
+            }
+        }
+        this.suspiciousCurrencies = suspicious.isEmpty()
+                ? new Currency[]{preferredCurrency}
+                : suspicious.toArray(new Currency[0]);
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    double getMeanSpending() {
+        return meanSpending;
+    }
+
+    double getSpendingStdDev() {
+        return spendingStdDev;
+    }
+
+    Currency getPreferredCurrency() {
+        return preferredCurrency;
+    }
+
+    Category frequentCategory(int index) {
+        return frequentCategories[index % frequentCategories.length];
+    }
+
+    int frequentCategoryCount() {
+        return frequentCategories.length;
+    }
+
+    Category infrequentCategory(int index) {
+        return infrequentCategories[index % infrequentCategories.length];
+    }
+
+    int infrequentCategoryCount() {
+        return infrequentCategories.length;
+    }
+
+    Currency suspiciousCurrency(int index) {
+        return suspiciousCurrencies[index % suspiciousCurrencies.length];
+    }
+
+    int suspiciousCurrencyCount() {
+        return suspiciousCurrencies.length;
+    }
+
+    static Merchant[] merchantsOf(Category category) {
+        return MERCHANTS_BY_CATEGORY[category.ordinal()];
+    }
+}
@@ -0,0 +1,153 @@
+package frauddetector.generator;
+
+import frauddetector.enums.Category;
+import frauddetector.enums.Currency;
+import frauddetector.enums.Merchant;
+import frauddetector.model.Customer;
+import frauddetector.model.Transaction;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+
+/**
+ * Synthetic transaction generator with the same distribution as
+ * {@link Transaction#generateRandomTransaction(Customer)}: 10% suspicious transactions with an
+ * inflated amount, a non-preferred currency and an untrusted category.
+ * <p>
+ * Per-customer tables are built once, randomness comes from a caller-supplied
+ * {@link RandomGenerator} (no shared lock), and transaction IDs are drawn from that same generator
+ * instead of {@link UUID#randomUUID()}'s shared {@code SecureRandom}. With a fixed seed, each
+ * stream index yields the same sequence on every run, so parallel runs are reproducible too.
+ * <p>
+ * The drawn ID bits are mixed with a nonce picked once per generator, so two runs, or two
+ * generators sharing a seed, never produce the same IDs even though their transactions match.
+ * Pass an explicit nonce to reproduce the IDs too.
+ * <p>
+ * Timestamps are either passed in by the caller, typically advanced by {@link #nextGapMillis} gaps
+ * drawn from the same stream, or read from the injected {@link Clock}; a fixed clock makes the
+ * clock-stamped variants reproducible as well.
+ */
+public class TransactionGenerator {
+
+    private static final double SUSPICIOUS_RATE = 0.1;
+    private static final long STREAM_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final long PARALLEL_MEAN_GAP_MS = 1_000;
+
+    private final CustomerSampler[] customers;
+    private final long seed;
+    private final Clock clock;
+    private final long idNonce;
+
+    public TransactionGenerator(List<Customer> customers, long seed) {
+        this(customers, seed, Clock.systemUTC());
+    }
+
+    public TransactionGenerator(List<Customer> customers, long seed, Clock clock) {
+        this(customers, seed, clock, new SecureRandom().nextLong());
+    }
+
+    public TransactionGenerator(List<Customer> customers, long seed, Clock clock, long idNonce) {
+        if (customers.isEmpty()) {
+            throw new IllegalArgumentException("At least one customer is required");
+        }
+        this.customers = customers.stream().map(CustomerSampler::new).toArray(CustomerSampler[]::new);
+        this.seed = seed;
+        this.clock = clock;
+        this.idNonce = idNonce;
+    }
+
+    /**
+     * Exponentially distributed gap with the given mean, for advancing a timestamp from a stream.
+     */
+    public static long nextGapMillis(RandomGenerator random, long meanMillis) {
+        return Math.round(random.nextExponential() * meanMillis);
+    }
+
+    /**
+     * Deterministic random stream for a worker; distinct indexes give independent sequences.
+     */
+    public SplittableRandom stream(int index) {
+        return new SplittableRandom(seed + (index + 1) * STREAM_GAMMA);
+    }
+
+    public int customerCount() {
+        return customers.length;
+    }
+
+    /**
+     * Unseeded transaction for ad-hoc callers, drawn from the calling thread's random.
+     */
+    public Transaction next() {
+        return next(ThreadLocalRandom.current());
+    }
+
+    public Transaction next(RandomGenerator random) {
+        return next(random, clock.millis());
+    }
+
+    public Transaction next(RandomGenerator random, long timestamp) {
+        return next(random, customers[random.nextInt(customers.length)], timestamp);
+    }
+
+    public Transaction next(RandomGenerator random, int customerIndex) {
+        return next(random, customerIndex, clock.millis());
+    }
+
+    public Transaction next(RandomGenerator random, int customerIndex, long timestamp) {
+        return next(random, customers[customerIndex], timestamp);
+    }
+
+    /**
+     * Generates {@code count} transactions on {@code parallelism} threads of the common pool, each
+     * worker using its own deterministic stream. Each worker's timestamps start at the clock's
+     * current time and advance by gaps drawn from its stream. {@code sink} must be thread-safe.
+     */
+    public void generateParallel(long count, int parallelism, Consumer<Transaction> sink) {
+        long start = clock.millis();
+        IntStream.range(0, parallelism).parallel().forEach(worker -> {
+            SplittableRandom random = stream(worker);
+            long share = count / parallelism + (worker < count % parallelism ? 1 : 0);
+            long timestamp = start;
+            for (long i = 0; i < share; i++) {
+                timestamp += nextGapMillis(random, PARALLEL_MEAN_GAP_MS);
+                sink.accept(next(random, timestamp));
+            }
+        });
+    }
+
+    private Transaction next(RandomGenerator random, CustomerSampler customer, long timestamp) {
+        boolean isSuspicious = random.nextDouble() < SUSPICIOUS_RATE;
+
+        double amount;
+        Currency currency;
+        Category category;
+        if (isSuspicious) {
+            amount = customer.getMeanSpending() + random.nextDouble() * 5 * customer.getSpendingStdDev();
+            currency = customer.suspiciousCurrency(random.nextInt(customer.suspiciousCurrencyCount()));
+            category = customer.infrequentCategory(random.nextInt(customer.infrequentCategoryCount()));
+        } else {
+            amount = customer.getMeanSpending() + random.nextGaussian() * customer.getSpendingStdDev();
+            currency = customer.getPreferredCurrency();
+            category = customer.frequentCategory(random.nextInt(customer.frequentCategoryCount()));
+        }
+        Merchant[] merchants = CustomerSampler.merchantsOf(category);
+        Merchant merchant = merchants[random.nextInt(merchants.length)];
+
+        return new Transaction(randomUuid(random), customer.getUserId(), amount, currency,
+                timestamp, merchant, category);
+    }
+
+    private String randomUuid(RandomGenerator random) {
+        long most = ((random.nextLong() ^ idNonce) & ~0xF000L) | 0x4000L;  // version 4
+        long least = ((random.nextLong() ^ Long.rotateLeft(idNonce * STREAM_GAMMA, 32)) & ~(0xC000L << 48))
+                | (0x8000L << 48);  // IETF variant
+        return new UUID(most, least).toString();
+    }
+}
@@ -0,0 +1,147 @@
+package frauddetector.loadgen;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.header.Headers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.listener.BatchInterceptor;
+import org.springframework.kafka.listener.RecordInterceptor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records producer-to-scored latency for every consumed record that carries a
+ * {@link LatencyHeaders#SENT_AT} stamp. Registered as both record and batch interceptor, so the
+ * listener container factories pick it up and latency is taken once the listener has returned,
+ * i.e. after scoring and persistence. Records without a stamp are ignored.
+ * <p>
+ * The async consumer ({@code fraud.consumer.mode=async}) returns from the listener as soon as it
+ * has handed a record off, so in that mode the interceptor leaves the record alone and the consumer
+ * calls {@link #recordCompleted} once the record is acknowledged instead.
+ * <p>
+ * Values go into an HdrHistogram {@link Recorder} (lock-free writers) and are reported per
+ * interval and cumulatively, together with the live and peak platform thread counts, which is what
+ * changes between platform and virtual-thread mode ({@code spring.threads.virtual.enabled}).
+ * <p>
+ * The same values also feed the {@code fraud.kafka.latency} timer, and {@code fraud.kafka.lag}
+ * times each record from its Kafka timestamp to the moment the listener receives it.
+ */
+@Component
+public class EndToEndLatencyRecorder implements RecordInterceptor<Object, Object>, BatchInterceptor<Object, Object> {
+
+    private static final Logger logger = LoggerFactory.getLogger(EndToEndLatencyRecorder.class);
+
+    private final Recorder recorder = new Recorder(3);
+    private final Histogram cumulative = new Histogram(3);
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final Timer endToEndTimer;
+    private final Timer lagTimer;
+    private final boolean recordOnListenerReturn;
+    private Histogram interval;
+
+    @Autowired
+    public EndToEndLatencyRecorder(MeterRegistry meterRegistry,
+                                   @Value("${fraud.consumer.mode:single}") String consumerMode) {
+        this.recordOnListenerReturn = !"async".equals(consumerMode);
+        this.endToEndTimer = Timer.builder("fraud.kafka.latency")
+                .description("Producer send to the listener returning, for records stamped with a send time")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("fraud.kafka.lag")
+                .description("Record timestamp to the listener receiving the record")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ConsumerRecord<Object, Object> intercept(ConsumerRecord<Object, Object> record, Consumer<Object, Object> consumer) {
+        recordLag(record, System.currentTimeMillis());
+        return record;
+    }
+
+    @Override
+    public void afterRecord(ConsumerRecord<Object, Object> record, Consumer<Object, Object> consumer) {
+        if (recordOnListenerReturn) {
+            record(record.headers(), LatencyHeaders.nowMicros());
+        }
+    }
+
+    /**
+     * Records the latency of a record whose processing finished after its listener returned.
+     */
+    public void recordCompleted(Headers headers) {
+        record(headers, LatencyHeaders.nowMicros());
+    }
+
+    @Override
+    public ConsumerRecords<Object, Object> intercept(ConsumerRecords<Object, Object> records, Consumer<Object, Object> consumer) {
+        long now = System.currentTimeMillis();
+        for (ConsumerRecord<Object, Object> record : records) {
+            recordLag(record, now);
+        }
+        return records;
+    }
+
+    @Override
+    public void success(ConsumerRecords<Object, Object> records, Consumer<Object, Object> consumer) {
+        long now = LatencyHeaders.nowMicros();
+        for (ConsumerRecord<Object, Object> record : records) {
+            record(record.headers(), now);
+        }
+    }
+
+    private void record(Headers headers, long nowMicros) {
+        long sentAt = LatencyHeaders.sentAtMicros(headers);
+        if (sentAt >= 0) {
+            // Clock skew between producer and consumer hosts can make this negative
+            long latencyMicros = Math.max(0, nowMicros - sentAt);
+            recorder.recordValue(latencyMicros);
+            endToEndTimer.record(latencyMicros, TimeUnit.MICROSECONDS);
+        }
+    }
+
+    private void recordLag(ConsumerRecord<?, ?> record, long nowMillis) {
+        if (record.timestamp() >= 0) {
+            lagTimer.record(Math.max(0, nowMillis - record.timestamp()), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${fraud.latency.report-interval-ms:10000}")
+    public synchronized void report() {
+        interval = recorder.getIntervalHistogram(interval);
+        if (interval.getTotalCount() == 0) {
+            return;
+        }
+        cumulative.add(interval);
+        logger.info("End-to-end latency (ms) interval: {}", summary(interval));
+        logger.info("End-to-end latency (ms) cumulative: {}", summary(cumulative));
+        logger.info("Platform threads: live={} peak={}", threads.getThreadCount(), threads.getPeakThreadCount());
+    }
+
+    /**
+     * @return a copy of everything recorded up to the last report
+     */
+    public synchronized Histogram getCumulativeHistogram() {
+        return cumulative.copy();
+    }
+
+    private static String summary(Histogram histogram) {
+        return String.format("count=%d p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f",
+                histogram.getTotalCount(),
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(90) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0);
+    }
+}
@@ -0,0 +1,40 @@
+package frauddetector.loadgen;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+
+/**
+ * Send-time stamp carried on each produced record so consumers can measure end-to-end latency.
+ * The value is the epoch time in microseconds at which the record was <em>meant</em> to be sent,
+ * encoded as an 8-byte big-endian long.
+ */
+public final class LatencyHeaders {
+
+    public static final String SENT_AT = "fraud-sent-at-us";
+
+    private LatencyHeaders() {
+    }
+
+    public static long nowMicros() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000L + now.getNano() / 1_000;
+    }
+
+    public static void stamp(Headers headers, long epochMicros) {
+        headers.add(SENT_AT, ByteBuffer.allocate(Long.BYTES).putLong(epochMicros).array());
+    }
+
+    /**
+     * @return the stamped send time, or -1 if the record carries no (valid) stamp
+     */
+    public static long sentAtMicros(Headers headers) {
+        Header header = headers.lastHeader(SENT_AT);
+        if (header == null || header.value() == null || header.value().length != Long.BYTES) {
+            return -1;
+        }
+        return ByteBuffer.wrap(header.value()).getLong();
+    }
+}
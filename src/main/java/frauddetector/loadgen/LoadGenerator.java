@@ -0,0 +1,196 @@
+package frauddetector.loadgen;
+
+import frauddetector.generator.TransactionGenerator;
+import frauddetector.model.Customer;
+import frauddetector.model.Transaction;
+import frauddetector.repository.CustomerRepository;
+import frauddetector.service.CustomersSeededEvent;
+import frauddetector.service.EmbeddingGenerator;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Capacity-testing replacement for the trickle {@link frauddetector.service.TransactionProducer},
+ * enabled with {@code fraud.producer.mode=load}.
+ * <p>
+ * Sends at a fixed target rate from a set of virtual-thread senders. Pacing is open-loop: every
+ * message has an intended send time on a fixed schedule, a sender that falls behind sends
+ * immediately to catch up rather than shifting the schedule, and the latency stamp is the
+ * <em>intended</em> time. Time spent blocked on a full producer buffer or a slow broker therefore
+ * shows up in the consumer-side latency histogram instead of silently lowering the offered load
+ * (coordinated omission).
+ */
+@Service
+@ConditionalOnProperty(name = "fraud.producer.mode", havingValue = "load")
+public class LoadGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadGenerator.class);
+
+    private static final String TOPIC = "transactions";
+
+    private final ProducerFactory<String, Transaction> producerFactory;
+    private final CustomerRepository customerRepository;
+    private final EmbeddingGenerator embeddingGenerator;
+    private final double rate;
+    private final int senders;
+    private final long durationSeconds;
+    private final long seed;
+    private final Map<String, Object> producerOverrides;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAccumulator maxScheduleLagNanos = new LongAccumulator(Math::max, 0);
+    private final List<Thread> senderThreads = new ArrayList<>();
+    private KafkaTemplate<String, Transaction> kafkaTemplate;
+    private volatile boolean running;
+    private long startNanos;
+    private long lastReportNanos;
+    private long lastReportSent;
+
+    @Autowired
+    public LoadGenerator(ProducerFactory<String, Transaction> producerFactory,
+                         CustomerRepository customerRepository,
+                         EmbeddingGenerator embeddingGenerator,
+                         @Value("${fraud.loadgen.rate:10000}") double rate,
+                         @Value("${fraud.loadgen.senders:8}") int senders,
+                         @Value("${fraud.loadgen.duration-seconds:0}") long durationSeconds,
+                         @Value("${fraud.loadgen.seed:7919}") long seed,
+                         @Value("${fraud.loadgen.batch-size:65536}") int batchSize,
+                         @Value("${fraud.loadgen.linger-ms:5}") int lingerMs,
+                         @Value("${fraud.loadgen.compression-type:lz4}") String compressionType,
+                         @Value("${fraud.loadgen.acks:1}") String acks) {
+        if (rate <= 0 || senders <= 0) {
+            throw new IllegalArgumentException("fraud.loadgen.rate and fraud.loadgen.senders must be positive");
+        }
+        this.producerFactory = producerFactory;
+        this.customerRepository = customerRepository;
+        this.embeddingGenerator = embeddingGenerator;
+        this.rate = rate;
+        this.senders = senders;
+        this.durationSeconds = durationSeconds;
+        this.seed = seed;
+        this.producerOverrides = Map.of(
+                ProducerConfig.BATCH_SIZE_CONFIG, batchSize,
+                ProducerConfig.LINGER_MS_CONFIG, lingerMs,
+                ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType,
+                ProducerConfig.ACKS_CONFIG, acks);
+    }
+
+    @EventListener({ApplicationReadyEvent.class, CustomersSeededEvent.class})
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        List<Customer> customers = customerRepository.findAll();
+        if (customers.isEmpty()) {
+            logger.warn("No customers found, load generation starts once customers are seeded");
+            return;
+        }
+        TransactionGenerator generator = new TransactionGenerator(customers, seed);
+        kafkaTemplate = new KafkaTemplate<>(producerFactory, producerOverrides);
+
+        // Sender i owns slots i, i + senders, i + 2 * senders, ... of the global schedule
+        long slotNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long endNanos = durationSeconds > 0 ? TimeUnit.SECONDS.toNanos(durationSeconds) : Long.MAX_VALUE;
+        long startEpochMicros = LatencyHeaders.nowMicros();
+        startNanos = System.nanoTime();
+        lastReportNanos = startNanos;
+        running = true;
+
+        for (int i = 0; i < senders; i++) {
+            int sender = i;
+            senderThreads.add(Thread.ofVirtual().name("loadgen-" + sender).start(() ->
+                    runSender(generator, generator.stream(sender), sender * slotNanos, senders * slotNanos,
+                            endNanos, startEpochMicros)));
+        }
+        logger.info("Load generation started: {} tx/s from {} senders over {} customers, producer overrides {}",
+                rate, senders, customers.size(), producerOverrides);
+    }
+
+    private void runSender(TransactionGenerator generator, SplittableRandom random, long offsetNanos,
+                           long periodNanos, long endNanos, long startEpochMicros) {
+        for (long k = 0; running; k++) {
+            long intendedOffset = offsetNanos + k * periodNanos;
+            if (intendedOffset >= endNanos) {
+                break;
+            }
+            long intended = startNanos + intendedOffset;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            } else {
+                maxScheduleLagNanos.accumulate(-wait);
+            }
+
+            // Stamped with its scheduled send time, so reruns differ only by the start time
+            Transaction transaction = generator.next(random, (startEpochMicros + intendedOffset / 1_000) / 1_000);
+            transaction.setEmbedding(embeddingGenerator.generateEmbedding(transaction));
+            ProducerRecord<String, Transaction> record =
+                    new ProducerRecord<>(TOPIC, transaction.getTransactionId(), transaction);
+            LatencyHeaders.stamp(record.headers(), startEpochMicros + intendedOffset / 1_000);
+
+            try {
+                kafkaTemplate.send(record).whenComplete((result, ex) -> {
+                    if (ex == null) {
+                        sent.increment();
+                    } else {
+                        failed.increment();
+                        logger.debug("Failed to send transaction: {}", transaction.getTransactionId(), ex);
+                    }
+                });
+            } catch (RuntimeException e) {
+                failed.increment();
+                logger.debug("Failed to send transaction: {}", transaction.getTransactionId(), e);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${fraud.latency.report-interval-ms:10000}")
+    public synchronized void report() {
+        if (!running) {
+            return;
+        }
+        long now = System.nanoTime();
+        long total = sent.sum();
+        double achieved = (total - lastReportSent) * 1e9 / Math.max(1, now - lastReportNanos);
+        logger.info("Load generator: target {} tx/s, achieved {} tx/s, sent {}, failed {}, max schedule lag {} ms",
+                rate, Math.round(achieved), total, failed.sum(),
+                TimeUnit.NANOSECONDS.toMillis(maxScheduleLagNanos.getThenReset()));
+        lastReportNanos = now;
+        lastReportSent = total;
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Thread thread : senderThreads) {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        if (kafkaTemplate != null) {
+            kafkaTemplate.flush();
+            kafkaTemplate.destroy();
+        }
+        logger.info("Load generation stopped: sent {}, failed {}", sent.sum(), failed.sum());
+    }
+}
@@ -0,0 +1,24 @@
+package frauddetector.metrics;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides which transactions get a per-transaction INFO line, so logging does not add to the
+ * latency of every message. A rate of 1 logs every transaction, 0 none; the rest of the detail is
+ * logged at DEBUG.
+ */
+public final class LogSampler {
+
+    private final double rate;
+
+    public LogSampler(double rate) {
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("Log sample rate must be between 0 and 1");
+        }
+        this.rate = rate;
+    }
+
+    public boolean sample() {
+        return rate >= 1 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+}
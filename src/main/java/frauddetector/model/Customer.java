@@ -19,6 +19,7 @@ public class Customer {
     private final Double meanSpending;  
     private final Double spendingStdDev;  
     private final Currency preferredCurrency;  
+    private Long spendingCount; // Transactions behind meanSpending/spendingStdDev, maintained by the profile cache  
   
     public Customer(String userId, List<Merchant> merchants, List<Category> categories,  
                     Double meanSpending, Double spendingStdDev, Currency preferredCurrency) {  
@@ -37,6 +38,8 @@ public class Customer {
     public Double getMeanSpending() { return meanSpending; }  
     public Double getSpendingStdDev() { return spendingStdDev; }  
     public Currency getPreferredCurrency() { return preferredCurrency; }  
+    public Long getSpendingCount() { return spendingCount; }  
+    public void setSpendingCount(Long spendingCount) { this.spendingCount = spendingCount; }  
 
     public Category getFrequentCategory() {
         return Category.getFrequentCategory(this.categories);
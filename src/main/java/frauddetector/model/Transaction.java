@@ -2,6 +2,7 @@ package frauddetector.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import frauddetector.codec.EmbeddingValueConverter;
 import frauddetector.enums.Category;
 import frauddetector.enums.Currency;
 import frauddetector.enums.Merchant;
@@ -9,10 +10,11 @@ import org.bson.BsonDocument;
 import org.bson.codecs.configuration.CodecRegistry;
 import org.bson.conversions.Bson;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.convert.ValueConverter;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.Instant;
-import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
 import static frauddetector.enums.Merchant.getRandomMerchant;
 
@@ -30,7 +32,9 @@ public class Transaction {
     private Merchant merchant;
     private Category category;
     private boolean isFraud;
+    @ValueConverter(EmbeddingValueConverter.class)
     private float[] embedding = {};
+    private String scoredBy;
 
     public Transaction() {
         this.transactionId = UUID.randomUUID().toString();
@@ -46,6 +50,17 @@ public class Transaction {
         this.category = category;
     }
 
+    public Transaction(String transactionId, String userId, double amount, Currency currency, long timestamp,
+                       Merchant merchant, Category category) {
+        this.transactionId = transactionId;
+        this.userId = userId;
+        this.amount = amount;
+        this.currency = currency;
+        this.timestamp = timestamp;
+        this.merchant = merchant;
+        this.category = category;
+    }
+
     public String getId() {
         return id;
     }
@@ -126,13 +141,21 @@ public class Transaction {
         this.embedding = embedding;
     }
 
+    public String getScoredBy() {
+        return scoredBy;
+    }
+
+    public void setScoredBy(String scoredBy) {
+        this.scoredBy = scoredBy;
+    }
+
     public String generateEmbeddingText() {
         return String.format("%s %s %.2f %s %s %s %b", 
             transactionId, userId, amount, currency, merchant, category, isFraud);
     }
 
     public static Transaction generateRandomTransaction(Customer customer) {
-        Random random = new Random();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
         boolean isSuspicious = random.nextDouble() < 0.1; // 10% chance of suspicious transaction
 
         double amount;
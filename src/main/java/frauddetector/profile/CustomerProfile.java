@@ -0,0 +1,155 @@
+package frauddetector.profile;
+
+import frauddetector.enums.Category;
+import frauddetector.enums.Currency;
+import frauddetector.enums.Merchant;
+import frauddetector.model.Customer;
+
+import java.util.List;
+
+/**
+ * In-memory behavioural profile of a customer.
+ * <p>
+ * Trusted merchants and categories are held as enum-ordinal bitmasks. Spending statistics are
+ * updated incrementally with Welford's algorithm, seeded from the stored mean and standard
+ * deviation over the stored {@code spendingCount} transactions, or as if they had been computed
+ * over {@code priorWeight} transactions when no count has been written back yet.
+ */
+public class CustomerProfile {
+
+    static {
+        if (Merchant.values().length > Long.SIZE || Category.values().length > Long.SIZE) {
+            throw new IllegalStateException("Merchant and Category must fit in a 64-bit mask");
+        }
+    }
+
+    private final String userId;
+    private final long merchantMask;
+    private final long categoryMask;
+    private final Currency preferredCurrency;
+
+    private long count;
+    private double mean;
+    private double m2;
+    private boolean dirty;
+
+    private CustomerProfile(String userId, long merchantMask, long categoryMask, Currency preferredCurrency,
+                            long count, double mean, double m2) {
+        this.userId = userId;
+        this.merchantMask = merchantMask;
+        this.categoryMask = categoryMask;
+        this.preferredCurrency = preferredCurrency;
+        this.count = count;
+        this.mean = mean;
+        this.m2 = m2;
+    }
+
+    public static CustomerProfile from(Customer customer, long priorWeight) {
+        double mean = customer.getMeanSpending() != null ? customer.getMeanSpending() : 0.0;
+        double stdDev = customer.getSpendingStdDev() != null ? customer.getSpendingStdDev() : 0.0;
+        long count = customer.getMeanSpending() == null ? 0
+                : customer.getSpendingCount() != null ? customer.getSpendingCount()
+                : Math.max(priorWeight, 2);
+        double m2 = count > 1 ? stdDev * stdDev * (count - 1) : 0.0;
+        return new CustomerProfile(customer.getUserId(), mask(customer.getMerchants()), mask(customer.getCategories()),
+                customer.getPreferredCurrency(), count, mean, m2);
+    }
+
+    /**
+     * Profile of {@code customer} carrying statistics that were not flushed back to it yet; it starts
+     * dirty so the next flush stores them.
+     */
+    static CustomerProfile from(Customer customer, SpendingStats stats) {
+        double m2 = stats.count() > 1 ? stats.spendingStdDev() * stats.spendingStdDev() * (stats.count() - 1) : 0.0;
+        long merchantMask = customer != null ? mask(customer.getMerchants()) : 0L;
+        long categoryMask = customer != null ? mask(customer.getCategories()) : 0L;
+        Currency preferredCurrency = customer != null ? customer.getPreferredCurrency() : null;
+        CustomerProfile profile = new CustomerProfile(stats.userId(), merchantMask, categoryMask, preferredCurrency,
+                stats.count(), stats.meanSpending(), m2);
+        profile.dirty = true;
+        return profile;
+    }
+
+    /**
+     * Profile for a user with no stored customer document; it learns purely from transactions.
+     */
+    public static CustomerProfile empty(String userId) {
+        return new CustomerProfile(userId, 0L, 0L, null, 0, 0.0, 0.0);
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public Currency getPreferredCurrency() {
+        return preferredCurrency;
+    }
+
+    public long getMerchantMask() {
+        return merchantMask;
+    }
+
+    public long getCategoryMask() {
+        return categoryMask;
+    }
+
+    public boolean trustsMerchant(Merchant merchant) {
+        return merchant != null && (merchantMask & (1L << merchant.ordinal())) != 0;
+    }
+
+    public boolean trustsCategory(Category category) {
+        return category != null && (categoryMask & (1L << category.ordinal())) != 0;
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized double getMean() {
+        return mean;
+    }
+
+    public synchronized double getStdDev() {
+        return count > 1 ? Math.sqrt(m2 / (count - 1)) : 0.0;
+    }
+
+    /**
+     * Standard deviations between {@code amount} and the mean, or 0 while the deviation is unknown.
+     */
+    public synchronized double zScore(double amount) {
+        double stdDev = count > 1 ? Math.sqrt(m2 / (count - 1)) : 0.0;
+        return stdDev > 0 ? (amount - mean) / stdDev : 0.0;
+    }
+
+    public synchronized void record(double amount) {
+        count++;
+        double delta = amount - mean;
+        mean += delta / count;
+        m2 += delta * (amount - mean);
+        dirty = true;
+    }
+
+    /**
+     * Returns the current statistics if they changed since the last call, clearing the dirty flag.
+     */
+    synchronized SpendingStats takeDirtyStats() {
+        if (!dirty) {
+            return null;
+        }
+        dirty = false;
+        return new SpendingStats(userId, mean, count > 1 ? Math.sqrt(m2 / (count - 1)) : 0.0, count);
+    }
+
+    private static long mask(List<? extends Enum<?>> values) {
+        long mask = 0L;
+        if (values != null) {
+            for (Enum<?> value : values) {
+                mask |= 1L << value.ordinal();
+            }
+        }
+        return mask;
+    }
+
+    record SpendingStats(String userId, double meanSpending, double spendingStdDev, long count) {
+    }
+}
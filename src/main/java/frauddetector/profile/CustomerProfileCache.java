@@ -0,0 +1,170 @@
+package frauddetector.profile;
+
+import frauddetector.model.Customer;
+import frauddetector.repository.CustomerRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded LRU cache of {@link CustomerProfile}s keyed by {@code userId}.
+ * <p>
+ * A miss costs one {@code customers} lookup; after that the profile is served from memory. Scored
+ * legitimate transactions update the running statistics, and changed statistics are written back
+ * to the {@code customers} collection in batched unordered bulk updates on a background schedule,
+ * together with the number of transactions behind them, so a profile reloaded after eviction or a
+ * restart carries on from its learned statistics instead of the prior. Profiles evicted while dirty
+ * keep their last statistics pending until a flush stores them, and a reload in the meantime
+ * starts from those pending statistics.
+ */
+@Service
+public class CustomerProfileCache {
+    private static final Logger logger = LoggerFactory.getLogger(CustomerProfileCache.class);
+
+    private final CustomerRepository customerRepository;
+    private final MongoTemplate mongoTemplate;
+    private final int maxSize;
+    private final long priorWeight;
+    private final int flushBatchSize;
+    private final Map<String, CustomerProfile> profiles;
+    private final Map<String, CustomerProfile.SpendingStats> evictedStats = new ConcurrentHashMap<>();
+
+    @Autowired
+    public CustomerProfileCache(CustomerRepository customerRepository,
+                                MongoTemplate mongoTemplate,
+                                @Value("${fraud.profile.max-size:100000}") int maxSize,
+                                @Value("${fraud.profile.prior-weight:30}") long priorWeight,
+                                @Value("${fraud.profile.flush-batch-size:500}") int flushBatchSize) {
+        this.customerRepository = customerRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.maxSize = maxSize;
+        this.priorWeight = priorWeight;
+        this.flushBatchSize = flushBatchSize;
+        this.profiles = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CustomerProfile> eldest) {
+                if (size() <= CustomerProfileCache.this.maxSize) {
+                    return false;
+                }
+                CustomerProfile.SpendingStats stats = eldest.getValue().takeDirtyStats();
+                if (stats != null) {
+                    evictedStats.put(stats.userId(), stats);
+                }
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached profile, loading it from {@code customers} on a miss.
+     */
+    public CustomerProfile getProfile(String userId) {
+        synchronized (profiles) {
+            CustomerProfile profile = profiles.get(userId);
+            if (profile != null) {
+                return profile;
+            }
+        }
+        Customer customer = customerRepository.findByUserId(userId).orElse(null);
+        CustomerProfile.SpendingStats pending = evictedStats.get(userId);
+        CustomerProfile loaded = pending != null ? CustomerProfile.from(customer, pending)
+                : customer != null ? CustomerProfile.from(customer, priorWeight)
+                : CustomerProfile.empty(userId);
+        synchronized (profiles) {
+            CustomerProfile raced = profiles.putIfAbsent(userId, loaded);
+            if (raced != null) {
+                return raced;
+            }
+        }
+        if (pending != null) {
+            // The reloaded profile now owns the unflushed statistics and is dirty until they are stored
+            evictedStats.remove(userId, pending);
+        }
+        return loaded;
+    }
+
+    /**
+     * Feeds a scored transaction into the profile statistics. Fraudulent amounts are ignored so
+     * they do not shift the customer's baseline.
+     */
+    public void recordTransaction(String userId, double amount, boolean isFraud) {
+        if (userId == null || isFraud) {
+            return;
+        }
+        getProfile(userId).record(amount);
+    }
+
+    public int size() {
+        synchronized (profiles) {
+            return profiles.size();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${fraud.profile.flush-interval-ms:10000}")
+    public void flush() {
+        // Keyed by user so that fresher statistics replace any retried or evicted ones
+        Map<String, CustomerProfile.SpendingStats> latest = new LinkedHashMap<>(evictedStats);
+        List<CustomerProfile> cached;
+        synchronized (profiles) {
+            cached = new ArrayList<>(profiles.values());
+        }
+        for (CustomerProfile profile : cached) {
+            CustomerProfile.SpendingStats stats = profile.takeDirtyStats();
+            if (stats != null) {
+                CustomerProfile.SpendingStats replaced = latest.put(stats.userId(), stats);
+                if (replaced != null) {
+                    // Superseded by the cached profile's newer statistics
+                    evictedStats.remove(stats.userId(), replaced);
+                }
+            }
+        }
+        if (latest.isEmpty()) {
+            return;
+        }
+
+        List<CustomerProfile.SpendingStats> pending = new ArrayList<>(latest.values());
+        for (int from = 0; from < pending.size(); from += flushBatchSize) {
+            List<CustomerProfile.SpendingStats> batch = pending.subList(from, Math.min(from + flushBatchSize, pending.size()));
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Customer.class);
+            for (CustomerProfile.SpendingStats stats : batch) {
+                bulk.updateOne(
+                        Query.query(Criteria.where("userId").is(stats.userId())),
+                        new Update()
+                                .set("meanSpending", stats.meanSpending())
+                                .set("spendingStdDev", stats.spendingStdDev())
+                                .set("spendingCount", stats.count()));
+            }
+            try {
+                bulk.execute();
+                // Stored now; statistics evicted again in the meantime stay pending
+                batch.forEach(stats -> evictedStats.remove(stats.userId(), stats));
+            } catch (DataAccessException e) {
+                // Keep the statistics so the next flush retries them
+                batch.forEach(stats -> evictedStats.putIfAbsent(stats.userId(), stats));
+                logger.warn("Failed to flush {} customer profiles", batch.size(), e);
+            }
+        }
+        logger.debug("Flushed {} customer profiles", pending.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,151 @@
+package frauddetector.quantization;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Product quantization: the vector is split into {@code subspaces} equal slices and each slice is
+ * replaced by the index of its nearest of 256 k-means centroids, one byte per subspace
+ * (48 bytes for 384 dimensions and 48 subspaces, a 32x reduction).
+ * <p>
+ * Scoring builds a per-query table of slice-to-centroid dot products, after which each vector
+ * costs one table lookup per subspace.
+ */
+public final class ProductQuantizer implements Quantizer {
+
+    private static final int CENTROIDS = 256;
+
+    private final int dimensions;
+    private final int subspaces;
+    private final int subDimensions;
+    // centroids[m] holds CENTROIDS * subDimensions values for subspace m
+    private final float[][] centroids;
+
+    private ProductQuantizer(int dimensions, int subspaces, float[][] centroids) {
+        this.dimensions = dimensions;
+        this.subspaces = subspaces;
+        this.subDimensions = dimensions / subspaces;
+        this.centroids = centroids;
+    }
+
+    /**
+     * Trains one k-means codebook per subspace, in parallel across subspaces.
+     */
+    public static ProductQuantizer train(List<float[]> samples, int dimensions, int subspaces, int iterations, long seed) {
+        if (subspaces <= 0 || dimensions % subspaces != 0) {
+            throw new IllegalArgumentException("Dimensions " + dimensions + " are not divisible into " + subspaces + " subspaces");
+        }
+        if (samples.isEmpty()) {
+            throw new IllegalArgumentException("Product quantization needs at least one training vector");
+        }
+        int subDimensions = dimensions / subspaces;
+        float[][] centroids = new float[subspaces][];
+        IntStream.range(0, subspaces).parallel().forEach(m ->
+                centroids[m] = kMeans(samples, m * subDimensions, subDimensions, iterations, new SplittableRandom(seed + m)));
+        return new ProductQuantizer(dimensions, subspaces, centroids);
+    }
+
+    @Override
+    public int dimensions() {
+        return dimensions;
+    }
+
+    @Override
+    public int codeSize() {
+        return subspaces;
+    }
+
+    @Override
+    public void encode(float[] vector, byte[] codes, int offset) {
+        for (int m = 0; m < subspaces; m++) {
+            codes[offset + m] = (byte) nearest(centroids[m], vector, m * subDimensions, subDimensions);
+        }
+    }
+
+    @Override
+    public QueryScorer scorer(float[] query) {
+        float[] table = new float[subspaces * CENTROIDS];
+        for (int m = 0; m < subspaces; m++) {
+            float[] codebook = centroids[m];
+            int queryOffset = m * subDimensions;
+            for (int c = 0; c < CENTROIDS; c++) {
+                float dot = 0f;
+                for (int d = 0; d < subDimensions; d++) {
+                    dot += query[queryOffset + d] * codebook[c * subDimensions + d];
+                }
+                table[m * CENTROIDS + c] = dot;
+            }
+        }
+        return (codes, offset) -> {
+            float score = 0f;
+            for (int m = 0, base = 0; m < subspaces; m++, base += CENTROIDS) {
+                score += table[base + (codes[offset + m] & 0xFF)];
+            }
+            return score;
+        };
+    }
+
+    private static float[] kMeans(List<float[]> samples, int offset, int subDimensions, int iterations,
+                                  SplittableRandom random) {
+        float[] centroids = new float[CENTROIDS * subDimensions];
+        // Seed with random samples; with fewer samples than centroids some repeat, which is harmless
+        for (int c = 0; c < CENTROIDS; c++) {
+            System.arraycopy(samples.get(random.nextInt(samples.size())), offset, centroids, c * subDimensions, subDimensions);
+        }
+        int[] assignment = new int[samples.size()];
+        float[] sums = new float[CENTROIDS * subDimensions];
+        int[] counts = new int[CENTROIDS];
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            boolean changed = false;
+            for (int i = 0; i < samples.size(); i++) {
+                int c = nearest(centroids, samples.get(i), offset, subDimensions);
+                changed |= iteration == 0 || assignment[i] != c;
+                assignment[i] = c;
+            }
+            if (!changed) {
+                break;
+            }
+            Arrays.fill(sums, 0f);
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < samples.size(); i++) {
+                float[] sample = samples.get(i);
+                int base = assignment[i] * subDimensions;
+                for (int d = 0; d < subDimensions; d++) {
+                    sums[base + d] += sample[offset + d];
+                }
+                counts[assignment[i]]++;
+            }
+            for (int c = 0; c < CENTROIDS; c++) {
+                if (counts[c] == 0) {
+                    // Re-seed empty clusters so every code stays useful
+                    System.arraycopy(samples.get(random.nextInt(samples.size())), offset, centroids, c * subDimensions, subDimensions);
+                    continue;
+                }
+                for (int d = 0; d < subDimensions; d++) {
+                    centroids[c * subDimensions + d] = sums[c * subDimensions + d] / counts[c];
+                }
+            }
+        }
+        return centroids;
+    }
+
+    private static int nearest(float[] centroids, float[] vector, int offset, int subDimensions) {
+        int best = 0;
+        float bestDistance = Float.POSITIVE_INFINITY;
+        for (int c = 0; c < CENTROIDS; c++) {
+            float distance = 0f;
+            int base = c * subDimensions;
+            for (int d = 0; d < subDimensions; d++) {
+                float diff = vector[offset + d] - centroids[base + d];
+                distance += diff * diff;
+            }
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = c;
+            }
+        }
+        return best;
+    }
+}
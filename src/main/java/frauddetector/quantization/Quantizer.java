@@ -0,0 +1,31 @@
+package frauddetector.quantization;
+
+/**
+ * Lossy fixed-size encoding of normalised embeddings, with asymmetric distance computation: the
+ * query stays full precision and is scored directly against the codes.
+ */
+public interface Quantizer {
+
+    int dimensions();
+
+    /**
+     * Bytes per encoded vector.
+     */
+    int codeSize();
+
+    void encode(float[] vector, byte[] codes, int offset);
+
+    /**
+     * Prepares a scorer for one query; the scorer is not thread-safe.
+     */
+    QueryScorer scorer(float[] query);
+
+    @FunctionalInterface
+    interface QueryScorer {
+
+        /**
+         * Approximate dot product between the query and the vector encoded at {@code offset}.
+         */
+        float score(byte[] codes, int offset);
+    }
+}
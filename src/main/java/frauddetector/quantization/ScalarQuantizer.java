@@ -0,0 +1,80 @@
+package frauddetector.quantization;
+
+import frauddetector.search.VectorKernels;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * int8 scalar quantization: each dimension is mapped linearly from its trained {@code [min, max]}
+ * range onto 256 levels, a 4x reduction over float32.
+ * <p>
+ * With {@code x ≈ min + scale * (b + 128)}, the dot product with a query folds into a constant
+ * plus one multiply-add per dimension over the signed codes, so scoring never decodes a vector.
+ */
+public final class ScalarQuantizer implements Quantizer {
+
+    private static final int LEVELS = 255;
+
+    private final float[] min;
+    private final float[] scale;
+
+    private ScalarQuantizer(float[] min, float[] scale) {
+        this.min = min;
+        this.scale = scale;
+    }
+
+    public static ScalarQuantizer train(List<float[]> samples, int dimensions) {
+        if (samples.isEmpty()) {
+            throw new IllegalArgumentException("Scalar quantization needs at least one training vector");
+        }
+        float[] min = new float[dimensions];
+        float[] max = new float[dimensions];
+        Arrays.fill(min, Float.POSITIVE_INFINITY);
+        Arrays.fill(max, Float.NEGATIVE_INFINITY);
+        for (float[] sample : samples) {
+            for (int i = 0; i < dimensions; i++) {
+                min[i] = Math.min(min[i], sample[i]);
+                max[i] = Math.max(max[i], sample[i]);
+            }
+        }
+        float[] scale = new float[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            float range = max[i] - min[i];
+            scale[i] = range > 0f ? range / LEVELS : 1f;
+        }
+        return new ScalarQuantizer(min, scale);
+    }
+
+    @Override
+    public int dimensions() {
+        return min.length;
+    }
+
+    @Override
+    public int codeSize() {
+        return min.length;
+    }
+
+    @Override
+    public void encode(float[] vector, byte[] codes, int offset) {
+        for (int i = 0; i < min.length; i++) {
+            // Values outside the trained range saturate
+            int level = Math.round((vector[i] - min[i]) / scale[i]);
+            codes[offset + i] = (byte) (Math.max(0, Math.min(LEVELS, level)) - 128);
+        }
+    }
+
+    @Override
+    public QueryScorer scorer(float[] query) {
+        float[] weights = new float[min.length];
+        float base = 0f;
+        for (int i = 0; i < min.length; i++) {
+            weights[i] = query[i] * scale[i];
+            base += query[i] * (min[i] + 128 * scale[i]);
+        }
+        float constant = base;
+        VectorKernels kernels = VectorKernels.best();
+        return (codes, offset) -> constant + kernels.dotInt8(weights, codes, offset, weights.length);
+    }
+}
@@ -4,6 +4,10 @@ import frauddetector.model.Customer;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
 public interface CustomerRepository extends MongoRepository<Customer, String> {
-}
\ No newline at end of file
+
+    Optional<Customer> findByUserId(String userId);
+}
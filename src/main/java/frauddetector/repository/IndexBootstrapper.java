@@ -0,0 +1,185 @@
+package frauddetector.repository;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.IndexOptions;
+import frauddetector.service.TransactionVectorSearchService;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates the indexes the repositories and scorers rely on at startup, then verifies them:
+ * <ul>
+ *   <li>unique {@code transactions.transactionId}, which also makes a redelivered insert fail
+ *   instead of storing a second copy;</li>
+ *   <li>{@code transactions.userId} + {@code timestamp} descending, followed by the fields
+ *   {@link TransactionSummary} projects, so per-user history queries are covered;</li>
+ *   <li>unique {@code customers.userId};</li>
+ *   <li>the Atlas Vector Search index used by {@code fraud.search.strategy=mongo}. Servers without
+ *   search index support are reported and skipped.</li>
+ * </ul>
+ * Creating an index that already exists is a no-op. An index that cannot be created (for example a
+ * unique index over existing duplicates) is logged as an error and the application starts anyway.
+ */
+@Component
+public class IndexBootstrapper {
+    private static final Logger logger = LoggerFactory.getLogger(IndexBootstrapper.class);
+
+    public static final String TRANSACTIONS_COLLECTION = "transactions";
+    public static final String CUSTOMERS_COLLECTION = "customers";
+    public static final String TRANSACTION_ID_INDEX = "transactionId_unique";
+    public static final String USER_HISTORY_INDEX = "userId_timestamp_history";
+    public static final String CUSTOMER_USER_ID_INDEX = "userId_unique";
+
+    static final List<IndexSpec> INDEXES = List.of(
+            new IndexSpec(TRANSACTIONS_COLLECTION, TRANSACTION_ID_INDEX, new Document("transactionId", 1), true),
+            new IndexSpec(TRANSACTIONS_COLLECTION, USER_HISTORY_INDEX, new Document("userId", 1)
+                    .append("timestamp", -1)
+                    .append("amount", 1)
+                    .append("merchant", 1)
+                    .append("isFraud", 1), false),
+            new IndexSpec(CUSTOMERS_COLLECTION, CUSTOMER_USER_ID_INDEX, new Document("userId", 1), true));
+
+    private final MongoDatabase fraudDatabase;
+    private final boolean enabled;
+    private final boolean vectorSearchIndexEnabled;
+    private final int dimensions;
+    private final String similarity;
+
+    @Autowired
+    public IndexBootstrapper(MongoDatabase fraudDatabase,
+                             @Value("${fraud.indexes.enabled:true}") boolean enabled,
+                             @Value("${fraud.indexes.vector-search.enabled:true}") boolean vectorSearchIndexEnabled,
+                             @Value("${fraud.search.dimensions:384}") int dimensions,
+                             @Value("${fraud.indexes.vector-search.similarity:cosine}") String similarity) {
+        this.fraudDatabase = fraudDatabase;
+        this.enabled = enabled;
+        this.vectorSearchIndexEnabled = vectorSearchIndexEnabled;
+        this.dimensions = dimensions;
+        this.similarity = similarity;
+    }
+
+    @PostConstruct
+    public void ensureIndexes() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        for (IndexSpec spec : INDEXES) {
+            try {
+                fraudDatabase.getCollection(spec.collection())
+                        .createIndex(spec.keys(), new IndexOptions().name(spec.name()).unique(spec.unique()));
+            } catch (MongoException e) {
+                logger.error("Could not create index {} on {}", spec.name(), spec.collection(), e);
+            }
+        }
+        if (vectorSearchIndexEnabled) {
+            ensureVectorSearchIndex();
+        }
+        List<String> problems = verify();
+        if (problems.isEmpty()) {
+            logger.info("Verified {} indexes in {} ms", INDEXES.size(), (System.nanoTime() - start) / 1_000_000);
+        } else {
+            problems.forEach(problem -> logger.error("Index check failed: {}", problem));
+        }
+    }
+
+    /**
+     * Compares the indexes present with the expected ones by key pattern and uniqueness, returning
+     * one message per mismatch.
+     */
+    public List<String> verify() {
+        List<String> problems = new ArrayList<>();
+        for (IndexSpec spec : INDEXES) {
+            Document found = null;
+            for (Document index : fraudDatabase.getCollection(spec.collection()).listIndexes()) {
+                if (sameKeys(index.get("key", Document.class), spec.keys())) {
+                    found = index;
+                    break;
+                }
+            }
+            if (found == null) {
+                problems.add(spec.collection() + " has no index on " + spec.keys().toJson());
+            } else if (found.getBoolean("unique", false) != spec.unique()) {
+                problems.add(spec.collection() + " index " + found.getString("name") + " should "
+                        + (spec.unique() ? "" : "not ") + "be unique");
+            }
+        }
+        return problems;
+    }
+
+    private void ensureVectorSearchIndex() {
+        MongoCollection<Document> transactions = fraudDatabase.getCollection(TRANSACTIONS_COLLECTION);
+        String name = TransactionVectorSearchService.VECTOR_INDEX_NAME;
+        try {
+            for (Document index : transactions.listSearchIndexes()) {
+                if (name.equals(index.getString("name"))) {
+                    checkDimensions(index);
+                    return;
+                }
+            }
+            Document definition = new Document("fields", List.of(new Document("type", "vector")
+                    .append("path", "embedding")
+                    .append("numDimensions", dimensions)
+                    .append("similarity", similarity)));
+            // Issued as a raw command: this driver's SearchIndexModel cannot set the vectorSearch type
+            fraudDatabase.runCommand(new Document("createSearchIndexes", TRANSACTIONS_COLLECTION)
+                    .append("indexes", List.of(new Document("name", name)
+                            .append("type", "vectorSearch")
+                            .append("definition", definition))));
+            logger.info("Requested vector search index {} ({} dimensions, {}); Atlas builds it asynchronously",
+                    name, dimensions, similarity);
+        } catch (MongoException e) {
+            logger.warn("Vector search index {} not managed: {}. fraud.search.strategy=mongo needs it",
+                    name, e.getMessage());
+        }
+    }
+
+    private void checkDimensions(Document index) {
+        Document definition = index.get("latestDefinition", Document.class);
+        List<?> fields = definition != null ? definition.get("fields", List.class) : null;
+        if (fields == null) {
+            return;
+        }
+        for (Object field : fields) {
+            if (field instanceof Document vector && "embedding".equals(vector.getString("path"))) {
+                Number existing = vector.get("numDimensions", Number.class);
+                if (existing != null && existing.intValue() != dimensions) {
+                    logger.error("Vector search index {} has {} dimensions, fraud.search.dimensions is {}",
+                            index.getString("name"), existing, dimensions);
+                }
+            }
+        }
+    }
+
+    // Key order matters for an index, and Document equality ignores it
+    private static boolean sameKeys(Document actual, Document expected) {
+        if (actual == null || actual.size() != expected.size()) {
+            return false;
+        }
+        Iterator<Map.Entry<String, Object>> actualKeys = actual.entrySet().iterator();
+        for (Map.Entry<String, Object> key : expected.entrySet()) {
+            Map.Entry<String, Object> other = actualKeys.next();
+            if (!key.getKey().equals(other.getKey())
+                    || !(other.getValue() instanceof Number direction)
+                    || direction.intValue() != ((Number) key.getValue()).intValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    record IndexSpec(String collection, String name, Document keys, boolean unique) {
+    }
+}
@@ -1,9 +1,35 @@
 package frauddetector.repository;
 
 import frauddetector.model.Transaction;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface TransactionRepository extends MongoRepository<Transaction, String> {
-}
\ No newline at end of file
+
+    String HISTORY_FILTER = "{ 'userId': ?0, 'timestamp': { '$gte': ?1 } }";
+    // Only fields of IndexBootstrapper.USER_HISTORY_INDEX, and no _id, so the query is covered
+    String HISTORY_FIELDS = "{ '_id': 0, 'userId': 1, 'timestamp': 1, 'amount': 1, 'merchant': 1, 'isFraud': 1 }";
+    String HISTORY_SORT = "{ 'timestamp': -1 }";
+
+    /**
+     * The user's transactions at or after {@code sinceMillis}, newest first, read from the
+     * {@code userId}/{@code timestamp} index without fetching any documents.
+     */
+    @Query(value = HISTORY_FILTER, fields = HISTORY_FIELDS, sort = HISTORY_SORT)
+    List<TransactionSummary> findHistory(String userId, long sinceMillis, Pageable page);
+
+    default List<TransactionSummary> findRecentHistory(String userId, long sinceMillis, int limit) {
+        return findHistory(userId, sinceMillis, PageRequest.ofSize(limit));
+    }
+
+    /**
+     * Counted by scanning the {@code userId}/{@code timestamp} index only.
+     */
+    long countByUserIdAndTimestampGreaterThanEqual(String userId, long sinceMillis);
+}
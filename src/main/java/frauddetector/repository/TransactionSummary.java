@@ -0,0 +1,10 @@
+package frauddetector.repository;
+
+import frauddetector.enums.Merchant;
+
+/**
+ * Projection of a transaction onto the fields of the per-user history index, so history queries are
+ * answered from the index alone.
+ */
+public record TransactionSummary(String userId, long timestamp, double amount, Merchant merchant, boolean isFraud) {
+}
@@ -0,0 +1,10 @@
+package frauddetector.rules;
+
+/**
+ * Outcome of the rule stage: a confident decision, or a hand-off to similarity search.
+ */
+public enum FastPathDecision {
+    ACCEPT,
+    REJECT,
+    UNDECIDED
+}
@@ -0,0 +1,60 @@
+package frauddetector.rules;
+
+import frauddetector.enums.Category;
+import frauddetector.enums.Currency;
+import frauddetector.enums.Merchant;
+
+import java.util.Properties;
+
+/**
+ * Rule settings compiled into primitives and enum-ordinal bitmasks, so evaluating them needs no
+ * lookups or allocation. Instances are immutable and swapped atomically on reload.
+ */
+public record FastPathRules(
+        boolean enabled,
+        long minProfileCount,
+        double amountZScoreThreshold,
+        double acceptMaxZScore,
+        int rejectMinSignals,
+        boolean checkCurrency,
+        boolean checkCategory,
+        boolean checkMerchant,
+        int velocityMaxCount1m,
+        double velocityMaxAmount1h,
+        int velocityMaxDistinctMerchants24h,
+        long blockedMerchantMask,
+        long blockedCategoryMask,
+        long blockedCurrencyMask) {
+
+    public static FastPathRules compile(Properties properties) {
+        return new FastPathRules(
+                Boolean.parseBoolean(properties.getProperty("enabled", "true").trim()),
+                Long.parseLong(properties.getProperty("min-profile-count", "10").trim()),
+                Double.parseDouble(properties.getProperty("amount-zscore-threshold", "3.0").trim()),
+                Double.parseDouble(properties.getProperty("accept-max-zscore", "1.0").trim()),
+                Integer.parseInt(properties.getProperty("reject-min-signals", "2").trim()),
+                Boolean.parseBoolean(properties.getProperty("check-currency", "true").trim()),
+                Boolean.parseBoolean(properties.getProperty("check-category", "true").trim()),
+                Boolean.parseBoolean(properties.getProperty("check-merchant", "false").trim()),
+                Integer.parseInt(properties.getProperty("velocity-max-count-1m", "0").trim()),
+                Double.parseDouble(properties.getProperty("velocity-max-amount-1h", "0").trim()),
+                Integer.parseInt(properties.getProperty("velocity-max-distinct-merchants-24h", "0").trim()),
+                mask(Merchant.class, properties.getProperty("blocked-merchants", "")),
+                mask(Category.class, properties.getProperty("blocked-categories", "")),
+                mask(Currency.class, properties.getProperty("blocked-currencies", "")));
+    }
+
+    public static boolean contains(long mask, Enum<?> value) {
+        return value != null && (mask & (1L << value.ordinal())) != 0;
+    }
+
+    private static <E extends Enum<E>> long mask(Class<E> type, String names) {
+        long mask = 0L;
+        for (String name : names.split(",")) {
+            if (!name.isBlank()) {
+                mask |= 1L << Enum.valueOf(type, name.trim()).ordinal();
+            }
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,175 @@
+package frauddetector.rules;
+
+import frauddetector.enums.Category;
+import frauddetector.enums.Currency;
+import frauddetector.enums.Merchant;
+import frauddetector.profile.CustomerProfile;
+import frauddetector.velocity.VelocityFeatures;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Rule stage ahead of similarity search. Blocked merchants, categories or currencies reject
+ * outright; otherwise the transaction is compared with the customer's profile, counting anomaly
+ * signals (amount far above the mean, non-preferred currency, untrusted category or merchant,
+ * velocity limits exceeded).
+ * Enough signals reject, none with an ordinary amount accepts, and anything in between is left
+ * to the kNN path.
+ * <p>
+ * Rules are read from {@code fraud.rules.location} and reloaded when the file changes. Locations
+ * that are not plain files, such as a classpath resource inside the application jar, cannot be
+ * watched and only take effect on restart.
+ */
+@Service
+public class FastPathScorer {
+    private static final Logger logger = LoggerFactory.getLogger(FastPathScorer.class);
+
+    private final ResourceLoader resourceLoader;
+    private final String location;
+    private volatile FastPathRules rules = FastPathRules.compile(new Properties());
+    private volatile long loadedModified = Long.MIN_VALUE;
+    private volatile boolean unwatchableLogged;
+
+    @Autowired
+    public FastPathScorer(ResourceLoader resourceLoader,
+                          @Value("${fraud.rules.location:classpath:fraud-rules.properties}") String location) {
+        this.resourceLoader = resourceLoader;
+        this.location = location;
+    }
+
+    @PostConstruct
+    public void loadRules() {
+        Resource resource = resourceLoader.getResource(location);
+        if (!resource.exists()) {
+            logger.warn("Rule file {} not found, using default rules", location);
+            return;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = resource.getInputStream()) {
+            properties.load(in);
+            rules = FastPathRules.compile(properties);
+            loadedModified = lastModified(resource);
+            logger.info("Loaded fast-path rules from {}: {}", location, rules);
+        } catch (IOException | IllegalArgumentException e) {
+            logger.error("Invalid rule file {}, keeping previous rules", location, e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${fraud.rules.reload-interval-ms:10000}")
+    public void reloadIfChanged() {
+        Resource resource = resourceLoader.getResource(location);
+        if (resource.exists() && !resource.isFile()) {
+            if (!unwatchableLogged) {
+                unwatchableLogged = true;
+                logger.info("Rule location {} is not a file and cannot be watched; changes apply on restart", location);
+            }
+            return;
+        }
+        long modified = lastModified(resource);
+        if (modified != Long.MIN_VALUE && modified != loadedModified) {
+            loadRules();
+        }
+    }
+
+    public FastPathRules getRules() {
+        return rules;
+    }
+
+    public FastPathDecision evaluate(Document transaction, CustomerProfile profile) {
+        return evaluate(transaction, profile, VelocityFeatures.EMPTY);
+    }
+
+    public FastPathDecision evaluate(Document transaction, CustomerProfile profile, VelocityFeatures velocity) {
+        Number amount = transaction.get("amount", Number.class);
+        return evaluate(profile, velocity,
+                amount != null ? amount.doubleValue() : 0.0,
+                parse(Currency.class, transaction.getString("currency")),
+                parse(Merchant.class, transaction.getString("merchant")),
+                parse(Category.class, transaction.getString("category")));
+    }
+
+    public FastPathDecision evaluate(CustomerProfile profile, double amount, Currency currency,
+                                     Merchant merchant, Category category) {
+        return evaluate(profile, VelocityFeatures.EMPTY, amount, currency, merchant, category);
+    }
+
+    public FastPathDecision evaluate(CustomerProfile profile, VelocityFeatures velocity, double amount,
+                                     Currency currency, Merchant merchant, Category category) {
+        FastPathRules current = rules;
+        if (!current.enabled()) {
+            return FastPathDecision.UNDECIDED;
+        }
+        if (FastPathRules.contains(current.blockedMerchantMask(), merchant)
+                || FastPathRules.contains(current.blockedCategoryMask(), category)
+                || FastPathRules.contains(current.blockedCurrencyMask(), currency)) {
+            return FastPathDecision.REJECT;
+        }
+        if (profile == null || profile.getCount() < current.minProfileCount()) {
+            return FastPathDecision.UNDECIDED;
+        }
+
+        double zScore = profile.zScore(amount);
+        int signals = 0;
+        if (zScore > current.amountZScoreThreshold()) {
+            signals++;
+        }
+        if (current.checkCurrency() && profile.getPreferredCurrency() != null && currency != profile.getPreferredCurrency()) {
+            signals++;
+        }
+        if (current.checkCategory() && !profile.trustsCategory(category)) {
+            signals++;
+        }
+        if (current.checkMerchant() && !profile.trustsMerchant(merchant)) {
+            signals++;
+        }
+        if (current.velocityMaxCount1m() > 0 && velocity.count1m() > current.velocityMaxCount1m()) {
+            signals++;
+        }
+        if (current.velocityMaxAmount1h() > 0 && velocity.amount1h() > current.velocityMaxAmount1h()) {
+            signals++;
+        }
+        if (current.velocityMaxDistinctMerchants24h() > 0
+                && velocity.distinctMerchants24h() > current.velocityMaxDistinctMerchants24h()) {
+            signals++;
+        }
+
+        if (signals >= current.rejectMinSignals()) {
+            return FastPathDecision.REJECT;
+        }
+        if (signals == 0 && zScore <= current.acceptMaxZScore()) {
+            return FastPathDecision.ACCEPT;
+        }
+        return FastPathDecision.UNDECIDED;
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String name) {
+        if (name == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static long lastModified(Resource resource) {
+        try {
+            return resource.isFile() ? resource.lastModified() : Long.MIN_VALUE;
+        } catch (IOException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+}
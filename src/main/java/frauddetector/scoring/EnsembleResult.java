@@ -0,0 +1,10 @@
+package frauddetector.scoring;
+
+import java.util.List;
+
+/**
+ * Combined verdict of the signals that answered in time, with one reason per signal, including
+ * those that timed out or failed.
+ */
+public record EnsembleResult(double score, boolean fraud, List<String> reasons) {
+}
@@ -0,0 +1,142 @@
+package frauddetector.scoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Evaluates the signals in parallel, one virtual thread each, and combines whichever answer within
+ * their budget into a weighted mean. A signal that misses its budget is left out of the mean and
+ * reported as timed out, and its evaluation is cancelled by interrupting its thread, so slow signals
+ * do not pile up work behind the scorer. A call therefore returns within the largest budget,
+ * however slow any one signal is.
+ * <p>
+ * Each signal is timed as {@code fraud.signal} and its timeouts and failures counted as
+ * {@code fraud.signal.timeouts} and {@code fraud.signal.failures}, all tagged by signal name.
+ */
+public class EnsembleScorer implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(EnsembleScorer.class);
+
+    private static final SignalResult TIMED_OUT = new SignalResult(0.0, "timed out");
+    private static final SignalResult FAILED = new SignalResult(0.0, "failed");
+
+    private final WeightedSignal[] signals;
+    private final double threshold;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public EnsembleScorer(List<Signal> signals, EnsembleSettings settings, MeterRegistry meterRegistry) {
+        this.signals = signals.stream()
+                .filter(signal -> settings.weight(signal.name()) > 0)
+                .map(signal -> new WeightedSignal(signal,
+                        settings.weight(signal.name()),
+                        settings.budgetMillis(signal.name()),
+                        Timer.builder("fraud.signal")
+                                .description("Evaluation of one ensemble signal")
+                                .tag("signal", signal.name())
+                                .register(meterRegistry),
+                        Counter.builder("fraud.signal.timeouts")
+                                .description("Signal evaluations that missed their budget")
+                                .tag("signal", signal.name())
+                                .register(meterRegistry),
+                        Counter.builder("fraud.signal.failures")
+                                .description("Signal evaluations that threw")
+                                .tag("signal", signal.name())
+                                .register(meterRegistry)))
+                .toArray(WeightedSignal[]::new);
+        this.threshold = settings.threshold();
+        if (this.signals.length == 0) {
+            throw new IllegalArgumentException("No ensemble signal has a positive weight");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public EnsembleResult score(ScoringContext context) {
+        long start = System.nanoTime();
+        Future<SignalResult>[] futures = new Future[signals.length];
+        for (int i = 0; i < signals.length; i++) {
+            WeightedSignal signal = signals[i];
+            futures[i] = executor.submit(() -> signal.evaluate(context));
+        }
+        SignalResult[] results = new SignalResult[signals.length];
+        for (int i = 0; i < signals.length; i++) {
+            results[i] = await(signals[i], futures[i], start, context);
+        }
+
+        double weightedSum = 0.0;
+        double totalWeight = 0.0;
+        List<String> reasons = new ArrayList<>(signals.length);
+        for (int i = 0; i < signals.length; i++) {
+            WeightedSignal signal = signals[i];
+            SignalResult result = results[i];
+            if (result == TIMED_OUT) {
+                signal.timeouts().increment();
+                reasons.add(signal.signal().name() + " timed out");
+            } else if (result == FAILED) {
+                signal.failures().increment();
+                reasons.add(signal.signal().name() + " failed");
+            } else if (result != null) {
+                weightedSum += signal.weight() * result.score();
+                totalWeight += signal.weight();
+                reasons.add(String.format("%s %.2f: %s", signal.signal().name(), result.score(), result.reason()));
+            }
+        }
+        if (totalWeight == 0.0) {
+            reasons.add("no-signals");
+            return new EnsembleResult(0.0, false, reasons);
+        }
+        double score = weightedSum / totalWeight;
+        return new EnsembleResult(score, score > threshold, reasons);
+    }
+
+    /**
+     * Waits for a signal until its budget, counted from {@code start}, runs out; a signal still running
+     * then is cancelled with an interrupt.
+     */
+    private static SignalResult await(WeightedSignal signal, Future<SignalResult> future, long start,
+                                      ScoringContext context) {
+        long remainingNanos = start + TimeUnit.MILLISECONDS.toNanos(signal.budgetMillis()) - System.nanoTime();
+        try {
+            return future.get(Math.max(0, remainingNanos), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            return TIMED_OUT;
+        } catch (ExecutionException e) {
+            logger.warn("Signal {} failed for transaction {}", signal.signal().name(),
+                    context.transaction().getString("transactionId"), e.getCause());
+            return FAILED;
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            return TIMED_OUT;
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private record WeightedSignal(Signal signal, double weight, long budgetMillis,
+                                  Timer timer, Counter timeouts, Counter failures) {
+
+        SignalResult evaluate(ScoringContext context) {
+            long start = System.nanoTime();
+            try {
+                return signal.evaluate(context);
+            } finally {
+                timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package frauddetector.scoring;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Weights and time budgets of the ensemble signals. Weights and budgets are comma-separated
+ * {@code name=value} lists keyed by {@link Signal#name()}; a signal without a positive weight is
+ * not evaluated, and one without a budget gets the whole deadline.
+ */
+@Component
+public class EnsembleSettings {
+
+    public static final String DEFAULT_WEIGHTS = "knn=2,profile=1,velocity=1,merchant=0.5";
+    public static final String DEFAULT_BUDGETS = "knn=30,profile=5,velocity=5,merchant=5";
+    public static final long DEFAULT_DEADLINE_MILLIS = 40;
+    public static final double DEFAULT_THRESHOLD = 0.5;
+
+    private final long deadlineMillis;
+    private final double threshold;
+    private final Map<String, Double> weights;
+    private final Map<String, Long> budgets;
+
+    @Autowired
+    public EnsembleSettings(@Value("${fraud.ensemble.deadline-ms:" + DEFAULT_DEADLINE_MILLIS + "}") long deadlineMillis,
+                            @Value("${fraud.ensemble.threshold:" + DEFAULT_THRESHOLD + "}") double threshold,
+                            @Value("${fraud.ensemble.weights:" + DEFAULT_WEIGHTS + "}") String weights,
+                            @Value("${fraud.ensemble.budgets-ms:" + DEFAULT_BUDGETS + "}") String budgets) {
+        this.deadlineMillis = deadlineMillis;
+        this.threshold = threshold;
+        this.weights = new HashMap<>();
+        parse(weights).forEach((name, value) -> this.weights.put(name, Double.parseDouble(value)));
+        this.budgets = new HashMap<>();
+        parse(budgets).forEach((name, value) -> this.budgets.put(name, Long.parseLong(value)));
+    }
+
+    public static EnsembleSettings defaults() {
+        return new EnsembleSettings(DEFAULT_DEADLINE_MILLIS, DEFAULT_THRESHOLD, DEFAULT_WEIGHTS, DEFAULT_BUDGETS);
+    }
+
+    public long deadlineMillis() {
+        return deadlineMillis;
+    }
+
+    /**
+     * Combined score above which a transaction is classed as fraud.
+     */
+    public double threshold() {
+        return threshold;
+    }
+
+    public double weight(String signal) {
+        return weights.getOrDefault(signal, 0.0);
+    }
+
+    /**
+     * The signal's budget, capped at the deadline.
+     */
+    public long budgetMillis(String signal) {
+        return Math.min(budgets.getOrDefault(signal, deadlineMillis), deadlineMillis);
+    }
+
+    private static Map<String, String> parse(String entries) {
+        Map<String, String> parsed = new HashMap<>();
+        for (String entry : entries.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected name=value, got '" + entry.trim() + "'");
+            }
+            parsed.put(entry.substring(0, separator).trim(), entry.substring(separator + 1).trim());
+        }
+        return parsed;
+    }
+}
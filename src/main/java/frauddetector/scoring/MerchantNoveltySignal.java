@@ -0,0 +1,33 @@
+package frauddetector.scoring;
+
+import frauddetector.profile.CustomerProfile;
+
+/**
+ * Whether the merchant and category are new to the customer: 0.5 for each one outside the
+ * customer's trusted lists. Abstains for customers without stored merchants or categories.
+ */
+public final class MerchantNoveltySignal implements Signal {
+
+    public static final String NAME = "merchant";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public SignalResult evaluate(ScoringContext context) {
+        CustomerProfile profile = context.profile();
+        if (profile == null || (profile.getMerchantMask() == 0L && profile.getCategoryMask() == 0L)) {
+            return null;
+        }
+        boolean newMerchant = !profile.trustsMerchant(context.merchant());
+        boolean newCategory = !profile.trustsCategory(context.category());
+        if (!newMerchant && !newCategory) {
+            return new SignalResult(0.0, "known-merchant");
+        }
+        String reason = newMerchant && newCategory ? "new-merchant, new-category"
+                : newMerchant ? "new-merchant" : "new-category";
+        return new SignalResult((newMerchant ? 0.5 : 0.0) + (newCategory ? 0.5 : 0.0), reason);
+    }
+}
@@ -0,0 +1,39 @@
+package frauddetector.scoring;
+
+import org.bson.Document;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * kNN vote: the fraction of the most similar stored transactions labelled as fraud. Abstains when
+ * the search returns no neighbours, e.g. for a transaction without an embedding or an empty index.
+ */
+public final class NeighbourVoteSignal implements Signal {
+
+    public static final String NAME = "knn";
+
+    private final Function<Document, List<Document>> search;
+
+    public NeighbourVoteSignal(Function<Document, List<Document>> search) {
+        this.search = search;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public SignalResult evaluate(ScoringContext context) {
+        List<Document> neighbours = search.apply(context.transaction());
+        if (neighbours.isEmpty()) {
+            return null;
+        }
+        long fraudCount = neighbours.stream()
+                .filter(tx -> tx.getBoolean("isFraud", false))
+                .count();
+        return new SignalResult((double) fraudCount / neighbours.size(),
+                "similar-fraud " + fraudCount + "/" + neighbours.size());
+    }
+}
@@ -0,0 +1,32 @@
+package frauddetector.scoring;
+
+/**
+ * Amount deviation from the customer's spending profile: a logistic curve over the z-score,
+ * centred on the rules' {@code amount-zscore-threshold}, so an amount at the threshold scores 0.5.
+ * A non-preferred currency raises the score by a quarter. Abstains for profiles built from fewer
+ * than {@code min-profile-count} transactions.
+ */
+public final class ProfileDeviationSignal implements Signal {
+
+    public static final String NAME = "profile";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public SignalResult evaluate(ScoringContext context) {
+        if (context.profile() == null || context.profile().getCount() < context.rules().minProfileCount()) {
+            return null;
+        }
+        double zScore = context.profile().zScore(context.amount());
+        double score = 1.0 / (1.0 + Math.exp(context.rules().amountZScoreThreshold() - zScore));
+        String reason = String.format("amount-zscore %.1f", zScore);
+        if (context.profile().getPreferredCurrency() != null && context.currency() != context.profile().getPreferredCurrency()) {
+            score += 0.25;
+            reason += ", foreign-currency";
+        }
+        return new SignalResult(score, reason);
+    }
+}
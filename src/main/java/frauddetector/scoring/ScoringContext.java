@@ -0,0 +1,48 @@
+package frauddetector.scoring;
+
+import frauddetector.enums.Category;
+import frauddetector.enums.Currency;
+import frauddetector.enums.Merchant;
+import frauddetector.profile.CustomerProfile;
+import frauddetector.rules.FastPathRules;
+import frauddetector.velocity.VelocityFeatures;
+import org.bson.Document;
+
+/**
+ * Inputs shared by all signals for one transaction, parsed once before fan-out. {@code profile} is
+ * {@code null} for transactions without a user.
+ */
+public record ScoringContext(
+        Document transaction,
+        double amount,
+        Currency currency,
+        Merchant merchant,
+        Category category,
+        CustomerProfile profile,
+        VelocityFeatures velocity,
+        FastPathRules rules) {
+
+    public static ScoringContext of(Document transaction, CustomerProfile profile, VelocityFeatures velocity,
+                                    FastPathRules rules) {
+        Number amount = transaction.get("amount", Number.class);
+        return new ScoringContext(transaction,
+                amount != null ? amount.doubleValue() : 0.0,
+                parse(Currency.class, transaction.getString("currency")),
+                parse(Merchant.class, transaction.getString("merchant")),
+                parse(Category.class, transaction.getString("category")),
+                profile,
+                velocity != null ? velocity : VelocityFeatures.EMPTY,
+                rules);
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String name) {
+        if (name == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package frauddetector.scoring;
+
+/**
+ * One independent fraud signal combined by the {@link EnsembleScorer}. Implementations must be
+ * thread-safe; each evaluation runs on its own virtual thread.
+ */
+public interface Signal {
+
+    /**
+     * Name used for the signal's weight and budget settings and its metric tag.
+     */
+    String name();
+
+    /**
+     * Fraud likelihood of the transaction according to this signal, or {@code null} to abstain when
+     * there is nothing to judge by (no profile, no neighbours, no limits configured).
+     */
+    SignalResult evaluate(ScoringContext context);
+}
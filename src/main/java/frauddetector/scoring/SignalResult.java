@@ -0,0 +1,11 @@
+package frauddetector.scoring;
+
+/**
+ * A signal's verdict: {@code score} in [0, 1] and a short human-readable {@code reason}.
+ */
+public record SignalResult(double score, String reason) {
+
+    public SignalResult {
+        score = Math.max(0.0, Math.min(1.0, score));
+    }
+}
@@ -0,0 +1,50 @@
+package frauddetector.scoring;
+
+import frauddetector.rules.FastPathRules;
+import frauddetector.velocity.VelocityFeatures;
+
+/**
+ * Velocity against the rules' limits: the highest ratio of a windowed aggregate to its limit,
+ * halved, so a window at its limit scores 0.5 and one at twice the limit scores 1. Abstains when
+ * every velocity limit is disabled.
+ */
+public final class VelocitySignal implements Signal {
+
+    public static final String NAME = "velocity";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public SignalResult evaluate(ScoringContext context) {
+        FastPathRules rules = context.rules();
+        VelocityFeatures velocity = context.velocity();
+        double worst = -1.0;
+        String reason = null;
+        if (rules.velocityMaxCount1m() > 0) {
+            double ratio = (double) velocity.count1m() / rules.velocityMaxCount1m();
+            if (ratio > worst) {
+                worst = ratio;
+                reason = "velocity count-1m " + velocity.count1m() + "/" + rules.velocityMaxCount1m();
+            }
+        }
+        if (rules.velocityMaxAmount1h() > 0) {
+            double ratio = velocity.amount1h() / rules.velocityMaxAmount1h();
+            if (ratio > worst) {
+                worst = ratio;
+                reason = String.format("velocity amount-1h %.2f/%.2f", velocity.amount1h(), rules.velocityMaxAmount1h());
+            }
+        }
+        if (rules.velocityMaxDistinctMerchants24h() > 0) {
+            double ratio = (double) velocity.distinctMerchants24h() / rules.velocityMaxDistinctMerchants24h();
+            if (ratio > worst) {
+                worst = ratio;
+                reason = "velocity merchants-24h " + velocity.distinctMerchants24h() + "/"
+                        + rules.velocityMaxDistinctMerchants24h();
+            }
+        }
+        return reason != null ? new SignalResult(worst / 2.0, reason) : null;
+    }
+}
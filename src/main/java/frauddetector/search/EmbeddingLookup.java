@@ -0,0 +1,16 @@
+package frauddetector.search;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Source of full-precision embeddings by transaction ID, used to re-rank quantized search results.
+ */
+@FunctionalInterface
+public interface EmbeddingLookup {
+
+    /**
+     * Returns the embeddings found for the given IDs; missing IDs are simply absent from the map.
+     */
+    Map<String, float[]> findEmbeddings(Collection<String> transactionIds);
+}
@@ -0,0 +1,86 @@
+package frauddetector.search;
+
+import org.bson.types.Binary;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.List;
+
+/**
+ * Helpers for reading embeddings out of BSON documents and for the packed BSON vector encoding.
+ * <p>
+ * Embeddings are stored as BSON binary subtype 9 (vector): a dtype byte ({@code 0x27}, float32),
+ * a padding byte, then the values as little-endian float32.
+ */
+public final class Embeddings {
+
+    public static final byte VECTOR_SUBTYPE = 9;
+    public static final byte FLOAT32_DTYPE = 0x27;
+    private static final int HEADER_SIZE = 2;
+    private static final VarHandle FLOAT = MethodHandles.byteArrayViewVarHandle(float[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final float[] EMPTY = {};
+
+    private Embeddings() {
+    }
+
+    /**
+     * Converts an embedding field value (a {@code float[]}, a packed BSON vector or a legacy BSON array
+     * of numbers) to a {@code float[]}.
+     */
+    public static float[] toFloatArray(Object value) {
+        if (value instanceof float[] floats) {
+            return floats;
+        }
+        if (value instanceof Binary binary && binary.getType() == VECTOR_SUBTYPE) {
+            return fromVectorBytes(binary.getData());
+        }
+        if (value instanceof List<?> list) {
+            float[] embedding = new float[list.size()];
+            for (int i = 0; i < embedding.length; i++) {
+                embedding[i] = ((Number) list.get(i)).floatValue();
+            }
+            return embedding;
+        }
+        return EMPTY;
+    }
+
+    /**
+     * Boxes an embedding for driver APIs that expect a list of doubles.
+     */
+    public static List<Double> toDoubleList(float[] embedding) {
+        Double[] values = new Double[embedding.length];
+        for (int i = 0; i < embedding.length; i++) {
+            values[i] = (double) embedding[i];
+        }
+        return List.of(values);
+    }
+
+    public static Binary toBinaryVector(float[] embedding) {
+        return new Binary(VECTOR_SUBTYPE, toVectorBytes(embedding));
+    }
+
+    public static byte[] toVectorBytes(float[] embedding) {
+        byte[] data = new byte[HEADER_SIZE + embedding.length * Float.BYTES];
+        data[0] = FLOAT32_DTYPE;
+        for (int i = 0; i < embedding.length; i++) {
+            FLOAT.set(data, HEADER_SIZE + i * Float.BYTES, embedding[i]);
+        }
+        return data;
+    }
+
+    public static float[] fromVectorBytes(byte[] data) {
+        if (data.length < HEADER_SIZE || data[0] != FLOAT32_DTYPE) {
+            throw new IllegalArgumentException("Not a float32 BSON vector");
+        }
+        if ((data.length - HEADER_SIZE) % Float.BYTES != 0) {
+            throw new IllegalArgumentException("Float32 BSON vector payload of " + (data.length - HEADER_SIZE)
+                    + " bytes is not a whole number of floats");
+        }
+        float[] embedding = new float[(data.length - HEADER_SIZE) / Float.BYTES];
+        for (int i = 0; i < embedding.length; i++) {
+            embedding[i] = (float) FLOAT.get(data, HEADER_SIZE + i * Float.BYTES);
+        }
+        return embedding;
+    }
+}
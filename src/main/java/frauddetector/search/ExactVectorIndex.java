@@ -0,0 +1,188 @@
+package frauddetector.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * Exact k-nearest-neighbour search by cosine similarity over the most recent {@code capacity}
+ * embeddings, also usable as ground truth when measuring ANN recall.
+ * <p>
+ * Vectors are normalised on insert and stored row by row in one contiguous {@code float[]}, so a
+ * search is one {@link VectorKernels#dot dot product} per row. Large scans are split into chunks
+ * scored in parallel on the common pool, each keeping its own bounded top-k heap, and the chunk
+ * results are merged. Once full, the oldest row is overwritten.
+ */
+public class ExactVectorIndex implements VectorIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int ROWS_PER_CHUNK = 8192;
+
+    private final int dimensions;
+    private final int capacity;
+    private final VectorKernels kernels;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> rowsById = new HashMap<>();
+    private float[] vectors;
+    private String[] transactionIds;
+    private boolean[] fraudLabels;
+    private int size;
+    private int oldest;
+
+    public ExactVectorIndex(int dimensions, int capacity) {
+        this(dimensions, capacity, VectorKernels.best());
+    }
+
+    public ExactVectorIndex(int dimensions, int capacity, VectorKernels kernels) {
+        if (dimensions <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Invalid exact index parameters: dimensions=" + dimensions
+                    + ", capacity=" + capacity);
+        }
+        this.dimensions = dimensions;
+        this.capacity = capacity;
+        this.kernels = kernels;
+        int initial = Math.min(capacity, INITIAL_CAPACITY);
+        this.vectors = new float[initial * dimensions];
+        this.transactionIds = new String[initial];
+        this.fraudLabels = new boolean[initial];
+    }
+
+    @Override
+    public boolean add(String transactionId, float[] embedding, boolean fraud) {
+        checkDimensions(embedding);
+        lock.writeLock().lock();
+        try {
+            if (rowsById.containsKey(transactionId)) {
+                return false;
+            }
+            int row;
+            if (size < capacity) {
+                ensureCapacity(size + 1);
+                row = size++;
+            } else {
+                row = oldest;
+                oldest = (oldest + 1) % capacity;
+                rowsById.remove(transactionIds[row]);
+            }
+            int offset = row * dimensions;
+            System.arraycopy(embedding, 0, vectors, offset, dimensions);
+            normalize(vectors, offset);
+            transactionIds[row] = transactionId;
+            fraudLabels[row] = fraud;
+            rowsById.put(transactionId, row);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void updateLabel(String transactionId, boolean fraud) {
+        lock.writeLock().lock();
+        try {
+            Integer row = rowsById.get(transactionId);
+            if (row != null) {
+                fraudLabels[row] = fraud;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Scans every stored vector; {@code numCandidates} is ignored since the search is exhaustive.
+     */
+    @Override
+    public List<Neighbor> search(float[] query, int limit, int numCandidates) {
+        checkDimensions(query);
+        float[] normalized = Arrays.copyOf(query, dimensions);
+        normalize(normalized, 0);
+
+        lock.readLock().lock();
+        try {
+            if (size == 0 || limit <= 0) {
+                return List.of();
+            }
+            int k = Math.min(limit, size);
+            int chunks = (size + ROWS_PER_CHUNK - 1) / ROWS_PER_CHUNK;
+            TopK top = chunks == 1
+                    ? scan(normalized, 0, size, k)
+                    : IntStream.range(0, chunks).parallel()
+                            .mapToObj(chunk -> scan(normalized, chunk * ROWS_PER_CHUNK,
+                                    Math.min(size, (chunk + 1) * ROWS_PER_CHUNK), k))
+                            .reduce(TopK::merge)
+                            .orElseThrow();
+
+            int[] rows = top.drainDescending();
+            float[] scores = top.lastDrainedScores();
+            List<Neighbor> results = new ArrayList<>(rows.length);
+            for (int i = 0; i < rows.length; i++) {
+                results.add(new Neighbor(transactionIds[rows[i]], scores[i], fraudLabels[rows[i]]));
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int dimensions() {
+        return dimensions;
+    }
+
+    public String kernelName() {
+        return kernels.name();
+    }
+
+    private TopK scan(float[] query, int fromRow, int toRow, int k) {
+        TopK top = new TopK(k);
+        float[] data = vectors;
+        int offset = fromRow * dimensions;
+        for (int row = fromRow; row < toRow; row++, offset += dimensions) {
+            top.offer(row, kernels.dot(query, 0, data, offset, dimensions));
+        }
+        return top;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= transactionIds.length) {
+            return;
+        }
+        int grown = (int) Math.min(capacity, Math.max(required, transactionIds.length * 2L));
+        vectors = Arrays.copyOf(vectors, grown * dimensions);
+        transactionIds = Arrays.copyOf(transactionIds, grown);
+        fraudLabels = Arrays.copyOf(fraudLabels, grown);
+    }
+
+    private void normalize(float[] vector, int offset) {
+        float norm = kernels.dot(vector, offset, vector, offset, dimensions);
+        if (norm == 0f) {
+            return;
+        }
+        float scale = (float) (1.0 / Math.sqrt(norm));
+        for (int i = 0; i < dimensions; i++) {
+            vector[offset + i] *= scale;
+        }
+    }
+
+    private void checkDimensions(float[] embedding) {
+        if (embedding.length != dimensions) {
+            throw new IllegalArgumentException("Expected " + dimensions + " dimensions but got " + embedding.length);
+        }
+    }
+}
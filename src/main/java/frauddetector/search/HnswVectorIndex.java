@@ -0,0 +1,446 @@
+package frauddetector.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Hierarchical Navigable Small World graph (Malkov &amp; Yashunin) over cosine similarity.
+ * <p>
+ * Vectors are normalised on insert and kept in one contiguous {@code float[]}, so distances
+ * are {@code 1 - dot(a, b)} over primitive storage. Searches run concurrently under a read
+ * lock; inserts are serialised under the write lock.
+ */
+public class HnswVectorIndex implements VectorIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final int dimensions;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final SplittableRandom random = new SplittableRandom(42);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ThreadLocal<VisitedSet> visitedSets = ThreadLocal.withInitial(VisitedSet::new);
+
+    private final Map<String, Integer> nodesById = new HashMap<>();
+    private float[] vectors;
+    private String[] transactionIds;
+    private boolean[] fraudLabels;
+    // links[node][level] holds the neighbour count at index 0 followed by the neighbour ids
+    private int[][][] links;
+    private int size;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    public HnswVectorIndex(int dimensions, int m, int efConstruction) {
+        if (dimensions <= 0 || m < 2 || efConstruction < 1) {
+            throw new IllegalArgumentException("Invalid HNSW parameters: dimensions=" + dimensions
+                    + ", m=" + m + ", efConstruction=" + efConstruction);
+        }
+        this.dimensions = dimensions;
+        this.m = m;
+        this.maxM0 = m * 2;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(m);
+        this.vectors = new float[INITIAL_CAPACITY * dimensions];
+        this.transactionIds = new String[INITIAL_CAPACITY];
+        this.fraudLabels = new boolean[INITIAL_CAPACITY];
+        this.links = new int[INITIAL_CAPACITY][][];
+    }
+
+    @Override
+    public boolean add(String transactionId, float[] embedding, boolean fraud) {
+        checkDimensions(embedding);
+        lock.writeLock().lock();
+        try {
+            if (nodesById.containsKey(transactionId)) {
+                return false;
+            }
+            ensureCapacity(size + 1);
+            int node = size;
+            int offset = node * dimensions;
+            System.arraycopy(embedding, 0, vectors, offset, dimensions);
+            normalize(vectors, offset);
+            transactionIds[node] = transactionId;
+            fraudLabels[node] = fraud;
+
+            int level = randomLevel();
+            links[node] = new int[level + 1][];
+            for (int l = 0; l <= level; l++) {
+                links[node][l] = new int[1 + maxConnections(l)];
+            }
+            nodesById.put(transactionId, node);
+            size++;
+
+            if (entryPoint < 0) {
+                entryPoint = node;
+                maxLevel = level;
+                return true;
+            }
+
+            int current = entryPoint;
+            for (int l = maxLevel; l > level; l--) {
+                current = greedyClosest(vectors, offset, current, l);
+            }
+            for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+                NodeHeap candidates = searchLayer(vectors, offset, current, efConstruction, l);
+                int[] sorted = candidates.drainAscending();
+                int[] selected = selectNeighbors(offset, sorted, m);
+                int[] nodeLinks = links[node][l];
+                nodeLinks[0] = selected.length;
+                System.arraycopy(selected, 0, nodeLinks, 1, selected.length);
+                for (int neighbor : selected) {
+                    connect(neighbor, node, l);
+                }
+                current = sorted[0];
+            }
+            if (level > maxLevel) {
+                maxLevel = level;
+                entryPoint = node;
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void updateLabel(String transactionId, boolean fraud) {
+        lock.writeLock().lock();
+        try {
+            Integer node = nodesById.get(transactionId);
+            if (node != null) {
+                fraudLabels[node] = fraud;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Neighbor> search(float[] query, int limit, int numCandidates) {
+        checkDimensions(query);
+        float[] normalized = Arrays.copyOf(query, dimensions);
+        normalize(normalized, 0);
+
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0) {
+                return List.of();
+            }
+            int current = entryPoint;
+            for (int l = maxLevel; l > 0; l--) {
+                current = greedyClosest(normalized, 0, current, l);
+            }
+            NodeHeap results = searchLayer(normalized, 0, current, Math.max(numCandidates, limit), 0);
+            float[] distances = new float[results.size()];
+            int[] nodes = results.drainAscending(distances);
+            int count = Math.min(limit, nodes.length);
+            List<Neighbor> neighbors = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int node = nodes[i];
+                neighbors.add(new Neighbor(transactionIds[node], 1 - distances[i], fraudLabels[node]));
+            }
+            return neighbors;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int dimensions() {
+        return dimensions;
+    }
+
+    private int greedyClosest(float[] query, int queryOffset, int start, int level) {
+        int current = start;
+        float currentDistance = distance(query, queryOffset, current);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            int[] neighborLinks = links[current][level];
+            for (int i = 1; i <= neighborLinks[0]; i++) {
+                int candidate = neighborLinks[i];
+                float d = distance(query, queryOffset, candidate);
+                if (d < currentDistance) {
+                    currentDistance = d;
+                    current = candidate;
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Beam search on one layer; returns a max-heap of the {@code ef} closest nodes found.
+     */
+    private NodeHeap searchLayer(float[] query, int queryOffset, int start, int ef, int level) {
+        VisitedSet visited = visitedSets.get();
+        visited.reset(size);
+        NodeHeap candidates = new NodeHeap(ef * 2, false);
+        NodeHeap results = new NodeHeap(ef + 1, true);
+
+        float startDistance = distance(query, queryOffset, start);
+        visited.visit(start);
+        candidates.push(start, startDistance);
+        results.push(start, startDistance);
+
+        while (!candidates.isEmpty()) {
+            if (candidates.topDistance() > results.topDistance() && results.size() >= ef) {
+                break;
+            }
+            int current = candidates.pop();
+            int[] neighborLinks = links[current][level];
+            for (int i = 1; i <= neighborLinks[0]; i++) {
+                int neighbor = neighborLinks[i];
+                if (!visited.visit(neighbor)) {
+                    continue;
+                }
+                float d = distance(query, queryOffset, neighbor);
+                if (results.size() < ef || d < results.topDistance()) {
+                    candidates.push(neighbor, d);
+                    results.push(neighbor, d);
+                    if (results.size() > ef) {
+                        results.pop();
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Neighbour selection heuristic: keeps a candidate only if it is closer to the base node
+     * than to any neighbour already selected, then tops up with the closest discarded ones.
+     */
+    private int[] selectNeighbors(int baseOffset, int[] sortedCandidates, int maxNeighbors) {
+        int[] selected = new int[Math.min(maxNeighbors, sortedCandidates.length)];
+        boolean[] taken = new boolean[sortedCandidates.length];
+        int count = 0;
+        for (int i = 0; i < sortedCandidates.length && count < selected.length; i++) {
+            int candidate = sortedCandidates[i];
+            float toBase = distance(vectors, baseOffset, candidate);
+            boolean keep = true;
+            for (int j = 0; j < count; j++) {
+                if (distance(vectors, selected[j] * dimensions, candidate) < toBase) {
+                    keep = false;
+                    break;
+                }
+            }
+            if (keep) {
+                selected[count++] = candidate;
+                taken[i] = true;
+            }
+        }
+        for (int i = 0; i < sortedCandidates.length && count < selected.length; i++) {
+            if (!taken[i]) {
+                selected[count++] = sortedCandidates[i];
+            }
+        }
+        return selected;
+    }
+
+    private void connect(int node, int newNeighbor, int level) {
+        int[] nodeLinks = links[node][level];
+        int count = nodeLinks[0];
+        if (count < nodeLinks.length - 1) {
+            nodeLinks[++nodeLinks[0]] = newNeighbor;
+            return;
+        }
+        int baseOffset = node * dimensions;
+        NodeHeap candidates = new NodeHeap(count + 1, true);
+        for (int i = 1; i <= count; i++) {
+            candidates.push(nodeLinks[i], distance(vectors, baseOffset, nodeLinks[i]));
+        }
+        candidates.push(newNeighbor, distance(vectors, baseOffset, newNeighbor));
+        int[] selected = selectNeighbors(baseOffset, candidates.drainAscending(), count);
+        nodeLinks[0] = selected.length;
+        System.arraycopy(selected, 0, nodeLinks, 1, selected.length);
+    }
+
+    private float distance(float[] query, int queryOffset, int node) {
+        int offset = node * dimensions;
+        float dot = 0f;
+        for (int i = 0; i < dimensions; i++) {
+            dot += query[queryOffset + i] * vectors[offset + i];
+        }
+        return 1f - dot;
+    }
+
+    private int randomLevel() {
+        return (int) (-Math.log(1.0 - random.nextDouble()) * levelMultiplier);
+    }
+
+    private int maxConnections(int level) {
+        return level == 0 ? maxM0 : m;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= transactionIds.length) {
+            return;
+        }
+        int capacity = Math.max(required, transactionIds.length * 2);
+        vectors = Arrays.copyOf(vectors, capacity * dimensions);
+        transactionIds = Arrays.copyOf(transactionIds, capacity);
+        fraudLabels = Arrays.copyOf(fraudLabels, capacity);
+        links = Arrays.copyOf(links, capacity);
+    }
+
+    private void checkDimensions(float[] vector) {
+        if (vector.length != dimensions) {
+            throw new IllegalArgumentException(
+                    "Expected embedding of dimension " + dimensions + " but got " + vector.length);
+        }
+    }
+
+    private void normalize(float[] vector, int offset) {
+        float norm = 0f;
+        for (int i = 0; i < dimensions; i++) {
+            norm += vector[offset + i] * vector[offset + i];
+        }
+        if (norm == 0f) {
+            return;
+        }
+        float scale = (float) (1.0 / Math.sqrt(norm));
+        for (int i = 0; i < dimensions; i++) {
+            vector[offset + i] *= scale;
+        }
+    }
+
+    /**
+     * Generation-stamped visited marks, reused per thread across searches.
+     */
+    private static final class VisitedSet {
+        private int[] marks = new int[INITIAL_CAPACITY];
+        private int generation;
+
+        void reset(int capacity) {
+            if (marks.length < capacity) {
+                marks = new int[Math.max(capacity, marks.length * 2)];
+                generation = 0;
+            }
+            if (++generation == Integer.MAX_VALUE) {
+                Arrays.fill(marks, 0);
+                generation = 1;
+            }
+        }
+
+        boolean visit(int node) {
+            if (marks[node] == generation) {
+                return false;
+            }
+            marks[node] = generation;
+            return true;
+        }
+    }
+
+    /**
+     * Binary heap of (node, distance) pairs on primitive arrays; a max-heap keeps the furthest on top.
+     */
+    private static final class NodeHeap {
+        private int[] nodes;
+        private float[] distances;
+        private final boolean max;
+        private int size;
+
+        NodeHeap(int capacity, boolean max) {
+            this.nodes = new int[Math.max(capacity, 4)];
+            this.distances = new float[nodes.length];
+            this.max = max;
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        float topDistance() {
+            return distances[0];
+        }
+
+        void push(int node, float distance) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                distances = Arrays.copyOf(distances, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!before(distance, distances[parent])) {
+                    break;
+                }
+                nodes[i] = nodes[parent];
+                distances[i] = distances[parent];
+                i = parent;
+            }
+            nodes[i] = node;
+            distances[i] = distance;
+        }
+
+        int pop() {
+            int top = nodes[0];
+            int lastNode = nodes[--size];
+            float lastDistance = distances[size];
+            int i = 0;
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                int right = child + 1;
+                if (right < size && before(distances[right], distances[child])) {
+                    child = right;
+                }
+                if (!before(distances[child], lastDistance)) {
+                    break;
+                }
+                nodes[i] = nodes[child];
+                distances[i] = distances[child];
+                i = child;
+            }
+            nodes[i] = lastNode;
+            distances[i] = lastDistance;
+            return top;
+        }
+
+        int[] drainAscending() {
+            return drainAscending(new float[size]);
+        }
+
+        /**
+         * Empties the heap, returning nodes by ascending distance and filling {@code sortedDistances} alongside.
+         */
+        int[] drainAscending(float[] sortedDistances) {
+            int count = size;
+            int[] sorted = new int[count];
+            for (int i = 0; i < count; i++) {
+                int position = max ? count - 1 - i : i;
+                sortedDistances[position] = distances[0];
+                sorted[position] = pop();
+            }
+            return sorted;
+        }
+
+        private boolean before(float a, float b) {
+            return max ? a > b : a < b;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package frauddetector.search;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads full-precision embeddings back from the {@code transactions} collection with one
+ * {@code $in} query per search.
+ */
+public class MongoEmbeddingLookup implements EmbeddingLookup {
+    private static final Logger logger = LoggerFactory.getLogger(MongoEmbeddingLookup.class);
+
+    private final MongoCollection<Document> transactionCollection;
+
+    public MongoEmbeddingLookup(MongoCollection<Document> transactionCollection) {
+        this.transactionCollection = transactionCollection;
+    }
+
+    @Override
+    public Map<String, float[]> findEmbeddings(Collection<String> transactionIds) {
+        Map<String, float[]> embeddings = new HashMap<>(transactionIds.size() * 2);
+        try {
+            for (Document transaction : transactionCollection.find(Filters.in("transactionId", transactionIds))
+                    .projection(Projections.fields(Projections.excludeId(), Projections.include("transactionId", "embedding")))) {
+                float[] embedding = Embeddings.toFloatArray(transaction.get("embedding"));
+                if (embedding.length > 0) {
+                    embeddings.put(transaction.getString("transactionId"), embedding);
+                }
+            }
+        } catch (MongoException e) {
+            logger.warn("Could not load embeddings for re-ranking, keeping quantized scores", e);
+        }
+        return embeddings;
+    }
+}
@@ -0,0 +1,7 @@
+package frauddetector.search;
+
+/**
+ * A single search hit: the matched transaction, its cosine similarity to the query and its fraud label.
+ */
+public record Neighbor(String transactionId, float score, boolean fraud) {
+}
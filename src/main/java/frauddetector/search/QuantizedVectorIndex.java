@@ -0,0 +1,260 @@
+package frauddetector.search;
+
+import frauddetector.quantization.Quantizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Exhaustive search over quantized embeddings of the latest {@code capacity} transactions.
+ * <p>
+ * The first {@code trainingSampleSize} vectors are kept in full precision and searched exactly;
+ * once that many have arrived (in practice while the startup load streams the {@code transactions}
+ * collection) the quantizer is trained on them, they are encoded, and every later vector is
+ * encoded on insert. Searches score the codes against the full-precision query (asymmetric
+ * distance) in parallel chunks. With an {@link EmbeddingLookup}, the best {@code numCandidates}
+ * are re-ranked by exact cosine similarity on their full-precision embeddings.
+ */
+public class QuantizedVectorIndex implements VectorIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int ROWS_PER_CHUNK = 8192;
+
+    private final int dimensions;
+    private final int capacity;
+    private final int trainingSampleSize;
+    private final Function<List<float[]>, Quantizer> trainer;
+    private final EmbeddingLookup rerankLookup;
+    private final VectorKernels kernels = VectorKernels.best();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> rowsById = new HashMap<>();
+    private Quantizer quantizer;
+    private List<float[]> trainingVectors = new ArrayList<>();
+    private byte[] codes = new byte[0];
+    private String[] transactionIds;
+    private boolean[] fraudLabels;
+    private int size;
+    private int oldest;
+
+    /**
+     * @param rerankLookup source of full-precision vectors for re-ranking, or {@code null} to
+     *                     return quantized scores as they are
+     */
+    public QuantizedVectorIndex(int dimensions, int capacity, int trainingSampleSize,
+                                Function<List<float[]>, Quantizer> trainer, EmbeddingLookup rerankLookup) {
+        if (dimensions <= 0 || capacity <= 0 || trainingSampleSize <= 0) {
+            throw new IllegalArgumentException("Invalid quantized index parameters: dimensions=" + dimensions
+                    + ", capacity=" + capacity + ", trainingSampleSize=" + trainingSampleSize);
+        }
+        this.dimensions = dimensions;
+        this.capacity = capacity;
+        this.trainingSampleSize = Math.min(trainingSampleSize, capacity);
+        this.trainer = trainer;
+        this.rerankLookup = rerankLookup;
+        int initial = Math.min(capacity, INITIAL_CAPACITY);
+        this.transactionIds = new String[initial];
+        this.fraudLabels = new boolean[initial];
+    }
+
+    @Override
+    public boolean add(String transactionId, float[] embedding, boolean fraud) {
+        checkDimensions(embedding);
+        float[] normalized = normalize(embedding);
+        lock.writeLock().lock();
+        try {
+            if (rowsById.containsKey(transactionId)) {
+                return false;
+            }
+            int row;
+            if (size < capacity) {
+                ensureCapacity(size + 1);
+                row = size++;
+            } else {
+                row = oldest;
+                oldest = (oldest + 1) % capacity;
+                rowsById.remove(transactionIds[row]);
+            }
+            transactionIds[row] = transactionId;
+            fraudLabels[row] = fraud;
+            rowsById.put(transactionId, row);
+
+            if (quantizer != null) {
+                quantizer.encode(normalized, codes, row * quantizer.codeSize());
+            } else {
+                trainingVectors.add(normalized);
+                if (trainingVectors.size() >= trainingSampleSize) {
+                    train();
+                }
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void updateLabel(String transactionId, boolean fraud) {
+        lock.writeLock().lock();
+        try {
+            Integer row = rowsById.get(transactionId);
+            if (row != null) {
+                fraudLabels[row] = fraud;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Neighbor> search(float[] query, int limit, int numCandidates) {
+        checkDimensions(query);
+        float[] normalized = normalize(query);
+        boolean rerank = rerankLookup != null;
+        List<Neighbor> candidates;
+
+        lock.readLock().lock();
+        try {
+            if (size == 0 || limit <= 0) {
+                return List.of();
+            }
+            int k = Math.min(rerank ? Math.max(limit, numCandidates) : limit, size);
+            TopK top;
+            if (quantizer == null) {
+                rerank = false;
+                top = new TopK(Math.min(limit, size));
+                for (int row = 0; row < size; row++) {
+                    top.offer(row, kernels.dot(normalized, 0, trainingVectors.get(row), 0, dimensions));
+                }
+            } else {
+                int chunks = (size + ROWS_PER_CHUNK - 1) / ROWS_PER_CHUNK;
+                top = chunks == 1
+                        ? scan(normalized, 0, size, k)
+                        : IntStream.range(0, chunks).parallel()
+                                .mapToObj(chunk -> scan(normalized, chunk * ROWS_PER_CHUNK,
+                                        Math.min(size, (chunk + 1) * ROWS_PER_CHUNK), k))
+                                .reduce(TopK::merge)
+                                .orElseThrow();
+            }
+            int[] rows = top.drainDescending();
+            float[] scores = top.lastDrainedScores();
+            candidates = new ArrayList<>(rows.length);
+            for (int i = 0; i < rows.length; i++) {
+                candidates.add(new Neighbor(transactionIds[rows[i]], scores[i], fraudLabels[rows[i]]));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        // Re-rank outside the lock: the lookup is a database round trip
+        return rerank ? rerank(normalized, candidates, limit) : candidates;
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int dimensions() {
+        return dimensions;
+    }
+
+    public boolean isTrained() {
+        lock.readLock().lock();
+        try {
+            return quantizer != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Bytes held per indexed vector by the codes (full precision until trained).
+     */
+    public int bytesPerVector() {
+        lock.readLock().lock();
+        try {
+            return quantizer != null ? quantizer.codeSize() : dimensions * Float.BYTES;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void train() {
+        quantizer = trainer.apply(trainingVectors);
+        int codeSize = quantizer.codeSize();
+        codes = new byte[transactionIds.length * codeSize];
+        for (int row = 0; row < trainingVectors.size(); row++) {
+            quantizer.encode(trainingVectors.get(row), codes, row * codeSize);
+        }
+        trainingVectors = null;
+    }
+
+    private TopK scan(float[] query, int fromRow, int toRow, int k) {
+        Quantizer.QueryScorer scorer = quantizer.scorer(query);
+        int codeSize = quantizer.codeSize();
+        TopK top = new TopK(k);
+        byte[] data = codes;
+        for (int row = fromRow, offset = fromRow * codeSize; row < toRow; row++, offset += codeSize) {
+            top.offer(row, scorer.score(data, offset));
+        }
+        return top;
+    }
+
+    private List<Neighbor> rerank(float[] query, List<Neighbor> candidates, int limit) {
+        Map<String, float[]> embeddings = rerankLookup.findEmbeddings(
+                candidates.stream().map(Neighbor::transactionId).toList());
+        List<Neighbor> reranked = new ArrayList<>(candidates.size());
+        for (Neighbor candidate : candidates) {
+            float[] embedding = embeddings.get(candidate.transactionId());
+            float score = embedding != null && embedding.length == dimensions
+                    ? kernels.cosine(query, 0, embedding, 0, dimensions)
+                    : candidate.score();
+            reranked.add(new Neighbor(candidate.transactionId(), score, candidate.fraud()));
+        }
+        reranked.sort((a, b) -> Double.compare(b.score(), a.score()));
+        return reranked.size() > limit ? reranked.subList(0, limit) : reranked;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= transactionIds.length) {
+            return;
+        }
+        int grown = (int) Math.min(capacity, Math.max(required, transactionIds.length * 2L));
+        transactionIds = Arrays.copyOf(transactionIds, grown);
+        fraudLabels = Arrays.copyOf(fraudLabels, grown);
+        if (quantizer != null) {
+            codes = Arrays.copyOf(codes, grown * quantizer.codeSize());
+        }
+    }
+
+    private float[] normalize(float[] vector) {
+        float[] normalized = Arrays.copyOf(vector, dimensions);
+        float norm = kernels.dot(normalized, 0, normalized, 0, dimensions);
+        if (norm == 0f) {
+            return normalized;
+        }
+        float scale = (float) (1.0 / Math.sqrt(norm));
+        for (int i = 0; i < dimensions; i++) {
+            normalized[i] *= scale;
+        }
+        return normalized;
+    }
+
+    private void checkDimensions(float[] embedding) {
+        if (embedding.length != dimensions) {
+            throw new IllegalArgumentException("Expected " + dimensions + " dimensions but got " + embedding.length);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package frauddetector.search;
+
+/**
+ * Bounded min-heap of the best {@code k} (row, score) pairs seen so far.
+ */
+final class TopK {
+    private final int[] rows;
+    private final float[] scores;
+    private int size;
+    private float[] drainedScores;
+
+    TopK(int k) {
+        this.rows = new int[k];
+        this.scores = new float[k];
+    }
+
+    void offer(int row, float score) {
+        if (size < rows.length) {
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (scores[parent] <= score) {
+                    break;
+                }
+                rows[i] = rows[parent];
+                scores[i] = scores[parent];
+                i = parent;
+            }
+            rows[i] = row;
+            scores[i] = score;
+        } else if (score > scores[0]) {
+            siftDown(row, score);
+        }
+    }
+
+    TopK merge(TopK other) {
+        for (int i = 0; i < other.size; i++) {
+            offer(other.rows[i], other.scores[i]);
+        }
+        return this;
+    }
+
+    /**
+     * Empties the heap, returning rows by descending score; the matching scores are then
+     * available from {@link #lastDrainedScores()}.
+     */
+    int[] drainDescending() {
+        int count = size;
+        int[] sortedRows = new int[count];
+        drainedScores = new float[count];
+        for (int i = count - 1; i >= 0; i--) {
+            sortedRows[i] = rows[0];
+            drainedScores[i] = scores[0];
+            size--;
+            if (size > 0) {
+                siftDown(rows[size], scores[size]);
+            }
+        }
+        return sortedRows;
+    }
+
+    float[] lastDrainedScores() {
+        return drainedScores;
+    }
+
+    private void siftDown(int row, float score) {
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && scores[right] < scores[child]) {
+                child = right;
+            }
+            if (score <= scores[child]) {
+                break;
+            }
+            rows[i] = rows[child];
+            scores[i] = scores[child];
+            i = child;
+        }
+        rows[i] = row;
+        scores[i] = score;
+    }
+}
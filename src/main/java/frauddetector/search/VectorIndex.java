@@ -0,0 +1,33 @@
+package frauddetector.search;
+
+import java.util.List;
+
+/**
+ * In-memory approximate nearest-neighbour index over transaction embeddings.
+ * Implementations must be safe for concurrent searches and inserts.
+ */
+public interface VectorIndex {
+
+    /**
+     * Adds an embedding to the index. Returns false if the transaction is already indexed.
+     */
+    boolean add(String transactionId, float[] embedding, boolean fraud);
+
+    /**
+     * Updates the fraud label of an already indexed transaction.
+     */
+    void updateLabel(String transactionId, boolean fraud);
+
+    /**
+     * Returns up to {@code limit} neighbours ordered by descending similarity,
+     * exploring {@code numCandidates} candidates while searching.
+     */
+    List<Neighbor> search(float[] query, int limit, int numCandidates);
+
+    int size();
+
+    /**
+     * Length of the embeddings this index accepts; {@link #add} and {@link #search} reject any other.
+     */
+    int dimensions();
+}
@@ -0,0 +1,31 @@
+package frauddetector.search;
+
+/**
+ * Similarity kernels over slices of {@code float[]} storage. {@link #best()} returns the SIMD
+ * implementation on {@code jdk.incubator.vector} when the module is present at runtime
+ * ({@code --add-modules jdk.incubator.vector}) and the scalar one otherwise.
+ */
+public interface VectorKernels {
+
+    float dot(float[] a, int aOffset, float[] b, int bOffset, int length);
+
+    float cosine(float[] a, int aOffset, float[] b, int bOffset, int length);
+
+    /**
+     * Dot product of float weights with signed int8 codes, the inner loop of int8 scalar quantization.
+     */
+    float dotInt8(float[] weights, byte[] codes, int codesOffset, int length);
+
+    /**
+     * Human-readable name of the implementation, for logs and benchmarks.
+     */
+    String name();
+
+    static VectorKernels best() {
+        return VectorKernelsLoader.BEST;
+    }
+
+    static VectorKernels scalar() {
+        return ScalarKernels.INSTANCE;
+    }
+}
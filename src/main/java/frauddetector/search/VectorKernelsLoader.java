@@ -0,0 +1,25 @@
+package frauddetector.search;
+
+/**
+ * Picks the kernel implementation once per JVM.
+ */
+final class VectorKernelsLoader {
+
+    static final VectorKernels BEST = load();
+
+    private VectorKernelsLoader() {
+    }
+
+    private static VectorKernels load() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                // Loaded reflectively so that callers link without the incubator module
+                return (VectorKernels) Class.forName("frauddetector.search.SimdKernels")
+                        .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return ScalarKernels.INSTANCE;
+            }
+        }
+        return ScalarKernels.INSTANCE;
+    }
+}
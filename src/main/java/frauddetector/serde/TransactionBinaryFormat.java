@@ -0,0 +1,42 @@
+package frauddetector.serde;
+
+import frauddetector.enums.Category;
+import frauddetector.enums.Currency;
+import frauddetector.enums.Merchant;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Wire layout shared by {@link TransactionSerializer} and {@link TransactionDeserializer}.
+ * <pre>
+ * byte    schema version (1)
+ * string  transactionId, userId, id   (int32 length, -1 for null, then UTF-8 bytes)
+ * float64 amount
+ * int64   timestamp
+ * int8    currency, merchant, category ordinals (-1 for null)
+ * int8    isFraud
+ * int32   embedding length, then float32 values
+ * </pre>
+ * All multi-byte values are little-endian. Enums are written by ordinal, so new constants must
+ * only ever be appended.
+ */
+final class TransactionBinaryFormat {
+
+    static final byte VERSION_1 = 1;
+    static final int NULL_LENGTH = -1;
+    static final byte NULL_ORDINAL = -1;
+
+    static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    static final VarHandle DOUBLE = MethodHandles.byteArrayViewVarHandle(double[].class, ByteOrder.LITTLE_ENDIAN);
+    static final VarHandle FLOAT = MethodHandles.byteArrayViewVarHandle(float[].class, ByteOrder.LITTLE_ENDIAN);
+
+    static final Currency[] CURRENCIES = Currency.values();
+    static final Merchant[] MERCHANTS = Merchant.values();
+    static final Category[] CATEGORIES = Category.values();
+
+    private TransactionBinaryFormat() {
+    }
+}
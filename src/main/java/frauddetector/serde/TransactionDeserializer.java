@@ -0,0 +1,147 @@
+package frauddetector.serde;
+
+import frauddetector.model.Transaction;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static frauddetector.serde.TransactionBinaryFormat.CATEGORIES;
+import static frauddetector.serde.TransactionBinaryFormat.CURRENCIES;
+import static frauddetector.serde.TransactionBinaryFormat.DOUBLE;
+import static frauddetector.serde.TransactionBinaryFormat.FLOAT;
+import static frauddetector.serde.TransactionBinaryFormat.INT;
+import static frauddetector.serde.TransactionBinaryFormat.LONG;
+import static frauddetector.serde.TransactionBinaryFormat.MERCHANTS;
+import static frauddetector.serde.TransactionBinaryFormat.NULL_LENGTH;
+import static frauddetector.serde.TransactionBinaryFormat.NULL_ORDINAL;
+import static frauddetector.serde.TransactionBinaryFormat.VERSION_1;
+
+/**
+ * Kafka deserializer for the binary layout written by {@link TransactionSerializer}. Values are
+ * read straight out of the record's byte array, so the only allocations are the transaction, its
+ * strings and its embedding.
+ * <p>
+ * Records starting with a JSON object are handed to Spring's {@link JsonDeserializer}, so
+ * producers still on {@code JsonSerializer} keep working during a rolling upgrade.
+ * <p>
+ * Lengths and enum ordinals read off the wire are checked against the record before anything is
+ * allocated or indexed, so a corrupt record fails with a {@link SerializationException} naming the
+ * bad field rather than an oversized allocation or an index error.
+ */
+public class TransactionDeserializer implements Deserializer<Transaction> {
+
+    private final JsonDeserializer<Transaction> jsonDeserializer = new JsonDeserializer<>();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Map<String, Object> jsonConfigs = new HashMap<>(configs);
+        jsonConfigs.putIfAbsent(JsonDeserializer.VALUE_DEFAULT_TYPE, Transaction.class.getName());
+        jsonConfigs.putIfAbsent(JsonDeserializer.TRUSTED_PACKAGES, Transaction.class.getPackageName());
+        jsonConfigs.putIfAbsent(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
+        jsonDeserializer.configure(jsonConfigs, isKey);
+    }
+
+    @Override
+    public Transaction deserialize(String topic, byte[] data) {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        if (isJson(data[0])) {
+            return jsonDeserializer.deserialize(topic, data);
+        }
+        if (data[0] != VERSION_1) {
+            throw new SerializationException("Unsupported transaction schema version " + data[0]);
+        }
+        try {
+            return readVersion1(data);
+        } catch (IndexOutOfBoundsException e) {
+            throw new SerializationException("Truncated transaction record of " + data.length + " bytes", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+    }
+
+    private static Transaction readVersion1(byte[] data) {
+        int pos = 1;
+        int length = readLength(data, pos, Byte.BYTES, true, "transactionId");
+        String transactionId = readString(data, pos + Integer.BYTES, length);
+        pos += Integer.BYTES + Math.max(length, 0);
+        length = readLength(data, pos, Byte.BYTES, true, "userId");
+        String userId = readString(data, pos + Integer.BYTES, length);
+        pos += Integer.BYTES + Math.max(length, 0);
+        length = readLength(data, pos, Byte.BYTES, true, "id");
+        String id = readString(data, pos + Integer.BYTES, length);
+        pos += Integer.BYTES + Math.max(length, 0);
+
+        double amount = (double) DOUBLE.get(data, pos);
+        pos += Double.BYTES;
+        long timestamp = (long) LONG.get(data, pos);
+        pos += Long.BYTES;
+        byte currency = data[pos++];
+        byte merchant = data[pos++];
+        byte category = data[pos++];
+        boolean isFraud = data[pos++] != 0;
+
+        float[] embedding = new float[readLength(data, pos, Float.BYTES, false, "embedding")];
+        pos += Integer.BYTES;
+        for (int i = 0; i < embedding.length; i++) {
+            embedding[i] = (float) FLOAT.get(data, pos);
+            pos += Float.BYTES;
+        }
+
+        Transaction transaction = new Transaction(transactionId, userId, amount,
+                readOrdinal(CURRENCIES, currency, "currency"),
+                timestamp,
+                readOrdinal(MERCHANTS, merchant, "merchant"),
+                readOrdinal(CATEGORIES, category, "category"));
+        transaction.setId(id);
+        transaction.setFraud(isFraud);
+        transaction.setEmbedding(embedding);
+        return transaction;
+    }
+
+    /**
+     * Reads the int32 length prefix at {@code pos} and checks that that many elements of
+     * {@code elementBytes} each fit in the rest of the record.
+     */
+    private static int readLength(byte[] data, int pos, int elementBytes, boolean nullable, String field) {
+        int length = (int) INT.get(data, pos);
+        if (nullable && length == NULL_LENGTH) {
+            return length;
+        }
+        if (length < 0) {
+            throw new SerializationException("Negative " + field + " length " + length);
+        }
+        long remaining = data.length - (pos + Integer.BYTES);
+        if ((long) length * elementBytes > remaining) {
+            throw new SerializationException(field + " length " + length + " exceeds the " + remaining
+                    + " bytes left in the record");
+        }
+        return length;
+    }
+
+    private static <E extends Enum<E>> E readOrdinal(E[] values, byte ordinal, String field) {
+        if (ordinal == NULL_ORDINAL) {
+            return null;
+        }
+        if (ordinal < 0 || ordinal >= values.length) {
+            throw new SerializationException("Unknown " + field + " ordinal " + ordinal);
+        }
+        return values[ordinal];
+    }
+
+    private static String readString(byte[] data, int offset, int length) {
+        return length == NULL_LENGTH ? null : new String(data, offset, length, StandardCharsets.UTF_8);
+    }
+
+    private static boolean isJson(byte first) {
+        return first == '{' || first == ' ' || first == '\t' || first == '\n' || first == '\r';
+    }
+}
@@ -0,0 +1,116 @@
+package frauddetector.serde;
+
+import frauddetector.model.Transaction;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.Arrays;
+
+import static frauddetector.serde.TransactionBinaryFormat.DOUBLE;
+import static frauddetector.serde.TransactionBinaryFormat.FLOAT;
+import static frauddetector.serde.TransactionBinaryFormat.INT;
+import static frauddetector.serde.TransactionBinaryFormat.LONG;
+import static frauddetector.serde.TransactionBinaryFormat.NULL_LENGTH;
+import static frauddetector.serde.TransactionBinaryFormat.NULL_ORDINAL;
+import static frauddetector.serde.TransactionBinaryFormat.VERSION_1;
+
+/**
+ * Kafka serializer writing {@link Transaction}s in the compact binary layout described in
+ * {@link TransactionBinaryFormat}. Encoding happens in a per-thread scratch buffer, so the only
+ * allocation per record is the returned array.
+ * <p>
+ * Opt-in: producers default to {@code JsonSerializer}. Set {@code spring.kafka.producer.value-serializer}
+ * to this class only once every consumer reads with {@link TransactionDeserializer}, which accepts both.
+ */
+public class TransactionSerializer implements Serializer<Transaction> {
+
+    private static final int INITIAL_BUFFER_SIZE = 4096;
+    private static final float[] NO_EMBEDDING = {};
+    private static final ThreadLocal<byte[]> BUFFERS = ThreadLocal.withInitial(() -> new byte[INITIAL_BUFFER_SIZE]);
+
+    @Override
+    public byte[] serialize(String topic, Transaction transaction) {
+        if (transaction == null) {
+            return null;
+        }
+        float[] embedding = transaction.getEmbedding() != null ? transaction.getEmbedding() : NO_EMBEDDING;
+        int maxSize = 1
+                + maxStringSize(transaction.getTransactionId())
+                + maxStringSize(transaction.getUserId())
+                + maxStringSize(transaction.getId())
+                + Double.BYTES + Long.BYTES + 4
+                + Integer.BYTES + embedding.length * Float.BYTES;
+        byte[] buffer = buffer(maxSize);
+
+        int pos = 0;
+        buffer[pos++] = VERSION_1;
+        pos = writeString(buffer, pos, transaction.getTransactionId());
+        pos = writeString(buffer, pos, transaction.getUserId());
+        pos = writeString(buffer, pos, transaction.getId());
+        DOUBLE.set(buffer, pos, transaction.getAmount());
+        pos += Double.BYTES;
+        LONG.set(buffer, pos, transaction.getTimestamp());
+        pos += Long.BYTES;
+        buffer[pos++] = ordinal(transaction.getCurrency());
+        buffer[pos++] = ordinal(transaction.getMerchant());
+        buffer[pos++] = ordinal(transaction.getCategory());
+        buffer[pos++] = (byte) (transaction.isFraud() ? 1 : 0);
+        INT.set(buffer, pos, embedding.length);
+        pos += Integer.BYTES;
+        for (float value : embedding) {
+            FLOAT.set(buffer, pos, value);
+            pos += Float.BYTES;
+        }
+        return Arrays.copyOf(buffer, pos);
+    }
+
+    private static byte[] buffer(int size) {
+        byte[] buffer = BUFFERS.get();
+        if (buffer.length < size) {
+            buffer = new byte[Math.max(size, buffer.length * 2)];
+            BUFFERS.set(buffer);
+        }
+        return buffer;
+    }
+
+    private static int maxStringSize(String value) {
+        // A UTF-16 char never needs more than three UTF-8 bytes
+        return Integer.BYTES + (value == null ? 0 : value.length() * 3);
+    }
+
+    private static byte ordinal(Enum<?> value) {
+        return value == null ? NULL_ORDINAL : (byte) value.ordinal();
+    }
+
+    private static int writeString(byte[] buffer, int pos, String value) {
+        if (value == null) {
+            INT.set(buffer, pos, NULL_LENGTH);
+            return pos + Integer.BYTES;
+        }
+        int start = pos + Integer.BYTES;
+        int out = start;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer[out++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[out++] = (byte) (0xC0 | (c >> 6));
+                buffer[out++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[out++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[out++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[out++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[out++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                buffer[out++] = '?';
+            } else {
+                buffer[out++] = (byte) (0xE0 | (c >> 12));
+                buffer[out++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[out++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        INT.set(buffer, pos, out - start);
+        return out;
+    }
+}
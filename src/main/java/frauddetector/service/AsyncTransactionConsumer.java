@@ -0,0 +1,187 @@
+package frauddetector.service;
+
+import frauddetector.config.KafkaConsumerConfig;
+import frauddetector.dedupe.DuplicateFilter;
+import frauddetector.decision.FraudDecisionSink;
+import frauddetector.loadgen.EndToEndLatencyRecorder;
+import frauddetector.metrics.LogSampler;
+import frauddetector.model.Transaction;
+import frauddetector.profile.CustomerProfileCache;
+import frauddetector.repository.TransactionRepository;
+import frauddetector.velocity.VelocityStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-blocking alternative to {@link TransactionConsumer}: the listener thread only hands each record
+ * to {@link TransactionVectorSearchService#evaluateAsync}, and the save and acknowledgment happen on
+ * a virtual thread once the decision is in. Offsets are still committed in partition order (see
+ * {@link KafkaConsumerConfig#asyncKafkaListenerContainerFactory}). Transactions of the same user that
+ * are in flight together are scored without seeing each other in the profile and velocity state.
+ * End-to-end latency is recorded here when a record is acknowledged, not when the listener returns.
+ * <p>
+ * A record whose scoring or save fails is retried with exponential backoff; once the attempts are
+ * used up it is published to the dead-letter topic and only then acknowledged. If that publish fails
+ * too the record is never acknowledged, so its offset is not committed and it is delivered again
+ * after the next rebalance or restart. (Async acks rule out {@code nack()}.)
+ */
+@Service
+@ConditionalOnProperty(name = "fraud.consumer.mode", havingValue = "async")
+public class AsyncTransactionConsumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncTransactionConsumer.class);
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionVectorSearchService vectorSearchService;
+    private final CustomerProfileCache profileCache;
+    private final VelocityStore velocityStore;
+    private final FraudDecisionSink decisionSink;
+    private final DuplicateFilter duplicateFilter;
+    private final EndToEndLatencyRecorder latencyRecorder;
+    private final Timer saveTimer;
+    private final LogSampler logSampler;
+    private final KafkaTemplate<String, Transaction> kafkaTemplate;
+    private final int maxAttempts;
+    private final long backoffMs;
+    private final String deadLetterTopic;
+    private final ExecutorService persistExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Autowired
+    public AsyncTransactionConsumer(TransactionRepository transactionRepository,
+                                    TransactionVectorSearchService vectorSearchService,
+                                    CustomerProfileCache profileCache,
+                                    VelocityStore velocityStore,
+                                    FraudDecisionSink decisionSink,
+                                    DuplicateFilter duplicateFilter,
+                                    EndToEndLatencyRecorder latencyRecorder,
+                                    KafkaTemplate<String, Transaction> kafkaTemplate,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${fraud.logging.transaction-sample-rate:0.01}") double logSampleRate,
+                                    @Value("${fraud.consumer.async.retry.max-attempts:3}") int maxAttempts,
+                                    @Value("${fraud.consumer.async.retry.backoff-ms:200}") long backoffMs,
+                                    @Value("${fraud.consumer.async.dead-letter-topic:transactions.DLT}") String deadLetterTopic) {
+        this.transactionRepository = transactionRepository;
+        this.vectorSearchService = vectorSearchService;
+        this.profileCache = profileCache;
+        this.velocityStore = velocityStore;
+        this.decisionSink = decisionSink;
+        this.duplicateFilter = duplicateFilter;
+        this.latencyRecorder = latencyRecorder;
+        this.kafkaTemplate = kafkaTemplate;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMs = backoffMs;
+        this.deadLetterTopic = deadLetterTopic;
+        this.saveTimer = Timer.builder("fraud.mongo.save")
+            .description("Saving a scored transaction")
+            .tag("consumer", "async")
+            .register(meterRegistry);
+        this.logSampler = new LogSampler(logSampleRate);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        persistExecutor.shutdown();
+    }
+
+    @KafkaListener(topics = "transactions", groupId = "fraud-detection-group",
+            containerFactory = KafkaConsumerConfig.ASYNC_LISTENER_CONTAINER_FACTORY)
+    public void consumeTransaction(ConsumerRecord<String, Transaction> record, Acknowledgment acknowledgment) {
+        Transaction transaction = record.value();
+        Acknowledgment completion = () -> {
+            latencyRecorder.recordCompleted(record.headers());
+            acknowledgment.acknowledge();
+        };
+        if (duplicateFilter.isDuplicate(transaction.getTransactionId())) {
+            logger.debug("Skipping already scored transaction {}", transaction.getTransactionId());
+            completion.acknowledge();
+            return;
+        }
+        transaction.setScoredBy(TransactionDocuments.SCORED_BY_KAFKA);
+        attempt(transaction, completion, 1);
+    }
+
+    private void attempt(Transaction transaction, Acknowledgment acknowledgment, int attemptNumber) {
+        vectorSearchService.evaluateAsync(transaction)
+            .thenAcceptAsync(decision -> persist(transaction, decision), persistExecutor)
+            .whenComplete((ignored, failure) -> {
+                if (failure == null) {
+                    duplicateFilter.release(transaction.getTransactionId());
+                    acknowledgment.acknowledge();
+                } else if (attemptNumber < maxAttempts) {
+                    long delayMs = backoffMs << (attemptNumber - 1);
+                    logger.warn("Failed to score transaction {} (attempt {} of {}); retrying in {} ms",
+                        transaction.getTransactionId(), attemptNumber, maxAttempts, delayMs, failure);
+                    CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS, persistExecutor)
+                        .execute(() -> attempt(transaction, acknowledgment, attemptNumber + 1));
+                } else {
+                    logger.error("Failed to score transaction {} after {} attempts; sending it to {}",
+                        transaction.getTransactionId(), maxAttempts, deadLetterTopic, failure);
+                    deadLetter(transaction, acknowledgment);
+                }
+            });
+    }
+
+    private void deadLetter(Transaction transaction, Acknowledgment acknowledgment) {
+        CompletableFuture<?> sent;
+        try {
+            sent = kafkaTemplate.send(deadLetterTopic, transaction.getTransactionId(), transaction);
+        } catch (RuntimeException e) {
+            sent = CompletableFuture.failedFuture(e);
+        }
+        sent.whenComplete((result, failure) -> {
+            if (failure == null) {
+                acknowledgment.acknowledge();
+            } else {
+                // Left unacknowledged: the partition's offset stays behind this record until it is redelivered
+                logger.error("Failed to dead-letter transaction {}; leaving it unacknowledged",
+                    transaction.getTransactionId(), failure);
+            }
+            duplicateFilter.release(transaction.getTransactionId());
+        });
+    }
+
+    private void persist(Transaction transaction, FraudDecision decision) {
+        transaction.setFraud(decision.fraud());
+        long saveStart = System.nanoTime();
+        try {
+            transactionRepository.save(transaction);
+        } catch (DuplicateKeyException e) {
+            // Stored by an earlier delivery that was not acknowledged; its state updates already happened
+            logger.debug("Transaction {} already stored", transaction.getTransactionId());
+            decisionSink.record(decision, TransactionDocuments.SCORED_BY_KAFKA);
+            return;
+        } finally {
+            saveTimer.record(System.nanoTime() - saveStart, TimeUnit.NANOSECONDS);
+        }
+        decisionSink.record(decision, TransactionDocuments.SCORED_BY_KAFKA);
+
+        Document transactionDoc = TransactionDocuments.toScoringDocument(transaction);
+        vectorSearchService.indexScoredTransaction(transactionDoc);
+        profileCache.recordTransaction(transaction.getUserId(), transaction.getAmount(), decision.fraud());
+        velocityStore.record(transaction.getUserId(), transaction.getTimestamp(), transaction.getAmount(),
+            transaction.getMerchant());
+
+        if (logSampler.sample()) {
+            logger.info("Transaction {} evaluated as {} (score {}, {} us)", transaction.getTransactionId(),
+                decision.fraud() ? "FRAUD" : "LEGITIMATE", decision.score(), decision.latencyNanos() / 1_000);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package frauddetector.service;
+
+import frauddetector.config.KafkaConsumerConfig;
+import frauddetector.dedupe.DuplicateFilter;
+import frauddetector.decision.FraudDecisionSink;
+import frauddetector.model.Transaction;
+import frauddetector.profile.CustomerProfileCache;
+import frauddetector.velocity.VelocityStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch alternative to {@link TransactionConsumer}: scores a whole poll, then persists it with a
+ * single unordered bulk write that already carries the final {@code isFraud} flag. Offsets are
+ * acknowledged only after the bulk write succeeds; a failure redelivers the batch.
+ */
+@Service
+@ConditionalOnProperty(name = "fraud.consumer.mode", havingValue = "batch")
+public class BatchTransactionConsumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchTransactionConsumer.class);
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final TransactionVectorSearchService vectorSearchService;
+    private final CustomerProfileCache profileCache;
+    private final VelocityStore velocityStore;
+    private final FraudDecisionSink decisionSink;
+    private final DuplicateFilter duplicateFilter;
+    private final Timer saveTimer;
+
+    @Autowired
+    public BatchTransactionConsumer(MongoTemplate mongoTemplate,
+                                    TransactionVectorSearchService vectorSearchService,
+                                    CustomerProfileCache profileCache,
+                                    VelocityStore velocityStore,
+                                    FraudDecisionSink decisionSink,
+                                    DuplicateFilter duplicateFilter,
+                                    MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.vectorSearchService = vectorSearchService;
+        this.profileCache = profileCache;
+        this.velocityStore = velocityStore;
+        this.decisionSink = decisionSink;
+        this.duplicateFilter = duplicateFilter;
+        this.saveTimer = Timer.builder("fraud.mongo.save")
+            .description("Bulk insert of one scored poll")
+            .tag("consumer", "batch")
+            .register(meterRegistry);
+    }
+
+    @KafkaListener(topics = "transactions", groupId = "fraud-detection-group",
+            containerFactory = KafkaConsumerConfig.BATCH_LISTENER_CONTAINER_FACTORY)
+    public void consumeTransactions(List<Transaction> polled, Acknowledgment acknowledgment) {
+        long start = System.nanoTime();
+        List<Transaction> transactions = new ArrayList<>(polled.size());
+        for (Transaction transaction : polled) {
+            if (!duplicateFilter.isDuplicate(transaction.getTransactionId())) {
+                transactions.add(transaction);
+            }
+        }
+        if (transactions.isEmpty()) {
+            acknowledgment.acknowledge();
+            logger.info("Skipped batch of {} already scored transactions", polled.size());
+            return;
+        }
+        int fraudCount;
+        try {
+            fraudCount = score(transactions, acknowledgment);
+        } finally {
+            // The decisions are in the sink by now, which answers later duplicate checks
+            transactions.forEach(transaction -> duplicateFilter.release(transaction.getTransactionId()));
+        }
+        logger.info("Processed batch of {} transactions ({} fraud, {} duplicates skipped) in {} ms",
+            transactions.size(), fraudCount, polled.size() - transactions.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private int score(List<Transaction> transactions, Acknowledgment acknowledgment) {
+        List<Document> scoredDocs = new ArrayList<>(transactions.size());
+        List<FraudDecision> decisions = new ArrayList<>(transactions.size());
+        int fraudCount = 0;
+
+        for (Transaction transaction : transactions) {
+            Document transactionDoc = TransactionDocuments.toScoringDocument(transaction);
+            FraudDecision decision = vectorSearchService.evaluate(transactionDoc);
+            boolean isFraud = decision.fraud();
+            decisions.add(decision);
+            transaction.setFraud(isFraud);
+            transaction.setScoredBy(TransactionDocuments.SCORED_BY_KAFKA);
+            transactionDoc.put("isFraud", isFraud);
+            scoredDocs.add(transactionDoc);
+            if (isFraud) {
+                fraudCount++;
+            }
+        }
+
+        // Indexes of rows an earlier delivery of this poll already stored; their state updates happened then.
+        // Velocity is therefore recorded after the write too, so transactions of the same user within one
+        // poll do not see each other, but a redelivered poll is never counted twice
+        BitSet alreadyStored = new BitSet(transactions.size());
+        long saveStart = System.nanoTime();
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Transaction.class)
+                .insert(transactions)
+                .execute();
+        } catch (BulkOperationException e) {
+            // A redelivered poll hits the unique transactionId index for what an earlier attempt stored;
+            // the rest of the unordered insert went through, so only other errors fail the batch
+            if (!e.getErrors().stream().allMatch(error -> error.getCode() == DUPLICATE_KEY)) {
+                throw e;
+            }
+            e.getErrors().forEach(error -> alreadyStored.set(error.getIndex()));
+            logger.info("{} transactions of the batch were already stored", e.getErrors().size());
+        } finally {
+            saveTimer.record(System.nanoTime() - saveStart, TimeUnit.NANOSECONDS);
+        }
+        decisions.forEach(decision -> decisionSink.record(decision, TransactionDocuments.SCORED_BY_KAFKA));
+        acknowledgment.acknowledge();
+
+        for (int i = alreadyStored.nextClearBit(0); i < transactions.size(); i = alreadyStored.nextClearBit(i + 1)) {
+            Transaction transaction = transactions.get(i);
+            vectorSearchService.indexScoredTransaction(scoredDocs.get(i));
+            velocityStore.record(transaction.getUserId(), transaction.getTimestamp(), transaction.getAmount(),
+                transaction.getMerchant());
+            profileCache.recordTransaction(transaction.getUserId(), transaction.getAmount(), transaction.isFraud());
+        }
+        return fraudCount;
+    }
+}
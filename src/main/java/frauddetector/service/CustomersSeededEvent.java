@@ -0,0 +1,8 @@
+package frauddetector.service;
+
+/**
+ * Published by {@link DatasetSeeder} once generated customers are in MongoDB, so components that
+ * read the customer list at startup can pick them up.
+ */
+public record CustomersSeededEvent(int customers) {
+}
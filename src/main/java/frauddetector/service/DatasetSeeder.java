@@ -0,0 +1,266 @@
+package frauddetector.service;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.CountOptions;
+import frauddetector.generator.CustomerGenerator;
+import frauddetector.generator.TransactionGenerator;
+import frauddetector.model.Customer;
+import frauddetector.model.Transaction;
+import frauddetector.repository.CustomerRepository;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Seeds {@code fraud.seed.customers} generated customers and {@code fraud.seed.transactions-per-customer}
+ * transactions for each, in the background once the application is ready. Each collection is only
+ * seeded when it is empty.
+ * <p>
+ * Documents are written in chunks of {@code fraud.seed.chunk-size} with unordered bulk inserts from
+ * {@code fraud.seed.writers} threads. Each writer generates the transactions of its own share of the
+ * customers from its own deterministic random stream, embeds a chunk at a time (so a batching
+ * embedding provider sees whole chunks) and adds the chunk to the in-memory vector index once it is
+ * stored. Progress is logged in documents per second.
+ * <p>
+ * Each customer's transactions lie in the past of {@code fraud.seed.base-timestamp-ms} (the time
+ * seeding starts when 0), spaced by gaps drawn from the writer's stream, so a fixed base timestamp
+ * and seed reproduce the same documents on every run.
+ */
+@Service
+@ConditionalOnProperty(name = "fraud.seed.enabled", havingValue = "true", matchIfMissing = true)
+public class DatasetSeeder {
+    private static final Logger logger = LoggerFactory.getLogger(DatasetSeeder.class);
+
+    private static final int PROGRESS_REPORTS = 10;
+    private static final long MEAN_TRANSACTION_GAP_MS = TimeUnit.HOURS.toMillis(6);
+
+    private final MongoTemplate mongoTemplate;
+    private final CustomerRepository customerRepository;
+    private final MongoCollection<Document> transactionCollection;
+    private final EmbeddingGenerator embeddingGenerator;
+    private final TransactionVectorSearchService vectorSearchService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int customerCount;
+    private final int transactionsPerCustomer;
+    private final int chunkSize;
+    private final int writers;
+    private final long randomSeed;
+    private final long baseTimestampMs;
+    private volatile boolean running = true;
+
+    @Autowired
+    public DatasetSeeder(MongoTemplate mongoTemplate,
+                         CustomerRepository customerRepository,
+                         MongoCollection<Document> transactionCollection,
+                         EmbeddingGenerator embeddingGenerator,
+                         TransactionVectorSearchService vectorSearchService,
+                         ApplicationEventPublisher eventPublisher,
+                         @Value("${fraud.seed.customers:4}") int customerCount,
+                         @Value("${fraud.seed.transactions-per-customer:5}") int transactionsPerCustomer,
+                         @Value("${fraud.seed.chunk-size:1000}") int chunkSize,
+                         @Value("${fraud.seed.writers:4}") int writers,
+                         @Value("${fraud.seed.random-seed:42}") long randomSeed,
+                         @Value("${fraud.seed.base-timestamp-ms:0}") long baseTimestampMs) {
+        if (chunkSize <= 0 || writers <= 0) {
+            throw new IllegalArgumentException("Seeding chunk size and writer count must be positive");
+        }
+        this.mongoTemplate = mongoTemplate;
+        this.customerRepository = customerRepository;
+        this.transactionCollection = transactionCollection;
+        this.embeddingGenerator = embeddingGenerator;
+        this.vectorSearchService = vectorSearchService;
+        this.eventPublisher = eventPublisher;
+        this.customerCount = customerCount;
+        this.transactionsPerCustomer = transactionsPerCustomer;
+        this.chunkSize = chunkSize;
+        this.writers = writers;
+        this.randomSeed = randomSeed;
+        this.baseTimestampMs = baseTimestampMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Thread.ofPlatform().name("dataset-seeder").daemon().start(this::seed);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+    }
+
+    private void seed() {
+        try {
+            List<Customer> customers = seedCustomers();
+            seedTransactions(customers);
+        } catch (RuntimeException e) {
+            logger.error("Seeding failed", e);
+        }
+    }
+
+    private List<Customer> seedCustomers() {
+        if (mongoTemplate.exists(new Query(), Customer.class)) {
+            logger.info("Customers already exist, skipping seeding");
+            return customerRepository.findAll();
+        }
+
+        logger.info("Seeding {} customers", customerCount);
+        List<Customer> customers = CustomerGenerator.generate(customerCount, randomSeed);
+        Progress progress = new Progress("customers", customers.size());
+        List<List<Customer>> chunks = new ArrayList<>();
+        for (int from = 0; from < customers.size(); from += chunkSize) {
+            chunks.add(customers.subList(from, Math.min(from + chunkSize, customers.size())));
+        }
+        AtomicInteger next = new AtomicInteger();
+        runWriters(worker -> {
+            for (int i = next.getAndIncrement(); i < chunks.size() && running; i = next.getAndIncrement()) {
+                insert(chunks.get(i), Customer.class);
+                progress.add(chunks.get(i).size());
+            }
+        });
+        progress.finish();
+
+        eventPublisher.publishEvent(new CustomersSeededEvent(customers.size()));
+        return customers;
+    }
+
+    private void seedTransactions(List<Customer> customers) {
+        if (transactionCollection.countDocuments(new Document(), new CountOptions().limit(1)) > 0) {
+            logger.info("Transactions already exist, skipping seeding");
+            return;
+        }
+        if (customers.isEmpty() || transactionsPerCustomer <= 0) {
+            return;
+        }
+
+        logger.info("Seeding {} transactions for each of {} customers", transactionsPerCustomer, customers.size());
+        TransactionGenerator generator = new TransactionGenerator(customers, randomSeed);
+        long base = baseTimestampMs > 0 ? baseTimestampMs : System.currentTimeMillis();
+        Progress progress = new Progress("transactions", (long) customers.size() * transactionsPerCustomer);
+        runWriters(worker -> {
+            // Writer w owns customers w, w + writers, w + 2 * writers, ...
+            SplittableRandom random = generator.stream(worker);
+            List<Transaction> chunk = new ArrayList<>(chunkSize);
+            for (int customer = worker; customer < customers.size() && running; customer += writers) {
+                long timestamp = base;
+                for (int i = 0; i < transactionsPerCustomer; i++) {
+                    timestamp -= TransactionGenerator.nextGapMillis(random, MEAN_TRANSACTION_GAP_MS);
+                    chunk.add(generator.next(random, customer, timestamp));
+                    if (chunk.size() == chunkSize) {
+                        writeTransactions(chunk, progress);
+                    }
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeTransactions(chunk, progress);
+            }
+        });
+        progress.finish();
+    }
+
+    private void writeTransactions(List<Transaction> chunk, Progress progress) {
+        List<CompletableFuture<float[]>> embeddings = new ArrayList<>(chunk.size());
+        for (Transaction transaction : chunk) {
+            embeddings.add(embeddingGenerator.generateEmbeddingAsync(transaction));
+        }
+        for (int i = 0; i < chunk.size(); i++) {
+            chunk.get(i).setEmbedding(embeddings.get(i).join());
+        }
+
+        insert(chunk, Transaction.class);
+        for (Transaction transaction : chunk) {
+            vectorSearchService.indexTransaction(TransactionDocuments.toScoringDocument(transaction));
+        }
+        progress.add(chunk.size());
+        chunk.clear();
+    }
+
+    private void insert(List<?> documents, Class<?> type) {
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type)
+            .insert(documents)
+            .execute();
+    }
+
+    private void runWriters(Writer writer) {
+        ExecutorService pool = Executors.newFixedThreadPool(writers, Thread.ofPlatform().name("seed-writer-", 1).factory());
+        try {
+            List<Future<?>> results = new ArrayList<>(writers);
+            for (int i = 0; i < writers; i++) {
+                int worker = i;
+                results.add(pool.submit(() -> writer.run(worker)));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Seeding interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Seeding writer failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Writer {
+        void run(int worker);
+    }
+
+    /**
+     * Written-document counter that logs roughly every tenth of the expected total.
+     */
+    private static final class Progress {
+        private final String kind;
+        private final long expected;
+        private final long reportEvery;
+        private final long startNanos = System.nanoTime();
+        private final AtomicLong written = new AtomicLong();
+
+        Progress(String kind, long expected) {
+            this.kind = kind;
+            this.expected = expected;
+            this.reportEvery = Math.max(1, expected / PROGRESS_REPORTS);
+        }
+
+        void add(int count) {
+            long total = written.addAndGet(count);
+            if (total / reportEvery > (total - count) / reportEvery && total < expected) {
+                logger.info("Seeded {}/{} {} ({} docs/s)", total, expected, kind, rate(total));
+            }
+        }
+
+        void finish() {
+            long total = written.get();
+            logger.info("Seeded {} {} in {} ms ({} docs/s)",
+                total, kind, (System.nanoTime() - startNanos) / 1_000_000, rate(total));
+        }
+
+        private long rate(long total) {
+            long elapsedNanos = Math.max(1, System.nanoTime() - startNanos);
+            return total * 1_000_000_000L / elapsedNanos;
+        }
+    }
+}
@@ -1,20 +1,83 @@
 package frauddetector.service;
 
+import frauddetector.embedding.BatchingEmbeddingService;
+import frauddetector.embedding.CanonicalFeatures;
+import frauddetector.embedding.EmbeddingCache;
 import frauddetector.model.Transaction;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.Random;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
 
+/**
+ * Embeddings for transactions. With {@code fraud.embedding.provider=client} they come from the
+ * configured {@code EmbeddingClient} through the {@link BatchingEmbeddingService}; otherwise
+ * ({@code random}, the default) random vectors of {@code fraud.search.dimensions} are generated
+ * locally, which needs no API key.
+ * <p>
+ * The provider is fed the {@link CanonicalFeatures canonical text} of the transaction, and when
+ * the {@link EmbeddingCache} is enabled, transactions with the same canonical text share one
+ * embedding.
+ */
 @Service
 public class EmbeddingGenerator {
-    private final Random random = new Random();
+
+    private static final int DEFAULT_DIMENSIONS = 384; // Using a standard embedding size
+
+    private final BatchingEmbeddingService batchingService;
+    private final EmbeddingCache cache;
+    private final int randomDimensions;
+
+    /**
+     * Offline generator producing random embeddings, without a cache.
+     */
+    public EmbeddingGenerator() {
+        this.batchingService = null;
+        this.cache = null;
+        this.randomDimensions = DEFAULT_DIMENSIONS;
+    }
+
+    @Autowired
+    public EmbeddingGenerator(Optional<BatchingEmbeddingService> batchingService, Optional<EmbeddingCache> cache,
+                              @Value("${fraud.search.dimensions:384}") int randomDimensions) {
+        this.batchingService = batchingService.orElse(null);
+        this.cache = cache.orElse(null);
+        this.randomDimensions = randomDimensions;
+    }
 
     public float[] generateEmbedding(Transaction transaction) {
+        if (batchingService == null && cache == null) {
+            return randomEmbedding();
+        }
+        return generateEmbeddingAsync(transaction).join();
+    }
+
+    /**
+     * Non-blocking variant; callers embedding many transactions should submit them all before
+     * joining so they share batches.
+     */
+    public CompletableFuture<float[]> generateEmbeddingAsync(Transaction transaction) {
+        String text = CanonicalFeatures.text(transaction);
+        return cache != null ? cache.get(text, this::load) : load(text);
+    }
+
+    private CompletableFuture<float[]> load(String canonicalText) {
+        if (batchingService != null) {
+            return batchingService.embed(canonicalText);
+        }
+        return CompletableFuture.completedFuture(randomEmbedding());
+    }
+
+    private float[] randomEmbedding() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
         // For demo purposes, generate random embeddings
-        float[] embedding = new float[384]; // Using a standard embedding size
+        float[] embedding = new float[randomDimensions];
         for (int i = 0; i < embedding.length; i++) {
             embedding[i] = random.nextFloat();
         }
         return embedding;
     }
-}
\ No newline at end of file
+}
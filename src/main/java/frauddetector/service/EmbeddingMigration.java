@@ -0,0 +1,76 @@
+package frauddetector.service;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import frauddetector.search.Embeddings;
+import org.bson.BsonType;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One-off rewrite of embeddings stored as BSON arrays of doubles into packed float32 BSON vectors.
+ * Enabled with {@code fraud.migration.embeddings.enabled=true}; safe to re-run, since only documents
+ * whose embedding is still an array are touched.
+ */
+@Service
+@ConditionalOnProperty(name = "fraud.migration.embeddings.enabled", havingValue = "true")
+public class EmbeddingMigration {
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddingMigration.class);
+
+    private final MongoCollection<Document> transactionCollection;
+    private final int batchSize;
+
+    @Autowired
+    public EmbeddingMigration(MongoCollection<Document> transactionCollection,
+                              @Value("${fraud.migration.embeddings.batch-size:1000}") int batchSize) {
+        this.transactionCollection = transactionCollection;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public long migrate() {
+        logger.info("Migrating array embeddings to BSON vectors in batches of {}", batchSize);
+        long start = System.nanoTime();
+        long migrated = 0;
+        List<WriteModel<Document>> batch = new ArrayList<>(batchSize);
+
+        for (Document transaction : transactionCollection.find(Filters.type("embedding", BsonType.ARRAY))
+                .projection(Projections.include("embedding"))
+                .batchSize(batchSize)) {
+            float[] embedding = Embeddings.toFloatArray(transaction.get("embedding"));
+            batch.add(new UpdateOneModel<>(
+                    Filters.eq("_id", transaction.get("_id")),
+                    Updates.set("embedding", Embeddings.toBinaryVector(embedding))));
+            if (batch.size() == batchSize) {
+                migrated += flush(batch);
+            }
+        }
+        if (!batch.isEmpty()) {
+            migrated += flush(batch);
+        }
+
+        logger.info("Migrated {} embeddings in {} ms", migrated, (System.nanoTime() - start) / 1_000_000);
+        return migrated;
+    }
+
+    private long flush(List<WriteModel<Document>> batch) {
+        long modified = transactionCollection.bulkWrite(batch, new BulkWriteOptions().ordered(false)).getModifiedCount();
+        batch.clear();
+        return modified;
+    }
+}
@@ -0,0 +1,23 @@
+package frauddetector.service;
+
+import frauddetector.rules.FastPathDecision;
+
+import java.util.List;
+
+/**
+ * Result of scoring one transaction. {@code score} is the fraud likelihood in [0, 1]: 0 or 1 for a
+ * rule decision, otherwise the weighted ensemble score. {@code fastPath} is the rule-stage outcome;
+ * it is {@link FastPathDecision#UNDECIDED} when the verdict came from the ensemble signals.
+ */
+public record FraudDecision(String transactionId,
+                            String userId,
+                            boolean fraud,
+                            double score,
+                            FastPathDecision fastPath,
+                            List<String> reasons,
+                            long latencyNanos) {
+
+    public boolean decidedByRules() {
+        return fastPath != FastPathDecision.UNDECIDED;
+    }
+}
@@ -0,0 +1,105 @@
+package frauddetector.service;
+
+import frauddetector.decision.FraudDecisionSink;
+import frauddetector.model.Transaction;
+import frauddetector.rules.FastPathDecision;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Synchronous-answer scoring for card authorization: the same evaluation as the Kafka consumers,
+ * against in-memory state, bounded by {@code fraud.score.deadline-ms}. When the deadline passes the
+ * caller gets the fallback decision, approve by default ({@code fraud.score.fail-open=true}), and
+ * the evaluation finishes in the background unobserved.
+ * <p>
+ * Nothing is written to MongoDB on the request path; the returned decision goes to the
+ * {@link FraudDecisionSink}. The transaction itself is not recorded in the profiles or velocity
+ * windows, since it is expected to arrive through the regular pipeline as well.
+ */
+@Service
+public class InlineScoringService {
+    private static final Logger logger = LoggerFactory.getLogger(InlineScoringService.class);
+
+    public static final String DECISION_SOURCE = "api";
+    private static final String DEADLINE_EXCEEDED = "deadline-exceeded";
+
+    private final TransactionVectorSearchService vectorSearchService;
+    private final EmbeddingGenerator embeddingGenerator;
+    private final FraudDecisionSink decisionSink;
+    private final long deadlineNanos;
+    private final boolean failOpen;
+    private final Timer decidedTimer;
+    private final Timer timedOutTimer;
+
+    @Autowired
+    public InlineScoringService(TransactionVectorSearchService vectorSearchService,
+                                EmbeddingGenerator embeddingGenerator,
+                                FraudDecisionSink decisionSink,
+                                MeterRegistry meterRegistry,
+                                @Value("${fraud.score.deadline-ms:50}") long deadlineMs,
+                                @Value("${fraud.score.fail-open:true}") boolean failOpen) {
+        this.vectorSearchService = vectorSearchService;
+        this.embeddingGenerator = embeddingGenerator;
+        this.decisionSink = decisionSink;
+        this.deadlineNanos = TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        this.failOpen = failOpen;
+        this.decidedTimer = Timer.builder("fraud.api.score")
+                .description("Inline scoring request")
+                .tag("outcome", "decided")
+                .register(meterRegistry);
+        this.timedOutTimer = Timer.builder("fraud.api.score")
+                .description("Inline scoring request")
+                .tag("outcome", DEADLINE_EXCEEDED)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Scores a transaction; the future always completes within the deadline (plus scheduling delay),
+     * with the fallback decision if evaluation has not finished by then.
+     */
+    public CompletableFuture<FraudDecision> score(Transaction transaction) {
+        long start = System.nanoTime();
+        CompletableFuture<FraudDecision> evaluation;
+        if (transaction.getEmbedding() == null || transaction.getEmbedding().length == 0) {
+            evaluation = embeddingGenerator.generateEmbeddingAsync(transaction).thenCompose(embedding -> {
+                transaction.setEmbedding(embedding);
+                return vectorSearchService.evaluateAsync(transaction);
+            });
+        } else {
+            evaluation = vectorSearchService.evaluateAsync(transaction);
+        }
+
+        return evaluation
+                .exceptionally(e -> {
+                    logger.warn("Inline scoring of transaction {} failed", transaction.getTransactionId(), e);
+                    return fallback(transaction, "evaluation-failed");
+                })
+                .completeOnTimeout(null, deadlineNanos, TimeUnit.NANOSECONDS)
+                .thenApply(decision -> {
+                    long elapsed = System.nanoTime() - start;
+                    if (decision == null) {
+                        timedOutTimer.record(elapsed, TimeUnit.NANOSECONDS);
+                        decision = fallback(transaction, DEADLINE_EXCEEDED);
+                    } else {
+                        decidedTimer.record(elapsed, TimeUnit.NANOSECONDS);
+                    }
+                    decisionSink.record(decision, DECISION_SOURCE);
+                    return decision;
+                });
+    }
+
+    private FraudDecision fallback(Transaction transaction, String reason) {
+        return new FraudDecision(transaction.getTransactionId(), transaction.getUserId(), !failOpen,
+                failOpen ? 0.0 : 1.0, FastPathDecision.UNDECIDED,
+                List.of(reason, failOpen ? "fail-open" : "fail-closed"), deadlineNanos);
+    }
+}
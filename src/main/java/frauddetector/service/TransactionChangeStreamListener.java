@@ -1,105 +1,500 @@
 package frauddetector.service;
 
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
 import com.mongodb.client.ChangeStreamIterable;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReplaceOptions;
 import com.mongodb.client.model.changestream.ChangeStreamDocument;
-import frauddetector.model.Transaction;
+import com.mongodb.client.model.changestream.OperationType;
+import frauddetector.dedupe.DuplicateFilter;
+import frauddetector.decision.FraudDecisionSink;
+import frauddetector.enums.Merchant;
+import frauddetector.metrics.LogSampler;
+import frauddetector.profile.CustomerProfileCache;
+import frauddetector.velocity.VelocityStore;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.BsonDocument;
+import org.bson.BsonTimestamp;
 import org.bson.Document;
+import org.bson.conversions.Bson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Scores transactions inserted into MongoDB by any path.
+ * <p>
+ * A single reader thread tails the change stream and hands inserts to a pool of scoring workers
+ * through bounded per-worker queues. Events are partitioned by {@code userId}, so each user's
+ * transactions are scored in order, and a full queue blocks the reader rather than buffering
+ * without limit. Filtering to inserts and projecting the scored fields happens server-side in the
+ * change stream pipeline. Resume tokens are checkpointed periodically, only up to the last event for which
+ * every earlier event has been processed, so a restart resumes without skipping work. Inserts the
+ * Kafka consumers already scored, and events replayed after a reconnect, are skipped through the
+ * {@link DuplicateFilter}.
+ * <p>
+ * An event whose scoring fails is retried with doubling backoff on its worker, holding back that
+ * user's later events. Once the attempts are used up it is written to the
+ * {@code changeStreamDeadLetters} collection and counts as processed; if that write fails too, the
+ * event stays in flight so the checkpoint never passes it and a restart replays it.
+ */
 @Service
 public class TransactionChangeStreamListener {
     private static final Logger logger = LoggerFactory.getLogger(TransactionChangeStreamListener.class);
+
+    private static final String RESUME_TOKENS_COLLECTION = "changeStreamResumeTokens";
+    private static final String DEAD_LETTER_COLLECTION = "changeStreamDeadLetters";
+    private static final String LISTENER_ID = "transactions-fraud-listener";
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+    private static final int CHANGE_STREAM_FATAL_ERROR = 280;
+    private static final long RECONNECT_BACKOFF_MS = 1000;
+    public static final String DECISION_SOURCE = "changestream";
+
     private final MongoCollection<Document> transactionCollection;
+    private final MongoCollection<Document> resumeTokenCollection;
+    private final MongoCollection<Document> deadLetterCollection;
     private final TransactionVectorSearchService vectorSearchService;
-    private final ExecutorService executorService;
+    private final CustomerProfileCache profileCache;
+    private final VelocityStore velocityStore;
+    private final FraudDecisionSink decisionSink;
+    private final DuplicateFilter duplicateFilter;
+    private final List<Bson> pipeline;
+    private final int maxAttempts;
+    private final long backoffMs;
+    private final ExecutorService readerExecutor;
+    private final ExecutorService workerExecutor;
+    private final BlockingQueue<ChangeEvent>[] workerQueues;
     private volatile boolean running = true;
-    private MongoCursor<ChangeStreamDocument<Document>> cursor;
+    private volatile MongoCursor<ChangeStreamDocument<Document>> cursor;
+
+    // Checkpoint bookkeeping: every event gets a sequence number; a token is safe to persist once
+    // no event with a lower or equal sequence number is still in flight
+    private final ConcurrentSkipListMap<Long, BsonDocument> resumeTokens = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListSet<Long> inFlight = new ConcurrentSkipListSet<>();
+    private volatile long lastSequence;
+    private volatile BsonDocument lastSeenToken;
+    private volatile long lastCheckpointedSequence;
+
+    private final AtomicLong processedCount = new AtomicLong();
+    private final AtomicLong deadLetteredCount = new AtomicLong();
+    private volatile long lagMillis;
+    private final Timer lagTimer;
+    private final LogSampler logSampler;
 
     @Autowired
+    @SuppressWarnings("unchecked")
     public TransactionChangeStreamListener(
             MongoCollection<Document> transactionCollection,
-            TransactionVectorSearchService vectorSearchService) {
+            MongoDatabase fraudDatabase,
+            TransactionVectorSearchService vectorSearchService,
+            CustomerProfileCache profileCache,
+            VelocityStore velocityStore,
+            FraudDecisionSink decisionSink,
+            DuplicateFilter duplicateFilter,
+            @Value("${fraud.changestream.workers:4}") int workers,
+            @Value("${fraud.changestream.queue-capacity:1000}") int queueCapacity,
+            @Value("${fraud.changestream.fields:transactionId,userId,amount,currency,timestamp,merchant,category,isFraud,scoredBy,embedding}") List<String> fields,
+            @Value("${fraud.changestream.skip-kafka-scored:false}") boolean skipKafkaScored,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            @Value("${fraud.logging.transaction-sample-rate:0.01}") double logSampleRate,
+            @Value("${fraud.changestream.retry.max-attempts:3}") int maxAttempts,
+            @Value("${fraud.changestream.retry.backoff-ms:200}") long backoffMs,
+            MeterRegistry meterRegistry) {
         this.transactionCollection = transactionCollection;
+        this.resumeTokenCollection = fraudDatabase.getCollection(RESUME_TOKENS_COLLECTION);
+        this.deadLetterCollection = fraudDatabase.getCollection(DEAD_LETTER_COLLECTION);
         this.vectorSearchService = vectorSearchService;
-        this.executorService = Executors.newSingleThreadExecutor();
+        this.profileCache = profileCache;
+        this.velocityStore = velocityStore;
+        this.decisionSink = decisionSink;
+        this.duplicateFilter = duplicateFilter;
+        this.pipeline = buildPipeline(fields, skipKafkaScored);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMs = backoffMs;
+        this.readerExecutor = Executors.newSingleThreadExecutor(namedThreads("change-stream-reader", virtualThreads));
+        this.workerExecutor = Executors.newFixedThreadPool(workers, namedThreads("change-stream-worker", virtualThreads));
+        this.workerQueues = new BlockingQueue[workers];
+        for (int i = 0; i < workers; i++) {
+            workerQueues[i] = new ArrayBlockingQueue<>(queueCapacity);
+        }
+        this.logSampler = new LogSampler(logSampleRate);
+        this.lagTimer = Timer.builder("fraud.changestream.lag")
+                .description("Cluster time of an insert to the end of its scoring")
+                .register(meterRegistry);
+        Gauge.builder("fraud.changestream.queue.depth", this, TransactionChangeStreamListener::getQueueDepth)
+                .description("Change events waiting in the worker queues")
+                .register(meterRegistry);
+        FunctionCounter.builder("fraud.changestream.processed", processedCount, AtomicLong::get)
+                .description("Change events scored")
+                .register(meterRegistry);
+        FunctionCounter.builder("fraud.changestream.dead-lettered", deadLetteredCount, AtomicLong::get)
+                .description("Change events written to the dead-letter collection after failing every attempt")
+                .register(meterRegistry);
     }
 
     @PostConstruct
     public void startListening() {
-        logger.info("Starting transaction change stream listener");
-        executorService.submit(this::listenForChanges);
+        logger.info("Starting transaction change stream listener with {} workers", workerQueues.length);
+        for (BlockingQueue<ChangeEvent> queue : workerQueues) {
+            workerExecutor.submit(() -> processEvents(queue));
+        }
+        readerExecutor.submit(this::listenForChanges);
     }
 
     @PreDestroy
     public void shutdown() {
         logger.info("Shutting down transaction change stream listener");
         running = false;
-        
-        if (cursor != null) {
+
+        MongoCursor<ChangeStreamDocument<Document>> current = cursor;
+        if (current != null) {
             try {
-                cursor.close();
+                current.close();
             } catch (Exception e) {
                 logger.warn("Error closing MongoDB cursor", e);
             }
         }
 
-        executorService.shutdown();
+        readerExecutor.shutdown();
+        workerExecutor.shutdown();
         try {
-            if (!executorService.awaitTermination(5, TimeUnit.SECONDS)) {
-                executorService.shutdownNow();
+            if (!readerExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                readerExecutor.shutdownNow();
+            }
+            if (!workerExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                workerExecutor.shutdownNow();
             }
         } catch (InterruptedException e) {
-            executorService.shutdownNow();
+            readerExecutor.shutdownNow();
+            workerExecutor.shutdownNow();
             Thread.currentThread().interrupt();
         }
+        checkpoint();
     }
 
-    private void listenForChanges() {
+    /**
+     * Persists the newest resume token that is safe to restart from.
+     */
+    @Scheduled(fixedDelayString = "${fraud.changestream.checkpoint-interval-ms:5000}")
+    public void checkpoint() {
+        // Read the upper bound before the in-flight set: every sequence up to it was registered
+        // as in flight before its token became visible
+        long upper = lastSequence;
+        long oldestInFlight = inFlight.isEmpty() ? Long.MAX_VALUE : inFlight.first();
+        Map.Entry<Long, BsonDocument> safe = resumeTokens.floorEntry(Math.min(upper, oldestInFlight - 1));
+        if (safe == null || safe.getKey() <= lastCheckpointedSequence) {
+            return;
+        }
         try {
-            ChangeStreamIterable<Document> changeStream = transactionCollection.watch();
-            cursor = changeStream.iterator();
+            resumeTokenCollection.replaceOne(
+                    Filters.eq("_id", LISTENER_ID),
+                    new Document("_id", LISTENER_ID)
+                            .append("resumeToken", safe.getValue())
+                            .append("updatedAt", new Date()),
+                    new ReplaceOptions().upsert(true));
+            lastCheckpointedSequence = safe.getKey();
+            resumeTokens.headMap(safe.getKey()).clear();
+            logger.debug("Checkpointed change stream at event {} (queue depth {}, lag {} ms)",
+                    safe.getKey(), getQueueDepth(), lagMillis);
+        } catch (MongoException e) {
+            logger.warn("Failed to persist change stream resume token", e);
+        }
+    }
 
-            while (running && cursor.hasNext()) {
-                try {
-                    ChangeStreamDocument<Document> change = cursor.next();
-                    if (change.getOperationType() == com.mongodb.client.model.changestream.OperationType.INSERT) {
-                        Document fullDocument = change.getFullDocument();
-                        if (fullDocument != null) {
-                            boolean isFraud = vectorSearchService.evaluateTransactionFraud(fullDocument);
-                            logger.info("Transaction {} evaluated as {}", 
-                                fullDocument.getString("transactionId"), 
-                                isFraud ? "FRAUD" : "LEGITIMATE");
-                        }
-                    }
-                } catch (Exception e) {
-                    if (running) {
-                        logger.error("Error processing change stream document", e);
-                    }
+    /**
+     * Events waiting in the worker queues.
+     */
+    public int getQueueDepth() {
+        int depth = 0;
+        for (BlockingQueue<ChangeEvent> queue : workerQueues) {
+            depth += queue.size();
+        }
+        return depth;
+    }
+
+    /**
+     * Milliseconds between the cluster time of the last scored event and when scoring finished.
+     */
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    public long getProcessedCount() {
+        return processedCount.get();
+    }
+
+    private void listenForChanges() {
+        BsonDocument resumeToken = loadResumeToken();
+        while (running) {
+            try {
+                ChangeStreamIterable<Document> changeStream = transactionCollection.watch(pipeline);
+                if (resumeToken != null) {
+                    changeStream = changeStream.resumeAfter(resumeToken);
+                    logger.info("Resuming change stream from stored token");
+                }
+                cursor = changeStream.iterator();
+
+                while (running && cursor.hasNext()) {
+                    dispatch(cursor.next());
                 }
+            } catch (MongoCommandException e) {
+                if (cannotResume(e)) {
+                    logger.warn("Change stream cannot resume from its token (error {}), restarting from now",
+                            e.getErrorCode());
+                    resumeToken = null;
+                    lastSeenToken = null;
+                    continue;
+                }
+                handleStreamFailure(e);
+            } catch (Exception e) {
+                handleStreamFailure(e);
+            } finally {
+                closeCursor();
             }
-        } catch (Exception e) {
-            if (running) {
-                logger.error("Error in change stream listener", e);
+            if (lastSeenToken != null) {
+                resumeToken = lastSeenToken;
             }
-        } finally {
-            if (cursor != null) {
+        }
+    }
+
+    /**
+     * Whether the server refuses to resume from the token: either it has rolled out of the oplog
+     * (ChangeStreamHistoryLost) or the stream cannot continue from it at all (ChangeStreamFatalError).
+     */
+    static boolean cannotResume(MongoCommandException e) {
+        return e.getErrorCode() == CHANGE_STREAM_HISTORY_LOST || e.getErrorCode() == CHANGE_STREAM_FATAL_ERROR;
+    }
+
+    private void dispatch(ChangeStreamDocument<Document> change) throws InterruptedException {
+        long sequence = lastSequence + 1;
+        Document fullDocument = change.getFullDocument();
+        boolean score = change.getOperationType() == OperationType.INSERT && fullDocument != null;
+        if (score) {
+            inFlight.add(sequence);
+        }
+        resumeTokens.put(sequence, change.getResumeToken());
+        lastSequence = sequence;
+        lastSeenToken = change.getResumeToken();
+
+        if (score) {
+            BlockingQueue<ChangeEvent> queue = workerQueues[partition(fullDocument.getString("userId"))];
+            queue.put(new ChangeEvent(sequence, fullDocument, change.getClusterTime()));
+        }
+    }
+
+    private void processEvents(BlockingQueue<ChangeEvent> queue) {
+        while (running || !queue.isEmpty()) {
+            ChangeEvent event;
+            try {
+                event = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (event == null) {
+                continue;
+            }
+            if (handle(event)) {
+                inFlight.remove(event.sequence());
+            }
+            if (event.clusterTime() != null) {
+                lagMillis = System.currentTimeMillis() - event.clusterTime().getTime() * 1000L;
+                lagTimer.record(Math.max(0, lagMillis), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Scores one event, retrying failures with doubling backoff. Returns whether the event is done
+     * with: scored, skipped as a duplicate or dead-lettered.
+     */
+    private boolean handle(ChangeEvent event) {
+        Document fullDocument = event.document();
+        String transactionId = fullDocument.getString("transactionId");
+        if (duplicateFilter.isDuplicate(transactionId)) {
+            logger.debug("Skipping already scored transaction {}", transactionId);
+            processedCount.incrementAndGet();
+            return true;
+        }
+        try {
+            for (int attempt = 1; ; attempt++) {
                 try {
-                    cursor.close();
+                    score(fullDocument);
+                    processedCount.incrementAndGet();
+                    return true;
                 } catch (Exception e) {
-                    logger.warn("Error closing MongoDB cursor in finally block", e);
+                    if (attempt >= maxAttempts) {
+                        return deadLetter(event, attempt, e);
+                    }
+                    long delayMs = backoffMs << (attempt - 1);
+                    logger.warn("Failed to score change stream transaction {} (attempt {} of {}); retrying in {} ms",
+                        transactionId, attempt, maxAttempts, delayMs, e);
+                    Thread.sleep(delayMs);
                 }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            duplicateFilter.release(transactionId);
+        }
+    }
+
+    private void score(Document fullDocument) {
+        FraudDecision decision = vectorSearchService.evaluate(fullDocument);
+        boolean isFraud = decision.fraud();
+        vectorSearchService.indexTransaction(fullDocument);
+        // The Kafka consumers already recorded decisions for their own transactions and fed
+        // them into the profiles and velocity windows
+        if (!TransactionDocuments.SCORED_BY_KAFKA.equals(fullDocument.getString("scoredBy"))) {
+            decisionSink.record(decision, DECISION_SOURCE);
+            Number amount = fullDocument.get("amount", Number.class);
+            Number timestamp = fullDocument.get("timestamp", Number.class);
+            String userId = fullDocument.getString("userId");
+            double amountValue = amount != null ? amount.doubleValue() : 0.0;
+            profileCache.recordTransaction(userId, amountValue, isFraud);
+            velocityStore.record(userId, timestamp != null ? timestamp.longValue() : 0L, amountValue,
+                    parseMerchant(fullDocument.getString("merchant")));
+        }
+        if (logSampler.sample()) {
+            logger.info("Transaction {} evaluated as {} (score {}, {} us)",
+                fullDocument.getString("transactionId"),
+                isFraud ? "FRAUD" : "LEGITIMATE", decision.score(), decision.latencyNanos() / 1_000);
+        }
+    }
+
+    /**
+     * Stores an event that failed every attempt. Returns false if that fails as well, leaving the
+     * event in flight.
+     */
+    private boolean deadLetter(ChangeEvent event, int attempts, Exception failure) {
+        String transactionId = event.document().getString("transactionId");
+        try {
+            deadLetterCollection.insertOne(new Document("transactionId", transactionId)
+                    .append("document", event.document())
+                    .append("error", String.valueOf(failure))
+                    .append("attempts", attempts)
+                    .append("failedAt", new Date()));
+            deadLetteredCount.incrementAndGet();
+            logger.error("Failed to score change stream transaction {} after {} attempts; written to {}",
+                    transactionId, attempts, DEAD_LETTER_COLLECTION, failure);
+            return true;
+        } catch (MongoException e) {
+            logger.error("Failed to score change stream transaction {} and to dead-letter it; "
+                    + "checkpoints stay before it until restart", transactionId, e);
+            return false;
+        }
+    }
+
+    /**
+     * Matches only inserts (optionally only those the Kafka consumers did not score) and trims the
+     * full document to the fields the scorer reads. {@code _id} stays in, as it is the resume token.
+     */
+    private static List<Bson> buildPipeline(List<String> fields, boolean skipKafkaScored) {
+        Bson match = Filters.eq("operationType", "insert");
+        if (skipKafkaScored) {
+            match = Filters.and(match, Filters.ne("fullDocument.scoredBy", TransactionDocuments.SCORED_BY_KAFKA));
+        }
+        List<String> included = new ArrayList<>(List.of("operationType", "clusterTime", "documentKey"));
+        for (String field : fields) {
+            included.add("fullDocument." + field.trim());
+        }
+        return List.of(Aggregates.match(match), Aggregates.project(Projections.include(included)));
+    }
+
+    private static Merchant parseMerchant(String name) {
+        if (name == null) {
+            return null;
+        }
+        try {
+            return Merchant.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            return null;
         }
     }
-}
\ No newline at end of file
+
+    private int partition(String userId) {
+        return userId == null ? 0 : Math.floorMod(userId.hashCode(), workerQueues.length);
+    }
+
+    private BsonDocument loadResumeToken() {
+        try {
+            BsonDocument stored = resumeTokenCollection.withDocumentClass(BsonDocument.class)
+                    .find(Filters.eq("_id", LISTENER_ID))
+                    .first();
+            return stored == null ? null : stored.getDocument("resumeToken");
+        } catch (MongoException e) {
+            logger.warn("Could not load change stream resume token, starting from now", e);
+            return null;
+        }
+    }
+
+    private void handleStreamFailure(Exception e) {
+        if (!running) {
+            return;
+        }
+        logger.error("Error in change stream listener, reconnecting in {} ms", RECONNECT_BACKOFF_MS, e);
+        try {
+            Thread.sleep(RECONNECT_BACKOFF_MS);
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private void closeCursor() {
+        MongoCursor<ChangeStreamDocument<Document>> current = cursor;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (Exception e) {
+                logger.warn("Error closing MongoDB cursor in finally block", e);
+            }
+        }
+    }
+
+    private static ThreadFactory namedThreads(String prefix, boolean virtual) {
+        if (virtual) {
+            // Workers still own one queue each, so per-user ordering is unchanged
+            return Thread.ofVirtual().name(prefix + "-", 1).factory();
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private record ChangeEvent(long sequence, Document document, BsonTimestamp clusterTime) {
+    }
+}
@@ -1,59 +1,116 @@
 package frauddetector.service;  
   
+import frauddetector.dedupe.DuplicateFilter;  
+import frauddetector.decision.FraudDecisionSink;  
+import frauddetector.metrics.LogSampler;  
 import frauddetector.model.Transaction;  
+import frauddetector.profile.CustomerProfileCache;  
 import frauddetector.repository.TransactionRepository;  
+import frauddetector.velocity.VelocityStore;  
+import io.micrometer.core.instrument.MeterRegistry;  
+import io.micrometer.core.instrument.Timer;  
 import org.bson.Document;  
 import org.slf4j.Logger;  
 import org.slf4j.LoggerFactory;  
 import org.springframework.beans.factory.annotation.Autowired;  
+import org.springframework.beans.factory.annotation.Value;  
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;  
+import org.springframework.dao.DuplicateKeyException;  
 import org.springframework.kafka.annotation.KafkaListener;  
 import org.springframework.stereotype.Service;  
   
+import java.util.concurrent.TimeUnit;  
+  
 @Service  
+@ConditionalOnProperty(name = "fraud.consumer.mode", havingValue = "single", matchIfMissing = true)  
 public class TransactionConsumer {  
   
     private static final Logger logger = LoggerFactory.getLogger(TransactionConsumer.class);  
   
     private final TransactionRepository transactionRepository;  
     private final TransactionVectorSearchService vectorSearchService;  
+    private final CustomerProfileCache profileCache;  
+    private final VelocityStore velocityStore;  
+    private final FraudDecisionSink decisionSink;  
+    private final DuplicateFilter duplicateFilter;  
+    private final Timer saveTimer;  
+    private final LogSampler logSampler;  
   
     @Autowired  
     public TransactionConsumer(TransactionRepository transactionRepository,  
-                             TransactionVectorSearchService vectorSearchService) {  
+                             TransactionVectorSearchService vectorSearchService,  
+                             CustomerProfileCache profileCache,  
+                             VelocityStore velocityStore,  
+                             FraudDecisionSink decisionSink,  
+                             DuplicateFilter duplicateFilter,  
+                             MeterRegistry meterRegistry,  
+                             @Value("${fraud.logging.transaction-sample-rate:0.01}") double logSampleRate) {  
         this.transactionRepository = transactionRepository;  
         this.vectorSearchService = vectorSearchService;  
+        this.profileCache = profileCache;  
+        this.velocityStore = velocityStore;  
+        this.decisionSink = decisionSink;  
+        this.duplicateFilter = duplicateFilter;  
+        this.saveTimer = Timer.builder("fraud.mongo.save")  
+            .description("Saving a scored transaction")  
+            .tag("consumer", "single")  
+            .register(meterRegistry);  
+        this.logSampler = new LogSampler(logSampleRate);  
     }  
   
     @KafkaListener(topics = "transactions", groupId = "fraud-detection-group")  
     public void consumeTransaction(Transaction transaction) {  
-        logger.info("Received transaction: {} - Amount: {} {} - Merchant: {} - Category: {}",  
+        logger.debug("Received transaction: {} - Amount: {} {} - Merchant: {} - Category: {}",  
             transaction.getTransactionId(),  
             transaction.getAmount(),  
             transaction.getCurrency(),  
             transaction.getMerchant(),  
             transaction.getCategory());  
   
-        // Save transaction to MongoDB  
-        Transaction savedTransaction = transactionRepository.save(transaction);  
-        logger.info("Saved transaction to MongoDB with ID: {}", savedTransaction.getId());  
+        if (duplicateFilter.isDuplicate(transaction.getTransactionId())) {  
+            logger.debug("Skipping already scored transaction {}", transaction.getTransactionId());  
+            return;  
+        }  
+  
+        try {  
+            score(transaction);  
+        } finally {  
+            // The decision is in the sink by now, which answers later duplicate checks  
+            duplicateFilter.release(transaction.getTransactionId());  
+        }  
+    }  
   
+    private void score(Transaction transaction) {  
         // Convert Transaction to Document for vector search  
-        Document transactionDoc = new Document()  
-            .append("transactionId", transaction.getTransactionId())  
-            .append("userId", transaction.getUserId())  
-            .append("amount", transaction.getAmount())  
-            .append("currency", transaction.getCurrency().toString())  
-            .append("timestamp", transaction.getTimestamp())  
-            .append("merchant", transaction.getMerchant().toString())  
-            .append("category", transaction.getCategory().toString())  
-            .append("isFraud", transaction.isFraud())  
-            .append("embedding", transaction.getEmbedding());  
-  
-        // Evaluate transaction for fraud  
-        boolean isFraud = vectorSearchService.evaluateTransactionFraud(transactionDoc);  
+        Document transactionDoc = TransactionDocuments.toScoringDocument(transaction);  
+  
+        // Evaluate transaction for fraud, then save it once with the final flag  
+        FraudDecision decision = vectorSearchService.evaluate(transactionDoc);  
+        boolean isFraud = decision.fraud();  
         transaction.setFraud(isFraud);  
-        transactionRepository.save(transaction);  
+        transaction.setScoredBy(TransactionDocuments.SCORED_BY_KAFKA);  
+        long saveStart = System.nanoTime();  
+        try {  
+            Transaction savedTransaction = transactionRepository.save(transaction);  
+            logger.debug("Saved transaction to MongoDB with ID: {}", savedTransaction.getId());  
+        } catch (DuplicateKeyException e) {  
+            // Stored by an earlier delivery that was not acknowledged; its state updates already happened  
+            logger.debug("Transaction {} already stored", transaction.getTransactionId());  
+            decisionSink.record(decision, TransactionDocuments.SCORED_BY_KAFKA);  
+            return;  
+        } finally {  
+            saveTimer.record(System.nanoTime() - saveStart, TimeUnit.NANOSECONDS);  
+        }  
+        decisionSink.record(decision, TransactionDocuments.SCORED_BY_KAFKA);  
+        transactionDoc.put("isFraud", isFraud);  
+        vectorSearchService.indexScoredTransaction(transactionDoc);  
+        profileCache.recordTransaction(transaction.getUserId(), transaction.getAmount(), isFraud);  
+        velocityStore.record(transaction.getUserId(), transaction.getTimestamp(), transaction.getAmount(),  
+            transaction.getMerchant());  
   
-        logger.info("Transaction {} evaluated as {}", transaction.getTransactionId(), isFraud ? "FRAUD" : "LEGITIMATE");  
+        if (logSampler.sample()) {  
+            logger.info("Transaction {} evaluated as {} (score {}, {} us)", transaction.getTransactionId(),  
+                isFraud ? "FRAUD" : "LEGITIMATE", decision.score(), decision.latencyNanos() / 1_000);  
+        }  
     }  
 }
\ No newline at end of file
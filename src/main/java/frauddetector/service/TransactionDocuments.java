@@ -0,0 +1,32 @@
+package frauddetector.service;
+
+import frauddetector.model.Transaction;
+import org.bson.Document;
+
+/**
+ * Builds the {@link Document} view of a {@link Transaction} that the fraud scorer works on.
+ */
+public final class TransactionDocuments {
+
+    /**
+     * {@code scoredBy} value for transactions the Kafka consumers score themselves; the change stream
+     * listener can be configured to skip them.
+     */
+    public static final String SCORED_BY_KAFKA = "kafka";
+
+    private TransactionDocuments() {
+    }
+
+    public static Document toScoringDocument(Transaction transaction) {
+        return new Document()
+            .append("transactionId", transaction.getTransactionId())
+            .append("userId", transaction.getUserId())
+            .append("amount", transaction.getAmount())
+            .append("currency", transaction.getCurrency().toString())
+            .append("timestamp", transaction.getTimestamp())
+            .append("merchant", transaction.getMerchant().toString())
+            .append("category", transaction.getCategory().toString())
+            .append("isFraud", transaction.isFraud())
+            .append("embedding", transaction.getEmbedding());
+    }
+}
@@ -1,34 +1,47 @@
 package frauddetector.service;  
   
+import frauddetector.loadgen.LatencyHeaders;  
+import frauddetector.metrics.LogSampler;  
 import frauddetector.model.Customer;  
 import frauddetector.model.Transaction;  
 import frauddetector.repository.CustomerRepository;  
 import jakarta.annotation.PostConstruct;  
+import org.apache.kafka.clients.producer.ProducerRecord;  
 import org.slf4j.Logger;  
 import org.slf4j.LoggerFactory;  
 import org.springframework.beans.factory.annotation.Autowired;  
+import org.springframework.beans.factory.annotation.Value;  
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;  
+import org.springframework.context.event.EventListener;  
 import org.springframework.kafka.core.KafkaTemplate;  
 import org.springframework.scheduling.annotation.Scheduled;  
 import org.springframework.stereotype.Service;  
 import java.util.List;  
-import java.util.Random;  
+import java.util.concurrent.ThreadLocalRandom;  
   
+/**  
+ * Default "trickle" producer: one transaction every 5 seconds. See  
+ * {@link frauddetector.loadgen.LoadGenerator} for capacity testing ({@code fraud.producer.mode=load}).  
+ */  
 @Service  
+@ConditionalOnProperty(name = "fraud.producer.mode", havingValue = "trickle", matchIfMissing = true)  
 public class TransactionProducer {  
     private static final Logger logger = LoggerFactory.getLogger(TransactionProducer.class);  
   
     private static final String TOPIC = "transactions";  
     private final EmbeddingGenerator embeddingGenerator;  
     private final KafkaTemplate<String, Transaction> kafkaTemplate;  
-    private List<Customer> cachedCustomers;  
-    private final Random random = new Random();  
+    private volatile List<Customer> cachedCustomers;  
     private final CustomerRepository customerRepository;  
+    private final LogSampler logSampler;  
   
     @Autowired  
-    public TransactionProducer(KafkaTemplate<String, Transaction> kafkaTemplate, EmbeddingGenerator embeddingGenerator, CustomerRepository customerRepository) {  
+    public TransactionProducer(KafkaTemplate<String, Transaction> kafkaTemplate, EmbeddingGenerator embeddingGenerator, CustomerRepository customerRepository,  
+                               @Value("${fraud.logging.transaction-sample-rate:0.01}") double logSampleRate) {  
         this.kafkaTemplate = kafkaTemplate;  
         this.embeddingGenerator = embeddingGenerator;  
         this.customerRepository = customerRepository;  
+        this.logSampler = new LogSampler(logSampleRate);  
         refreshCustomerCache();  
     }
     @PostConstruct  
@@ -45,31 +58,39 @@ public class TransactionProducer {
             logger.warn("No customers available for transaction generation");  
             return;  
         }  
-        Customer randomCustomer = cachedCustomers.get(random.nextInt(cachedCustomers.size()));  
+        Customer randomCustomer = cachedCustomers.get(ThreadLocalRandom.current().nextInt(cachedCustomers.size()));  
         Transaction transaction = Transaction.generateRandomTransaction(randomCustomer);  
         
         // Generate embedding for the transaction  
         float[] embedding = embeddingGenerator.generateEmbedding(transaction);  
         transaction.setEmbedding(embedding);  
   
-        logger.info("Generated transaction: ID={}, Amount={}, Currency={}, Merchant={}, Category={}",  
-            transaction.getTransactionId(),  
-            transaction.getAmount(),  
-            transaction.getCurrency(),  
-            transaction.getMerchant(),  
-            transaction.getCategory());  
+        if (logSampler.sample()) {  
+            logger.info("Generated transaction: ID={}, Amount={}, Currency={}, Merchant={}, Category={}",  
+                transaction.getTransactionId(),  
+                transaction.getAmount(),  
+                transaction.getCurrency(),  
+                transaction.getMerchant(),  
+                transaction.getCategory());  
+        }  
   
-        kafkaTemplate.send(TOPIC, transaction.getTransactionId(), transaction)  
+        ProducerRecord<String, Transaction> record = new ProducerRecord<>(TOPIC, transaction.getTransactionId(), transaction);  
+        LatencyHeaders.stamp(record.headers(), LatencyHeaders.nowMicros());  
+        kafkaTemplate.send(record)  
             .whenComplete((result, ex) -> {  
                 if (ex == null) {  
-                    logger.info("Transaction sent successfully: {}", transaction.getTransactionId());  
+                    logger.debug("Transaction sent successfully: {}", transaction.getTransactionId());  
                 } else {  
                     logger.error("Failed to send transaction: {}", transaction.getTransactionId(), ex);  
                 }  
             });  
     }  
   
-    private void refreshCustomerCache() {  
+    /**  
+     * Customers are seeded in the background, so the list read at construction may still be empty.  
+     */  
+    @EventListener(CustomersSeededEvent.class)  
+    public void refreshCustomerCache() {  
         cachedCustomers = customerRepository.findAll();  
         logger.info("Cached {} customers for transaction generation", cachedCustomers.size());  
     }  
@@ -1,20 +1,49 @@
 package frauddetector.service;
 
+import com.mongodb.MongoException;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.Aggregates;
-import com.mongodb.client.model.Filters;
-import com.mongodb.client.model.Updates;
-import com.mongodb.client.model.search.VectorSearchOptions;
+import com.mongodb.client.model.Projections;
+import frauddetector.model.Transaction;
+import frauddetector.profile.CustomerProfile;
+import frauddetector.profile.CustomerProfileCache;
+import frauddetector.rules.FastPathDecision;
+import frauddetector.rules.FastPathScorer;
+import frauddetector.scoring.EnsembleResult;
+import frauddetector.scoring.EnsembleScorer;
+import frauddetector.scoring.EnsembleSettings;
+import frauddetector.scoring.MerchantNoveltySignal;
+import frauddetector.scoring.NeighbourVoteSignal;
+import frauddetector.scoring.ProfileDeviationSignal;
+import frauddetector.scoring.ScoringContext;
+import frauddetector.scoring.VelocitySignal;
+import frauddetector.search.Embeddings;
+import frauddetector.search.Neighbor;
+import frauddetector.search.VectorIndex;
+import frauddetector.velocity.VelocityFeatures;
+import frauddetector.velocity.VelocityStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import org.bson.Document;
-import org.bson.conversions.Bson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 import static com.mongodb.client.model.search.SearchPath.fieldPath;
 
@@ -22,54 +51,285 @@ import static com.mongodb.client.model.search.SearchPath.fieldPath;
 public class TransactionVectorSearchService {
     private static final Logger logger = LoggerFactory.getLogger(TransactionVectorSearchService.class);
 
+    public static final String VECTOR_INDEX_NAME = "vector_index"; // Created by IndexBootstrapper
+    private static final String STRATEGY_MONGO = "mongo";
+
     private final MongoCollection<Document> transactionCollection;
-    private static final String VECTOR_INDEX_NAME = "vector_index"; // Ensure this matches your Atlas index name
-    private static final int SEARCH_LIMIT = 5; // Number of similar transactions to retrieve
-    private static final int NUM_CANDIDATES = 50; // Number of approximate neighbors to consider
+    private final VectorIndex vectorIndex;
+    private final CustomerProfileCache profileCache;
+    private final FastPathScorer fastPathScorer;
+    private final VelocityStore velocityStore;
+    private final boolean useMongoSearch;
+    private final int searchLimit; // Number of similar transactions to retrieve
+    private final int numCandidates; // Number of approximate neighbors to consider
+    private final double compareSampleRate;
+    private final ExecutorService evaluationExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final EnsembleScorer ensembleScorer;
+    private final Timer searchTimer;
+    private final Counter mismatchedEmbeddings;
+    private volatile boolean mismatchLogged;
+    // Indexed by [ensemble ? 1 : 0][fraud ? 1 : 0]
+    private final Timer[][] decisionTimers = new Timer[2][2];
 
     @Autowired
-    public TransactionVectorSearchService(MongoCollection<Document> transactionCollection) {
+    public TransactionVectorSearchService(
+            MongoCollection<Document> transactionCollection,
+            VectorIndex vectorIndex,
+            CustomerProfileCache profileCache,
+            FastPathScorer fastPathScorer,
+            VelocityStore velocityStore,
+            MeterRegistry meterRegistry,
+            EnsembleSettings ensembleSettings,
+            @Value("${fraud.search.strategy:hnsw}") String strategy,
+            @Value("${fraud.search.limit:5}") int searchLimit,
+            @Value("${fraud.search.num-candidates:50}") int numCandidates,
+            @Value("${fraud.search.compare-sample-rate:0}") double compareSampleRate) {
         this.transactionCollection = transactionCollection;
+        this.vectorIndex = vectorIndex;
+        this.profileCache = profileCache;
+        this.fastPathScorer = fastPathScorer;
+        this.velocityStore = velocityStore;
+        this.useMongoSearch = STRATEGY_MONGO.equalsIgnoreCase(strategy);
+        this.searchLimit = searchLimit;
+        this.numCandidates = numCandidates;
+        this.compareSampleRate = compareSampleRate;
+        this.searchTimer = Timer.builder("fraud.search")
+                .description("Similarity search for one transaction")
+                .tag("strategy", strategy)
+                .register(meterRegistry);
+        this.mismatchedEmbeddings = Counter.builder("fraud.search.mismatched-embeddings")
+                .description("Embeddings skipped because their length differs from fraud.search.dimensions")
+                .register(meterRegistry);
+        for (int path = 0; path < 2; path++) {
+            for (int outcome = 0; outcome < 2; outcome++) {
+                decisionTimers[path][outcome] = Timer.builder("fraud.decision")
+                        .description("Fraud evaluation of one transaction, rules and ensemble signals included")
+                        .tag("path", path == 1 ? "ensemble" : "fast-path")
+                        .tag("outcome", outcome == 1 ? "fraud" : "legitimate")
+                        .register(meterRegistry);
+            }
+        }
+        this.ensembleScorer = new EnsembleScorer(List.of(
+                new NeighbourVoteSignal(this::findSimilarTransactions),
+                new ProfileDeviationSignal(),
+                new VelocitySignal(),
+                new MerchantNoveltySignal()), ensembleSettings, meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        logger.info("Loading transaction embeddings into the in-memory vector index");
+        long start = System.nanoTime();
+        int loaded = 0;
+        double mismatchedBefore = mismatchedEmbeddings.count();
+        for (Document transaction : transactionCollection.find()
+                .projection(Projections.include("transactionId", "isFraud", "embedding"))
+                .batchSize(1000)) {
+            if (indexTransaction(transaction)) {
+                loaded++;
+            }
+        }
+        logger.info("Indexed {} transactions in {} ms", loaded, (System.nanoTime() - start) / 1_000_000);
+        long mismatched = (long) (mismatchedEmbeddings.count() - mismatchedBefore);
+        if (mismatched > 0) {
+            logger.warn("Skipped {} stored transactions whose embeddings do not have {} dimensions",
+                    mismatched, vectorIndex.dimensions());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        evaluationExecutor.shutdown();
+        ensembleScorer.close();
     }
 
     public boolean evaluateTransactionFraud(Document transaction) {
-        // For demo purposes, implement a simple fraud detection logic
-        // In a real system, this would use vector similarity search
-        
-        logger.info("Evaluating transaction {} for fraud", transaction.getString("transactionId"));
-        
-        // Get similar transactions
-        List<Document> similarTransactions = findSimilarTransactions(transaction);
-        logger.info("Found {} similar transactions", similarTransactions.size());
-        
-        // Simple fraud detection logic:
-        // If more than 50% of similar transactions are marked as fraud,
-        // mark this transaction as fraud
-        long fraudCount = similarTransactions.stream()
-                .filter(tx -> tx.getBoolean("isFraud", false))
+        return evaluate(transaction).fraud();
+    }
+
+    /**
+     * Scores a transaction on a virtual thread, so a caller can keep many evaluations in flight while
+     * each one waits on Atlas Vector Search or re-ranking reads.
+     */
+    public CompletableFuture<FraudDecision> evaluateAsync(Transaction transaction) {
+        Document transactionDoc = TransactionDocuments.toScoringDocument(transaction);
+        return CompletableFuture.supplyAsync(() -> evaluate(transactionDoc), evaluationExecutor);
+    }
+
+    public FraudDecision evaluate(Document transaction) {
+        long start = System.nanoTime();
+        String transactionId = transaction.getString("transactionId");
+        logger.debug("Evaluating transaction {} for fraud", transactionId);
+
+        // Obvious cases are decided from the customer's profile without a similarity search
+        String userId = transaction.getString("userId");
+        CustomerProfile profile = null;
+        VelocityFeatures velocity = VelocityFeatures.EMPTY;
+        if (userId != null) {
+            Number timestamp = transaction.get("timestamp", Number.class);
+            velocity = velocityStore.features(userId, timestamp != null ? timestamp.longValue() : 0L);
+            profile = profileCache.getProfile(userId);
+            FastPathDecision fastPath = fastPathScorer.evaluate(transaction, profile, velocity);
+            if (fastPath != FastPathDecision.UNDECIDED) {
+                logger.debug("Transaction {} decided by fast-path rules as {}",
+                    transactionId,
+                    fastPath == FastPathDecision.REJECT ? "FRAUD" : "LEGITIMATE");
+                boolean rejected = fastPath == FastPathDecision.REJECT;
+                return decided(new FraudDecision(transactionId, userId, rejected, rejected ? 1.0 : 0.0, fastPath,
+                        List.of(rejected ? "fast-path-reject" : "fast-path-accept"), System.nanoTime() - start));
+            }
+        }
+
+        if (compareSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < compareSampleRate) {
+            SearchComparison comparison = compareStrategies(transaction);
+            logger.info("Search comparison for {}: index {} us, mongo {} us, recall {}",
+                transactionId,
+                comparison.indexNanos() / 1_000,
+                comparison.mongoNanos() / 1_000,
+                comparison.recall());
+        }
+
+        // Everything else is scored by the ensemble, the kNN vote among its signals
+        EnsembleResult result = ensembleScorer.score(
+                ScoringContext.of(transaction, profile, velocity, fastPathScorer.getRules()));
+        logger.debug("Transaction {} evaluated as {} (score {}, {})",
+            transactionId,
+            result.fraud() ? "FRAUD" : "LEGITIMATE",
+            result.score(),
+            result.reasons());
+
+        return decided(new FraudDecision(transactionId, userId, result.fraud(), result.score(),
+                FastPathDecision.UNDECIDED, result.reasons(), System.nanoTime() - start));
+    }
+
+    private FraudDecision decided(FraudDecision decision) {
+        decisionTimers[decision.decidedByRules() ? 0 : 1][decision.fraud() ? 1 : 0]
+                .record(decision.latencyNanos(), TimeUnit.NANOSECONDS);
+        return decision;
+    }
+
+    /**
+     * Adds a stored transaction to the in-memory index unless it is already present or its embedding
+     * has the wrong length.
+     */
+    public boolean indexTransaction(Document transaction) {
+        float[] embedding = Embeddings.toFloatArray(transaction.get("embedding"));
+        if (embedding.length == 0 || !matchesIndex(embedding, transaction)) {
+            return false;
+        }
+        return vectorIndex.add(transaction.getString("transactionId"), embedding,
+                transaction.getBoolean("isFraud", false));
+    }
+
+    /**
+     * Indexes a transaction after scoring, overwriting any label indexed before the decision was made.
+     */
+    public void indexScoredTransaction(Document transaction) {
+        if (!indexTransaction(transaction)) {
+            vectorIndex.updateLabel(transaction.getString("transactionId"), transaction.getBoolean("isFraud", false));
+        }
+    }
+
+    /**
+     * Runs the same lookup against the in-memory index and Atlas Vector Search, reporting the latency
+     * of each and the fraction of Atlas results the index also returned.
+     */
+    public SearchComparison compareStrategies(Document transaction) {
+        long start = System.nanoTime();
+        List<Document> indexResults = searchIndex(transaction);
+        long indexNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        List<Document> mongoResults = searchMongo(transaction);
+        long mongoNanos = System.nanoTime() - start;
+
+        Set<String> indexIds = new HashSet<>();
+        indexResults.forEach(doc -> indexIds.add(doc.getString("transactionId")));
+        long matches = mongoResults.stream()
+                .filter(doc -> indexIds.contains(doc.getString("transactionId")))
                 .count();
-        
-        boolean isFraud = (double) fraudCount / similarTransactions.size() > 0.5;
-        logger.info("Transaction {} evaluated as {}", 
-            transaction.getString("transactionId"), 
-            isFraud ? "FRAUD" : "LEGITIMATE");
-        
-        return isFraud;
+        double recall = mongoResults.isEmpty() ? 1.0 : (double) matches / mongoResults.size();
+        return new SearchComparison(indexNanos, mongoNanos, recall);
     }
 
     private List<Document> findSimilarTransactions(Document transaction) {
-        // For demo purposes, return a small subset of transactions
-        // In a real system, this would use vector similarity search
-        return transactionCollection.find()
-                .limit(5)
-                .into(new java.util.ArrayList<>());
+        long start = System.nanoTime();
+        List<Document> similarTransactions = useMongoSearch ? searchMongo(transaction) : searchIndex(transaction);
+        searchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        logger.debug("Found {} similar transactions", similarTransactions.size());
+        return similarTransactions;
+    }
+
+    private List<Document> searchIndex(Document transaction) {
+        float[] embedding = Embeddings.toFloatArray(transaction.get("embedding"));
+        if (embedding.length == 0 || !matchesIndex(embedding, transaction)) {
+            return List.of();
+        }
+        String transactionId = transaction.getString("transactionId");
+        // Ask for one extra hit: the transaction itself may already be indexed
+        List<Neighbor> neighbors = vectorIndex.search(embedding, searchLimit + 1, numCandidates);
+        List<Document> similar = new ArrayList<>(searchLimit);
+        for (Neighbor neighbor : neighbors) {
+            if (similar.size() == searchLimit) {
+                break;
+            }
+            if (!neighbor.transactionId().equals(transactionId)) {
+                similar.add(new Document("transactionId", neighbor.transactionId())
+                        .append("isFraud", neighbor.fraud())
+                        .append("score", neighbor.score()));
+            }
+        }
+        return similar;
+    }
+
+    /**
+     * Counts an embedding of the wrong length instead of letting the index throw, warning on the first
+     * one; such embeddings come from a model other than the one the index was sized for.
+     */
+    private boolean matchesIndex(float[] embedding, Document transaction) {
+        if (embedding.length == vectorIndex.dimensions()) {
+            return true;
+        }
+        mismatchedEmbeddings.increment();
+        if (!mismatchLogged) {
+            mismatchLogged = true;
+            logger.warn("Transaction {} has a {}-dimensional embedding but the index expects {}; "
+                            + "such embeddings are skipped and counted in fraud.search.mismatched-embeddings",
+                    transaction.getString("transactionId"), embedding.length, vectorIndex.dimensions());
+        } else {
+            logger.debug("Skipping {}-dimensional embedding of transaction {}",
+                    embedding.length, transaction.getString("transactionId"));
+        }
+        return false;
+    }
+
+    private List<Document> searchMongo(Document transaction) {
+        float[] embedding = Embeddings.toFloatArray(transaction.get("embedding"));
+        if (embedding.length == 0) {
+            return List.of();
+        }
+        String transactionId = transaction.getString("transactionId");
+        try {
+            List<Document> results = transactionCollection.aggregate(List.of(
+                    Aggregates.vectorSearch(
+                            fieldPath("embedding"),
+                            Embeddings.toDoubleList(embedding),
+                            VECTOR_INDEX_NAME,
+                            numCandidates,
+                            searchLimit + 1),
+                    Aggregates.project(Projections.fields(
+                            Projections.excludeId(),
+                            Projections.include("transactionId", "isFraud"),
+                            Projections.metaVectorSearchScore("score")))
+            )).into(new ArrayList<>());
+            results.removeIf(doc -> transactionId != null && transactionId.equals(doc.getString("transactionId")));
+            return results.size() > searchLimit ? results.subList(0, searchLimit) : results;
+        } catch (MongoException e) {
+            logger.warn("Atlas vector search failed for transaction {}", transactionId, e);
+            return List.of();
+        }
     }
 
-    private void markTransactionAsFraud(String transactionId) {
-        transactionCollection.updateOne(
-                Filters.eq("transactionId", transactionId),
-                Updates.set("isFraud", true)
-        );
-        logger.info("Transaction marked as fraud: {}", transactionId);
+    public record SearchComparison(long indexNanos, long mongoNanos, double recall) {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,88 @@
+package frauddetector.velocity;
+
+/**
+ * Sliding window made of {@code buckets} fixed-width time buckets in primitive ring buffers, with
+ * running totals so that reads are O(1). Advancing the window clears at most {@code buckets}
+ * slots. Events older than the window are dropped; late events inside it land in their bucket.
+ * Not thread-safe.
+ */
+final class BucketRing {
+
+    private final long bucketMillis;
+    private final int[] counts;
+    private final double[] amounts;
+    private final long[] merchantMasks;
+    private long headBucket = Long.MIN_VALUE;
+    private int totalCount;
+    private double totalAmount;
+
+    BucketRing(long bucketMillis, int buckets, boolean trackMerchants) {
+        this.bucketMillis = bucketMillis;
+        this.counts = new int[buckets];
+        this.amounts = new double[buckets];
+        this.merchantMasks = trackMerchants ? new long[buckets] : null;
+    }
+
+    void add(long timestampMillis, double amount, long merchantBit) {
+        long bucket = Math.floorDiv(timestampMillis, bucketMillis);
+        if (headBucket == Long.MIN_VALUE) {
+            headBucket = bucket;
+        } else if (bucket > headBucket) {
+            advanceTo(bucket);
+        } else if (bucket <= headBucket - counts.length) {
+            return;
+        }
+        int slot = (int) Math.floorMod(bucket, (long) counts.length);
+        counts[slot]++;
+        amounts[slot] += amount;
+        if (merchantMasks != null) {
+            merchantMasks[slot] |= merchantBit;
+        }
+        totalCount++;
+        totalAmount += amount;
+    }
+
+    /**
+     * Slides the window so that it ends at {@code timestampMillis}.
+     */
+    void advance(long timestampMillis) {
+        long bucket = Math.floorDiv(timestampMillis, bucketMillis);
+        if (headBucket != Long.MIN_VALUE && bucket > headBucket) {
+            advanceTo(bucket);
+        }
+    }
+
+    int count() {
+        return totalCount;
+    }
+
+    double amount() {
+        return totalAmount;
+    }
+
+    int distinctMerchants() {
+        long union = 0L;
+        for (long mask : merchantMasks) {
+            union |= mask;
+        }
+        return Long.bitCount(union);
+    }
+
+    private void advanceTo(long bucket) {
+        long steps = Math.min(bucket - headBucket, counts.length);
+        for (long i = 1; i <= steps; i++) {
+            int slot = (int) Math.floorMod(headBucket + i, (long) counts.length);
+            totalCount -= counts[slot];
+            totalAmount -= amounts[slot];
+            counts[slot] = 0;
+            amounts[slot] = 0.0;
+            if (merchantMasks != null) {
+                merchantMasks[slot] = 0L;
+            }
+        }
+        if (totalCount == 0) {
+            totalAmount = 0.0; // drop accumulated rounding error
+        }
+        headBucket = bucket;
+    }
+}
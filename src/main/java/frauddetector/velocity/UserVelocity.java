@@ -0,0 +1,46 @@
+package frauddetector.velocity;
+
+import frauddetector.enums.Merchant;
+
+/**
+ * Velocity windows of one user: the last minute in 5 s buckets, the last hour in 5 min buckets
+ * and the last 24 h in 1 h buckets, the latter also tracking which merchants were used as a
+ * bitmask of {@link Merchant} ordinals. About 600 bytes of primitive arrays per user.
+ */
+final class UserVelocity {
+
+    static {
+        if (Merchant.values().length > Long.SIZE) {
+            throw new IllegalStateException("Merchant masks need one bit per merchant");
+        }
+    }
+
+    private final BucketRing lastMinute = new BucketRing(5_000L, 12, false);
+    private final BucketRing lastHour = new BucketRing(300_000L, 12, false);
+    private final BucketRing lastDay = new BucketRing(3_600_000L, 24, true);
+    private volatile long lastAccessMillis;
+
+    synchronized void record(long timestampMillis, double amount, Merchant merchant) {
+        long merchantBit = merchant != null ? 1L << merchant.ordinal() : 0L;
+        lastMinute.add(timestampMillis, amount, 0L);
+        lastHour.add(timestampMillis, amount, 0L);
+        lastDay.add(timestampMillis, amount, merchantBit);
+    }
+
+    synchronized VelocityFeatures features(long atMillis) {
+        lastMinute.advance(atMillis);
+        lastHour.advance(atMillis);
+        lastDay.advance(atMillis);
+        return new VelocityFeatures(lastMinute.count(), lastMinute.amount(),
+                lastHour.count(), lastHour.amount(),
+                lastDay.count(), lastDay.distinctMerchants());
+    }
+
+    long getLastAccessMillis() {
+        return lastAccessMillis;
+    }
+
+    void touch(long nowMillis) {
+        lastAccessMillis = nowMillis;
+    }
+}
@@ -0,0 +1,15 @@
+package frauddetector.velocity;
+
+/**
+ * Windowed aggregates of one user's transactions, ending at the time they were read.
+ */
+public record VelocityFeatures(
+        int count1m,
+        double amount1m,
+        int count1h,
+        double amount1h,
+        int count24h,
+        int distinctMerchants24h) {
+
+    public static final VelocityFeatures EMPTY = new VelocityFeatures(0, 0.0, 0, 0.0, 0, 0);
+}
@@ -0,0 +1,101 @@
+package frauddetector.velocity;
+
+import frauddetector.enums.Merchant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-{@code userId} sliding-window velocity aggregates, updated from each consumed transaction's
+ * own timestamp and read by the fast-path rules.
+ * <p>
+ * Bounded to {@code fraud.velocity.max-users} users in access order; users not seen for
+ * {@code fraud.velocity.idle-expiry-ms} are dropped in the background. Both the map and each
+ * user's windows are guarded by short {@code synchronized} sections; lookups are O(1).
+ */
+@Service
+public class VelocityStore {
+    private static final Logger logger = LoggerFactory.getLogger(VelocityStore.class);
+
+    private final int maxUsers;
+    private final long idleExpiryMillis;
+    private final Map<String, UserVelocity> users;
+
+    @Autowired
+    public VelocityStore(@Value("${fraud.velocity.max-users:100000}") int maxUsers,
+                         @Value("${fraud.velocity.idle-expiry-ms:86400000}") long idleExpiryMillis) {
+        this.maxUsers = maxUsers;
+        this.idleExpiryMillis = idleExpiryMillis;
+        this.users = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, UserVelocity> eldest) {
+                return size() > VelocityStore.this.maxUsers;
+            }
+        };
+    }
+
+    public void record(String userId, long timestampMillis, double amount, Merchant merchant) {
+        if (userId == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        UserVelocity velocity;
+        synchronized (users) {
+            velocity = users.computeIfAbsent(userId, id -> new UserVelocity());
+        }
+        velocity.touch(now);
+        velocity.record(timestampMillis > 0 ? timestampMillis : now, amount, merchant);
+    }
+
+    /**
+     * Aggregates of the user's recorded transactions in the windows ending at {@code atMillis}.
+     */
+    public VelocityFeatures features(String userId, long atMillis) {
+        if (userId == null) {
+            return VelocityFeatures.EMPTY;
+        }
+        UserVelocity velocity;
+        synchronized (users) {
+            velocity = users.get(userId);
+        }
+        if (velocity == null) {
+            return VelocityFeatures.EMPTY;
+        }
+        long now = System.currentTimeMillis();
+        velocity.touch(now);
+        return velocity.features(atMillis > 0 ? atMillis : now);
+    }
+
+    public int size() {
+        synchronized (users) {
+            return users.size();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${fraud.velocity.expiry-interval-ms:60000}")
+    public void expireIdleUsers() {
+        long cutoff = System.currentTimeMillis() - idleExpiryMillis;
+        int expired = 0;
+        synchronized (users) {
+            // Access order: the least recently used users come first
+            Iterator<UserVelocity> iterator = users.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().getLastAccessMillis() >= cutoff) {
+                    break;
+                }
+                iterator.remove();
+                expired++;
+            }
+        }
+        if (expired > 0) {
+            logger.debug("Expired {} idle users from the velocity store", expired);
+        }
+    }
+}
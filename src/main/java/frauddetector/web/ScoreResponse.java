@@ -0,0 +1,22 @@
+package frauddetector.web;
+
+import frauddetector.service.FraudDecision;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Body of a {@code POST /score} answer. {@code reasons} says how the decision was reached, e.g.
+ * {@code fast-path-reject}, {@code similar-fraud 3/5} or {@code deadline-exceeded, fail-open}.
+ */
+public record ScoreResponse(String transactionId,
+                            boolean fraud,
+                            double score,
+                            List<String> reasons,
+                            long latencyMicros) {
+
+    static ScoreResponse of(FraudDecision decision) {
+        return new ScoreResponse(decision.transactionId(), decision.fraud(), decision.score(), decision.reasons(),
+                TimeUnit.NANOSECONDS.toMicros(decision.latencyNanos()));
+    }
+}
@@ -0,0 +1,70 @@
+package frauddetector.web;
+
+import frauddetector.model.Transaction;
+import frauddetector.service.InlineScoringService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Inline fraud decision for a single transaction, answered within the scoring deadline. The request
+ * body is a transaction in the same JSON shape as the Kafka messages; a missing embedding is
+ * generated on the fly. Bodies missing an ID, user, currency, merchant or category, or carrying a
+ * negative or non-finite amount, are rejected with 400 before anything is scored or stored.
+ */
+@RestController
+public class ScoringController {
+
+    private final InlineScoringService scoringService;
+
+    @Autowired
+    public ScoringController(InlineScoringService scoringService) {
+        this.scoringService = scoringService;
+    }
+
+    @PostMapping("/score")
+    public CompletableFuture<ScoreResponse> score(@RequestBody Transaction transaction) {
+        List<String> problems = validate(transaction);
+        if (!problems.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid transaction: " + String.join(", ", problems));
+        }
+        return scoringService.score(transaction).thenApply(ScoreResponse::of);
+    }
+
+    static List<String> validate(Transaction transaction) {
+        List<String> problems = new ArrayList<>();
+        if (isBlank(transaction.getTransactionId())) {
+            problems.add("transaction_id is required");
+        }
+        if (isBlank(transaction.getUserId())) {
+            problems.add("userId is required");
+        }
+        if (!Double.isFinite(transaction.getAmount()) || transaction.getAmount() < 0) {
+            problems.add("amount must be a non-negative number");
+        }
+        if (transaction.getTimestamp() <= 0) {
+            problems.add("timestamp must be positive");
+        }
+        if (transaction.getCurrency() == null) {
+            problems.add("currency is required");
+        }
+        if (transaction.getMerchant() == null) {
+            problems.add("merchant is required");
+        }
+        if (transaction.getCategory() == null) {
+            problems.add("category is required");
+        }
+        return problems;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,84 @@
+package frauddetector.codec;
+
+import frauddetector.search.Embeddings;
+import org.bson.BsonArray;
+import org.bson.BsonBinary;
+import org.bson.BsonDecimal128;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonDouble;
+import org.bson.BsonInt32;
+import org.bson.BsonInt64;
+import org.bson.BsonInvalidOperationException;
+import org.bson.BsonReader;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EmbeddingCodecTest {
+
+    private final EmbeddingCodec codec = new EmbeddingCodec();
+
+    @Test
+    void encodesAsAPackedVectorAndDecodesItBack() {
+        float[] embedding = {0.25f, -1.5f, 3.0f};
+
+        BsonDocument document = new BsonDocument();
+        BsonDocumentWriter writer = new BsonDocumentWriter(document);
+        writer.writeStartDocument();
+        writer.writeName("embedding");
+        codec.encode(writer, embedding, EncoderContext.builder().build());
+        writer.writeEndDocument();
+
+        BsonBinary stored = document.getBinary("embedding");
+        assertEquals(Embeddings.VECTOR_SUBTYPE, stored.getType());
+        assertArrayEquals(embedding, decode(stored));
+    }
+
+    @Test
+    void decodesLegacyArraysOfDoubles() {
+        BsonArray array = new BsonArray(List.of(new BsonDouble(0.5), new BsonDouble(-0.25)));
+
+        assertArrayEquals(new float[]{0.5f, -0.25f}, decode(array));
+    }
+
+    @Test
+    void decodesArraysMixingNumericTypes() {
+        BsonArray array = new BsonArray(List.of(new BsonInt32(1), new BsonInt64(2L), new BsonDouble(0.5),
+                new BsonDecimal128(Decimal128.parse("0.25"))));
+
+        assertArrayEquals(new float[]{1f, 2f, 0.5f, 0.25f}, decode(array));
+    }
+
+    @Test
+    void rejectsNonNumericArrayElements() {
+        BsonArray array = new BsonArray(List.of(new BsonDouble(0.5), new BsonString("x")));
+
+        assertThrows(BsonInvalidOperationException.class, () -> decode(array));
+    }
+
+    @Test
+    void rejectsVectorPayloadsThatAreNotWholeFloats() {
+        byte[] truncated = {Embeddings.FLOAT32_DTYPE, 0, 1, 2, 3, 4, 5};
+
+        assertThrows(IllegalArgumentException.class,
+                () -> decode(new BsonBinary(Embeddings.VECTOR_SUBTYPE, truncated)));
+    }
+
+    private float[] decode(BsonValue value) {
+        BsonReader reader = new BsonDocumentReader(new BsonDocument("embedding", value));
+        reader.readStartDocument();
+        reader.readName();
+        return codec.decode(reader, DecoderContext.builder().build());
+    }
+}
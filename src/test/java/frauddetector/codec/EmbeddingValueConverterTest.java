@@ -0,0 +1,33 @@
+package frauddetector.codec;
+
+import frauddetector.search.Embeddings;
+import org.bson.types.Binary;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EmbeddingValueConverterTest {
+
+    private final EmbeddingValueConverter converter = new EmbeddingValueConverter();
+
+    @Test
+    void writesPackedVectorsThatReadBack() {
+        float[] embedding = {0.1f, 0.2f, -0.3f};
+
+        Binary written = (Binary) converter.write(embedding, null);
+
+        assertEquals(Embeddings.VECTOR_SUBTYPE, written.getType());
+        assertArrayEquals(embedding, converter.read(written, null));
+    }
+
+    @Test
+    void readsLegacyArraysOfAnyNumericType() {
+        List<Object> legacy = List.of(1, 2L, 0.5, Decimal128.parse("0.25"));
+
+        assertArrayEquals(new float[]{1f, 2f, 0.5f, 0.25f}, converter.read(legacy, null));
+    }
+}
@@ -0,0 +1,133 @@
+package frauddetector.decision;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.WriteModel;
+import frauddetector.rules.FastPathDecision;
+import frauddetector.service.FraudDecision;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FraudDecisionSinkTest {
+
+    private final List<List<WriteModel<Document>>> bulkWrites = new CopyOnWriteArrayList<>();
+    private volatile boolean failWrites;
+    private FraudDecisionSink sink;
+
+    @AfterEach
+    void tearDown() {
+        if (sink != null) {
+            sink.shutdown();
+        }
+    }
+
+    @Test
+    void writesFullBatchesWithoutWaitingForTheInterval() throws Exception {
+        sink = start(3, 60_000);
+
+        for (int i = 0; i < 7; i++) {
+            sink.record(decision("tx" + i), "kafka");
+        }
+
+        waitUntil(() -> sink.getWrittenCount() == 6);
+        assertEquals(List.of(3, 3), batchSizes());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushesPartialBatchAfterInterval() throws Exception {
+        sink = start(100, 20);
+
+        sink.record(decision("tx1"), "kafka");
+
+        waitUntil(() -> sink.getWrittenCount() == 1);
+        ReplaceOneModel<Document> write = (ReplaceOneModel<Document>) bulkWrites.get(0).get(0);
+        Document document = write.getReplacement();
+        assertEquals("tx1", document.get("_id"));
+        assertEquals(true, document.get("isFraud"));
+        assertEquals(0.8, document.getDouble("score"), 1e-9);
+        assertEquals(List.of("similar-fraud 4/5"), document.get("reasons"));
+        assertEquals("v7", document.get("modelVersion"));
+        assertEquals(1500L, document.get("latencyMicros"));
+        assertEquals("kafka", document.get("source"));
+        assertTrue(write.getReplaceOptions().isUpsert());
+    }
+
+    @Test
+    void shutdownDrainsQueuedDecisions() {
+        sink = start(2, 60_000);
+        for (int i = 0; i < 5; i++) {
+            sink.record(decision("tx" + i), "changestream");
+        }
+
+        sink.shutdown();
+
+        assertEquals(5, sink.getWrittenCount());
+        assertEquals(5, batchSizes().stream().mapToInt(Integer::intValue).sum());
+        sink.record(decision("late"), "kafka");
+        assertEquals(0, sink.getQueueDepth());
+        sink = null;
+    }
+
+    @Test
+    void countsFailedWritesAndKeepsGoing() throws Exception {
+        failWrites = true;
+        sink = start(1, 10);
+        sink.record(decision("tx1"), "kafka");
+        waitUntil(() -> sink.getFailedCount() == 1);
+
+        failWrites = false;
+        sink.record(decision("tx2"), "kafka");
+        waitUntil(() -> sink.getWrittenCount() == 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private FraudDecisionSink start(int batchSize, long flushIntervalMs) {
+        MongoCollection<Document> collection = (MongoCollection<Document>) Proxy.newProxyInstance(
+                MongoCollection.class.getClassLoader(),
+                new Class<?>[]{MongoCollection.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("bulkWrite")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    if (failWrites) {
+                        throw new MongoException("write failed");
+                    }
+                    bulkWrites.add(List.copyOf((List<WriteModel<Document>>) args[0]));
+                    return null;
+                });
+        FraudDecisionSink started = new FraudDecisionSink(collection, "v7", batchSize, flushIntervalMs, 100, 5_000);
+        started.start();
+        return started;
+    }
+
+    private List<Integer> batchSizes() {
+        return bulkWrites.stream().map(List::size).toList();
+    }
+
+    private static FraudDecision decision(String transactionId) {
+        return new FraudDecision(transactionId, "user1", true, 0.8, FastPathDecision.UNDECIDED,
+                List.of("similar-fraud 4/5"), TimeUnit.MICROSECONDS.toNanos(1500));
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Condition not met within 5 s");
+            }
+            Thread.sleep(5);
+        }
+    }
+}
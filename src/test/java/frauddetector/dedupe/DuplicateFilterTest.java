@@ -0,0 +1,77 @@
+package frauddetector.dedupe;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import frauddetector.decision.FraudDecisionSink;
+import frauddetector.rules.FastPathDecision;
+import frauddetector.service.FraudDecision;
+import frauddetector.service.TransactionDocuments;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DuplicateFilterTest {
+
+    // Not started: recorded decisions stay queued, and nothing is found in the (unreachable) collection
+    private final FraudDecisionSink sink = new FraudDecisionSink(unreachableDatabase(), "1", 500, 200, 1_000, 1_000);
+    private final DuplicateFilter filter = new DuplicateFilter(sink, true, 600_000, 4, 100_000, 0.001);
+
+    @Test
+    void changeStreamEventBetweenPersistAndRecordIsADuplicate() {
+        // Kafka consumer claims the transaction and stores it
+        assertFalse(filter.isDuplicate("tx1"));
+
+        // The insert event arrives before the consumer has recorded its decision
+        assertTrue(filter.isDuplicate("tx1"));
+
+        // The consumer records the decision, then gives up its claim
+        sink.record(decision("tx1"), TransactionDocuments.SCORED_BY_KAFKA);
+        filter.release("tx1");
+
+        assertTrue(filter.isDuplicate("tx1"));
+        assertEquals(2, filter.getDuplicateCount());
+        assertEquals(0, filter.getInProgressCount());
+    }
+
+    @Test
+    void transactionIsScoredAgainWhenTheFirstAttemptFailed() {
+        assertFalse(filter.isDuplicate("tx1"));
+        // Scoring failed: released without a decision
+        filter.release("tx1");
+
+        assertFalse(filter.isDuplicate("tx1"));
+        assertTrue(filter.isDuplicate("tx1"));
+    }
+
+    @Test
+    void inlineDecisionsDoNotCount() {
+        sink.record(decision("tx1"), "api");
+        assertFalse(filter.isDuplicate("tx1"));
+        filter.release("tx1");
+
+        assertFalse(filter.isDuplicate("tx1"));
+    }
+
+    private static FraudDecision decision(String transactionId) {
+        return new FraudDecision(transactionId, "user1", false, 0.1, FastPathDecision.UNDECIDED, List.of(), 1_000);
+    }
+
+    private static MongoDatabase unreachableDatabase() {
+        MongoCollection<?> collection = (MongoCollection<?>) Proxy.newProxyInstance(
+                MongoCollection.class.getClassLoader(),
+                new Class<?>[]{MongoCollection.class},
+                (proxy, method, args) -> {
+                    throw new MongoException("unreachable");
+                });
+        return (MongoDatabase) Proxy.newProxyInstance(
+                MongoDatabase.class.getClassLoader(),
+                new Class<?>[]{MongoDatabase.class},
+                (proxy, method, args) -> collection);
+    }
+}
@@ -0,0 +1,59 @@
+package frauddetector.dedupe;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RotatingBloomFilterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_700_000_000_000L);
+    private final RotatingBloomFilter filter = new RotatingBloomFilter(100_000, 0.01, 60_000, 4, clock::get);
+
+    @Test
+    void reportsKeysSeenWithinTheWindow() {
+        assertFalse(filter.put("tx-1"));
+        assertTrue(filter.put("tx-1"));
+
+        clock.addAndGet(40_000);
+        assertTrue(filter.put("tx-1"));
+        assertTrue(filter.mightContain("tx-1"));
+    }
+
+    @Test
+    void forgetsKeysOnceTheWindowHasPassed() {
+        filter.put("tx-1");
+
+        clock.addAndGet(60_000);
+        assertFalse(filter.mightContain("tx-1"));
+    }
+
+    @Test
+    void reAddingKeepsAKeyAliveAcrossRotations() {
+        filter.put("tx-1");
+        for (int i = 0; i < 8; i++) {
+            clock.addAndGet(15_000);
+            assertTrue(filter.put("tx-1"));
+        }
+    }
+
+    @Test
+    void staysNearTheConfiguredFalsePositiveRateAtExpectedLoad() {
+        for (int i = 0; i < 100_000; i++) {
+            filter.put("tx-" + i);
+            if (i % 25_000 == 24_999) {
+                clock.addAndGet(15_000);
+            }
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, falsePositives + " false positives");
+        assertTrue(filter.estimatedFalsePositiveRate() < 0.02, "estimated " + filter.estimatedFalsePositiveRate());
+    }
+}
@@ -0,0 +1,163 @@
+package frauddetector.embedding;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingClient;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchingEmbeddingServiceTest {
+
+    private BatchingEmbeddingService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void groupsRequestsIntoBatchesOfAtMostMaxSize() throws Exception {
+        StubEmbeddingClient client = new StubEmbeddingClient(StubEmbeddingClient::lengthEmbeddings);
+        service = start(client, 4, 500, 1);
+
+        List<CompletableFuture<float[]>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(service.embed("x".repeat(i + 1)));
+        }
+
+        for (int i = 0; i < 10; i++) {
+            assertArrayEquals(new float[]{i + 1, 1f}, futures.get(i).get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(List.of(4, 4, 2), client.batchSizes);
+    }
+
+    @Test
+    void flushesPartialBatchAfterMaxWait() throws Exception {
+        StubEmbeddingClient client = new StubEmbeddingClient(StubEmbeddingClient::lengthEmbeddings);
+        service = start(client, 64, 20, 1);
+
+        assertArrayEquals(new float[]{3f, 1f}, service.embed("abc").get(5, TimeUnit.SECONDS));
+        assertEquals(List.of(1), client.batchSizes);
+    }
+
+    @Test
+    void boundsConcurrentClientCalls() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        StubEmbeddingClient client = new StubEmbeddingClient(texts -> {
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            bothStarted.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            active.decrementAndGet();
+            return StubEmbeddingClient.lengthEmbeddings(texts);
+        });
+        service = start(client, 1, 0, 2);
+
+        List<CompletableFuture<float[]>> futures = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            futures.add(service.embed("t" + i));
+        }
+        assertTrue(bothStarted.await(5, TimeUnit.SECONDS));
+        // Both permits are held until release, so no third call can have started
+        assertEquals(2, client.batchSizes.size());
+        assertEquals(2, active.get());
+
+        release.countDown();
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        assertEquals(2, maxActive.get());
+        assertEquals(6, client.batchSizes.size());
+    }
+
+    @Test
+    void failsEveryFutureOfAFailedBatch() {
+        StubEmbeddingClient client = new StubEmbeddingClient(texts -> {
+            throw new IllegalStateException("provider unavailable");
+        });
+        service = start(client, 8, 50, 1);
+
+        CompletableFuture<float[]> first = service.embed("a");
+        CompletableFuture<float[]> second = service.embed("b");
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void rejectsResponsesOfTheWrongSize() {
+        StubEmbeddingClient client = new StubEmbeddingClient(texts -> List.of(List.of(1.0)));
+        service = start(client, 8, 50, 1);
+
+        CompletableFuture<float[]> first = service.embed("a");
+        CompletableFuture<float[]> second = service.embed("b");
+
+        assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+    }
+
+    private static BatchingEmbeddingService start(EmbeddingClient client, int maxBatchSize, long maxWaitMs,
+                                                  int maxConcurrentRequests) {
+        BatchingEmbeddingService service = new BatchingEmbeddingService(client, maxBatchSize, maxWaitMs,
+                maxConcurrentRequests, 1000);
+        service.start();
+        return service;
+    }
+
+    /**
+     * Local stand-in for the provider: records batch sizes and delegates to a function of the texts.
+     */
+    private static class StubEmbeddingClient implements EmbeddingClient {
+
+        final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        private final Function<List<String>, List<List<Double>>> embedder;
+
+        StubEmbeddingClient(Function<List<String>, List<List<Double>>> embedder) {
+            this.embedder = embedder;
+        }
+
+        static List<List<Double>> lengthEmbeddings(List<String> texts) {
+            return texts.stream().map(text -> List.of((double) text.length(), 1.0)).toList();
+        }
+
+        @Override
+        public List<List<Double>> embed(List<String> texts) {
+            batchSizes.add(texts.size());
+            return embedder.apply(texts);
+        }
+
+        @Override
+        public List<Double> embed(Document document) {
+            return embed(List.of(document.getContent())).get(0);
+        }
+
+        @Override
+        public EmbeddingResponse call(EmbeddingRequest request) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
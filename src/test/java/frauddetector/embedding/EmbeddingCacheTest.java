@@ -0,0 +1,86 @@
+package frauddetector.embedding;
+
+import frauddetector.enums.Category;
+import frauddetector.enums.Currency;
+import frauddetector.enums.Merchant;
+import frauddetector.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmbeddingCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void repeatPurchasesShareOneEmbedding() {
+        EmbeddingCache cache = new EmbeddingCache(100, 60_000);
+        Transaction monday = new Transaction("user1", 4.20, Currency.EUR, Merchant.STARBUCKS, Category.BEVERAGES);
+        Transaction tuesday = new Transaction("user1", 4.45, Currency.EUR, Merchant.STARBUCKS, Category.BEVERAGES);
+        assertEquals(CanonicalFeatures.text(monday), CanonicalFeatures.text(tuesday));
+
+        float[] first = cache.get(CanonicalFeatures.text(monday), this::load).join();
+        float[] second = cache.get(CanonicalFeatures.text(tuesday), this::load).join();
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(0.5, cache.getHitRate());
+    }
+
+    @Test
+    void canonicalTextIgnoresIdAndLabelButNotPattern() {
+        Transaction coffee = new Transaction("user1", 4.20, Currency.EUR, Merchant.STARBUCKS, Category.BEVERAGES);
+        Transaction labelled = new Transaction("user1", 4.20, Currency.EUR, Merchant.STARBUCKS, Category.BEVERAGES);
+        labelled.setFraud(true);
+        Transaction expensive = new Transaction("user1", 42.0, Currency.EUR, Merchant.STARBUCKS, Category.BEVERAGES);
+        Transaction otherUser = new Transaction("user2", 4.20, Currency.EUR, Merchant.STARBUCKS, Category.BEVERAGES);
+
+        assertEquals(CanonicalFeatures.text(coffee), CanonicalFeatures.text(labelled));
+        assertNotEquals(CanonicalFeatures.text(coffee), CanonicalFeatures.text(expensive));
+        assertNotEquals(CanonicalFeatures.text(coffee), CanonicalFeatures.text(otherUser));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedAndExpiredEntries() throws InterruptedException {
+        EmbeddingCache bounded = new EmbeddingCache(2, 60_000);
+        bounded.get("a", this::load).join();
+        bounded.get("b", this::load).join();
+        bounded.get("a", this::load).join();
+        bounded.get("c", this::load).join();
+        assertEquals(2, bounded.size());
+        assertEquals(1, bounded.getEvictions());
+        bounded.get("b", this::load).join();
+        assertEquals(4, loads.get());
+
+        EmbeddingCache expiring = new EmbeddingCache(100, 1);
+        expiring.get("a", this::load).join();
+        Thread.sleep(5);
+        expiring.get("a", this::load).join();
+        assertEquals(6, loads.get());
+        assertEquals(1, expiring.getExpirations());
+    }
+
+    @Test
+    void failedLoadIsRetried() {
+        EmbeddingCache cache = new EmbeddingCache(100, 60_000);
+        CompletableFuture<float[]> failed = cache.get("a",
+                text -> CompletableFuture.failedFuture(new IllegalStateException("provider unavailable")));
+        assertThrows(Exception.class, failed::join);
+
+        float[] embedding = cache.get("a", this::load).join();
+        assertTrue(embedding.length > 0);
+        assertEquals(0, cache.getHits());
+    }
+
+    private CompletableFuture<float[]> load(String text) {
+        loads.incrementAndGet();
+        return CompletableFuture.completedFuture(new float[]{text.length()});
+    }
+}
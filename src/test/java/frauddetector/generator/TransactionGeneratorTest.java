@@ -0,0 +1,44 @@
+package frauddetector.generator;
+
+import frauddetector.model.Customer;
+import frauddetector.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class TransactionGeneratorTest {
+
+    private static final List<Customer> CUSTOMERS = CustomerGenerator.generate(8, 42L);
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2024-03-01T00:00:00Z"), ZoneOffset.UTC);
+
+    @Test
+    void sameSeedAndNonceReproduceTheStream() {
+        TransactionGenerator generator = new TransactionGenerator(CUSTOMERS, 42L, CLOCK, 1L);
+        TransactionGenerator rerun = new TransactionGenerator(CUSTOMERS, 42L, CLOCK, 1L);
+
+        Transaction first = generator.next(generator.stream(0));
+        Transaction second = rerun.next(rerun.stream(0));
+
+        assertEquals(first.getTransactionId(), second.getTransactionId());
+        assertEquals(first.getAmount(), second.getAmount());
+        assertEquals(CLOCK.millis(), first.getTimestamp());
+    }
+
+    @Test
+    void generatorsSharingASeedDrawDifferentIds() {
+        TransactionGenerator seeder = new TransactionGenerator(CUSTOMERS, 42L, CLOCK);
+        TransactionGenerator load = new TransactionGenerator(CUSTOMERS, 42L, CLOCK);
+
+        Transaction seeded = seeder.next(seeder.stream(0));
+        Transaction loaded = load.next(load.stream(0));
+
+        assertEquals(seeded.getAmount(), loaded.getAmount());
+        assertNotEquals(seeded.getTransactionId(), loaded.getTransactionId());
+    }
+}
@@ -0,0 +1,127 @@
+package frauddetector.profile;
+
+import frauddetector.enums.Category;
+import frauddetector.enums.Currency;
+import frauddetector.enums.Merchant;
+import frauddetector.model.Customer;
+import frauddetector.repository.CustomerRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CustomerProfileCacheTest {
+
+    private static final long PRIOR_WEIGHT = 30;
+
+    private CustomerRepository customerRepository;
+    private BulkOperations bulkOperations;
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        customerRepository = mock(CustomerRepository.class);
+        when(customerRepository.findByUserId(any())).thenAnswer(invocation ->
+                Optional.of(customer(invocation.getArgument(0), null)));
+        mongoTemplate = mock(MongoTemplate.class);
+        bulkOperations = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(Customer.class))).thenReturn(bulkOperations);
+    }
+
+    @Test
+    void reloadAfterEvictionKeepsLearnedStatistics() {
+        CustomerProfileCache cache = new CustomerProfileCache(customerRepository, mongoTemplate, 1, PRIOR_WEIGHT, 500);
+        for (int i = 0; i < 100; i++) {
+            cache.recordTransaction("user1", 200.0, false);
+        }
+        CustomerProfile learned = cache.getProfile("user1");
+
+        // Evicts user1 while its statistics are still unflushed
+        cache.getProfile("user2");
+        CustomerProfile reloaded = cache.getProfile("user1");
+
+        assertEquals(PRIOR_WEIGHT + 100, reloaded.getCount());
+        assertEquals(learned.getMean(), reloaded.getMean(), 1e-9);
+        assertEquals(learned.getStdDev(), reloaded.getStdDev(), 1e-9);
+    }
+
+    @Test
+    void flushedCountSeedsTheProfileAfterARestart() {
+        CustomerProfileCache cache = new CustomerProfileCache(customerRepository, mongoTemplate, 10, PRIOR_WEIGHT, 500);
+        for (int i = 0; i < 100; i++) {
+            cache.recordTransaction("user1", 200.0, false);
+        }
+        CustomerProfile learned = cache.getProfile("user1");
+        cache.flush();
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations, atLeastOnce()).updateOne(any(Query.class), update.capture());
+        Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertEquals(PRIOR_WEIGHT + 100, set.getLong("spendingCount"));
+
+        when(customerRepository.findByUserId("user1")).thenReturn(Optional.of(withCount(
+                new Customer("user1", List.of(Merchant.TESCO), List.of(Category.GROCERY), set.getDouble("meanSpending"),
+                        set.getDouble("spendingStdDev"), Currency.EUR),
+                set.getLong("spendingCount"))));
+        CustomerProfile restarted = new CustomerProfileCache(customerRepository, mongoTemplate, 10, PRIOR_WEIGHT, 500)
+                .getProfile("user1");
+
+        assertEquals(PRIOR_WEIGHT + 100, restarted.getCount());
+        assertEquals(learned.getMean(), restarted.getMean(), 1e-9);
+        assertEquals(learned.getStdDev(), restarted.getStdDev(), 1e-9);
+    }
+
+    @Test
+    void flushesAfterAReloadNeverWriteTheOlderEvictedSnapshot() {
+        CustomerProfileCache cache = new CustomerProfileCache(customerRepository, mongoTemplate, 1, PRIOR_WEIGHT, 500);
+        for (int i = 0; i < 100; i++) {
+            cache.recordTransaction("user1", 200.0, false);
+        }
+        // Evict user1 with unflushed statistics, reload it and keep learning
+        cache.getProfile("user2");
+        for (int i = 0; i < 50; i++) {
+            cache.recordTransaction("user1", 400.0, false);
+        }
+        CustomerProfile learned = cache.getProfile("user1");
+
+        cache.flush();
+        cache.flush();
+
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        verify(bulkOperations, atLeastOnce()).updateOne(queries.capture(), updates.capture());
+        Document lastWritten = null;
+        for (int i = 0; i < queries.getAllValues().size(); i++) {
+            if ("user1".equals(queries.getAllValues().get(i).getQueryObject().get("userId"))) {
+                lastWritten = updates.getAllValues().get(i).getUpdateObject().get("$set", Document.class);
+            }
+        }
+        assertEquals(PRIOR_WEIGHT + 150, lastWritten.getLong("spendingCount"));
+        assertEquals(learned.getMean(), lastWritten.getDouble("meanSpending"), 1e-9);
+    }
+
+    private static Customer customer(String userId, Long spendingCount) {
+        return withCount(new Customer(userId, List.of(Merchant.TESCO), List.of(Category.GROCERY), 100.0, 10.0,
+                Currency.EUR), spendingCount);
+    }
+
+    private static Customer withCount(Customer customer, Long spendingCount) {
+        customer.setSpendingCount(spendingCount);
+        return customer;
+    }
+}
@@ -0,0 +1,136 @@
+package frauddetector.repository;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import frauddetector.enums.Category;
+import frauddetector.enums.Currency;
+import frauddetector.enums.Merchant;
+import frauddetector.model.Transaction;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Testcontainers(disabledWithoutDocker = true)
+class IndexBootstrapperTest {
+
+    @Container
+    private static final MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    private static final long T0 = 1_700_000_000_000L;
+
+    // find commands as the driver sends them, so tests can explain exactly what a repository method ran
+    private static final List<BsonDocument> findCommands = new CopyOnWriteArrayList<>();
+
+    private static MongoClient client;
+    private static MongoDatabase database;
+    private static IndexBootstrapper bootstrapper;
+    private static TransactionRepository repository;
+
+    @BeforeAll
+    static void setUp() {
+        client = MongoClients.create(MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(mongo.getReplicaSetUrl()))
+                .addCommandListener(new CommandListener() {
+                    @Override
+                    public void commandStarted(CommandStartedEvent event) {
+                        if ("find".equals(event.getCommandName())) {
+                            findCommands.add(event.getCommand().clone());
+                        }
+                    }
+                })
+                .build());
+        database = client.getDatabase("fraud");
+        // Vector search indexes need Atlas; the plain server would only log that it skipped it
+        bootstrapper = new IndexBootstrapper(database, true, false, 384, "cosine");
+        bootstrapper.ensureIndexes();
+        repository = new MongoRepositoryFactory(new MongoTemplate(client, "fraud"))
+                .getRepository(TransactionRepository.class);
+
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            transactions.add(new Transaction("tx-" + i, "user" + (i % 10), 10.0 + i, Currency.USD, T0 + i * 1_000L,
+                    Merchant.TESCO, Category.GROCERY));
+        }
+        repository.saveAll(transactions);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        client.close();
+    }
+
+    @Test
+    void createsAndVerifiesIndexes() {
+        assertEquals(List.of(), bootstrapper.verify());
+
+        // A second run finds everything in place
+        bootstrapper.ensureIndexes();
+        assertEquals(List.of(), bootstrapper.verify());
+    }
+
+    @Test
+    void rejectsASecondCopyOfATransaction() {
+        Transaction copy = new Transaction("tx-1", "user1", 11.0, Currency.USD, T0 + 1_000L, Merchant.TESCO,
+                Category.GROCERY);
+        assertThrows(DuplicateKeyException.class, () -> repository.save(copy));
+    }
+
+    @Test
+    void returnsRecentHistoryNewestFirst() {
+        List<TransactionSummary> history = repository.findRecentHistory("user3", T0 + 500_000L, 5);
+
+        assertEquals(5, history.size());
+        assertEquals(T0 + 993_000L, history.get(0).timestamp());
+        assertEquals(1003.0, history.get(0).amount());
+        assertEquals(Merchant.TESCO, history.get(0).merchant());
+        assertTrue(history.get(0).timestamp() > history.get(4).timestamp());
+        assertEquals(50, repository.countByUserIdAndTimestampGreaterThanEqual("user3", T0 + 500_000L));
+    }
+
+    @Test
+    void historyQueryIsCoveredByTheIndex() {
+        findCommands.clear();
+        repository.findRecentHistory("user3", T0 + 500_000L, 5);
+        BsonDocument find = findCommands.get(findCommands.size() - 1);
+
+        // Re-issue the repository's own command under explain, minus the session and routing fields
+        BsonDocument query = new BsonDocument("find", find.get("find"));
+        for (String field : List.of("filter", "projection", "sort", "skip", "limit")) {
+            if (find.containsKey(field)) {
+                query.put(field, find.get(field));
+            }
+        }
+        Document explain = database.runCommand(new BsonDocument("explain", query)
+                .append("verbosity", new BsonString("executionStats")));
+
+        Document winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan", Document.class);
+        String plan = winningPlan.toJson();
+        assertTrue(plan.contains(IndexBootstrapper.USER_HISTORY_INDEX), plan);
+        assertFalse(plan.contains("\"FETCH\""), plan);
+        assertFalse(plan.contains("\"SORT\""), plan);
+        assertEquals(0, explain.get("executionStats", Document.class).get("totalDocsExamined", Number.class).intValue());
+    }
+}
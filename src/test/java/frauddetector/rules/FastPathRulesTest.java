@@ -0,0 +1,75 @@
+package frauddetector.rules;
+
+import frauddetector.enums.Category;
+import frauddetector.enums.Currency;
+import frauddetector.enums.Merchant;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FastPathRulesTest {
+
+    @Test
+    void emptyPropertiesCompileToTheDefaults() {
+        FastPathRules rules = FastPathRules.compile(new Properties());
+
+        assertTrue(rules.enabled());
+        assertEquals(10, rules.minProfileCount());
+        assertEquals(3.0, rules.amountZScoreThreshold());
+        assertEquals(1.0, rules.acceptMaxZScore());
+        assertEquals(2, rules.rejectMinSignals());
+        assertTrue(rules.checkCurrency());
+        assertTrue(rules.checkCategory());
+        assertFalse(rules.checkMerchant());
+        assertEquals(0, rules.velocityMaxCount1m());
+        assertEquals(0L, rules.blockedMerchantMask() | rules.blockedCategoryMask() | rules.blockedCurrencyMask());
+    }
+
+    @Test
+    void shippedRuleFileCompiles() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = getClass().getResourceAsStream("/fraud-rules.properties")) {
+            properties.load(in);
+        }
+
+        FastPathRules rules = FastPathRules.compile(properties);
+
+        assertEquals(5, rules.velocityMaxCount1m());
+        assertEquals(10, rules.velocityMaxDistinctMerchants24h());
+    }
+
+    @Test
+    void blockedListsCompileIntoMasksIgnoringWhitespace() {
+        Properties properties = new Properties();
+        properties.setProperty("enabled", " false ");
+        properties.setProperty("blocked-merchants", " AMAZON , APPLE,");
+        properties.setProperty("blocked-categories", "TECH");
+        properties.setProperty("blocked-currencies", "GBP");
+
+        FastPathRules rules = FastPathRules.compile(properties);
+
+        assertFalse(rules.enabled());
+        assertTrue(FastPathRules.contains(rules.blockedMerchantMask(), Merchant.AMAZON));
+        assertTrue(FastPathRules.contains(rules.blockedMerchantMask(), Merchant.APPLE));
+        assertFalse(FastPathRules.contains(rules.blockedMerchantMask(), Merchant.LIDL));
+        assertTrue(FastPathRules.contains(rules.blockedCategoryMask(), Category.TECH));
+        assertFalse(FastPathRules.contains(rules.blockedCategoryMask(), Category.GROCERY));
+        assertTrue(FastPathRules.contains(rules.blockedCurrencyMask(), Currency.GBP));
+        assertFalse(FastPathRules.contains(rules.blockedCurrencyMask(), null));
+    }
+
+    @Test
+    void unknownEnumNameIsRejected() {
+        Properties properties = new Properties();
+        properties.setProperty("blocked-merchants", "NOT_A_MERCHANT");
+
+        assertThrows(IllegalArgumentException.class, () -> FastPathRules.compile(properties));
+    }
+}
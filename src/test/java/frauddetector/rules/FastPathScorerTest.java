@@ -0,0 +1,130 @@
+package frauddetector.rules;
+
+import frauddetector.enums.Category;
+import frauddetector.enums.Currency;
+import frauddetector.enums.Merchant;
+import frauddetector.model.Customer;
+import frauddetector.profile.CustomerProfile;
+import frauddetector.velocity.VelocityFeatures;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FastPathScorerTest {
+
+    private static final String RULES = """
+            min-profile-count=10
+            amount-zscore-threshold=3.0
+            accept-max-zscore=1.0
+            reject-min-signals=2
+            velocity-max-count-1m=5
+            blocked-merchants=APPLE
+            blocked-currencies=GBP
+            """;
+
+    @TempDir
+    Path directory;
+
+    private Path rulesFile;
+    private FastPathScorer scorer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        rulesFile = directory.resolve("fraud-rules.properties");
+        Files.writeString(rulesFile, RULES);
+        scorer = new FastPathScorer(new DefaultResourceLoader(), rulesFile.toUri().toString());
+        scorer.loadRules();
+    }
+
+    @Test
+    void ordinaryTransactionOfAnEstablishedCustomerIsAccepted() {
+        assertEquals(FastPathDecision.ACCEPT,
+                scorer.evaluate(establishedProfile(), 105.0, Currency.EUR, Merchant.LIDL, Category.GROCERY));
+    }
+
+    @Test
+    void enoughSignalsReject() {
+        // Far above the mean and in an untrusted category
+        assertEquals(FastPathDecision.REJECT,
+                scorer.evaluate(establishedProfile(), 500.0, Currency.EUR, Merchant.LIDL, Category.TECH));
+    }
+
+    @Test
+    void singleSignalIsLeftUndecided() {
+        assertEquals(FastPathDecision.UNDECIDED,
+                scorer.evaluate(establishedProfile(), 105.0, Currency.USD, Merchant.LIDL, Category.GROCERY));
+    }
+
+    @Test
+    void velocityLimitCountsAsASignal() {
+        VelocityFeatures burst = new VelocityFeatures(6, 600.0, 6, 600.0, 6, 1);
+
+        assertEquals(FastPathDecision.REJECT, scorer.evaluate(establishedProfile(), burst, 105.0, Currency.USD,
+                Merchant.LIDL, Category.GROCERY));
+    }
+
+    @Test
+    void blockedMerchantOrCurrencyRejectsEvenWithoutAProfile() {
+        assertEquals(FastPathDecision.REJECT,
+                scorer.evaluate(null, 10.0, Currency.EUR, Merchant.APPLE, Category.GROCERY));
+        assertEquals(FastPathDecision.REJECT,
+                scorer.evaluate(CustomerProfile.empty("user-1"), 10.0, Currency.GBP, Merchant.LIDL, Category.GROCERY));
+    }
+
+    @Test
+    void profilesBelowTheMinimumCountAreLeftUndecided() {
+        CustomerProfile young = CustomerProfile.from(customer(), 2);
+
+        assertEquals(FastPathDecision.UNDECIDED,
+                scorer.evaluate(young, 500.0, Currency.USD, Merchant.LIDL, Category.TECH));
+        for (int i = 0; i < 8; i++) {
+            young.record(100.0);
+        }
+        assertEquals(FastPathDecision.REJECT,
+                scorer.evaluate(young, 500.0, Currency.USD, Merchant.LIDL, Category.TECH));
+    }
+
+    @Test
+    void changedRuleFileIsReloaded() throws IOException {
+        assertTrue(scorer.getRules().enabled());
+
+        Files.writeString(rulesFile, RULES + "enabled=false\n");
+        Files.setLastModifiedTime(rulesFile,
+                FileTime.fromMillis(Files.getLastModifiedTime(rulesFile).toMillis() + 10_000));
+        scorer.reloadIfChanged();
+
+        assertFalse(scorer.getRules().enabled());
+        assertEquals(FastPathDecision.UNDECIDED,
+                scorer.evaluate(establishedProfile(), 10.0, Currency.EUR, Merchant.APPLE, Category.GROCERY));
+    }
+
+    @Test
+    void invalidRuleFileKeepsThePreviousRules() throws IOException {
+        Files.writeString(rulesFile, "blocked-merchants=NOT_A_MERCHANT\n");
+        Files.setLastModifiedTime(rulesFile,
+                FileTime.fromMillis(Files.getLastModifiedTime(rulesFile).toMillis() + 10_000));
+        scorer.reloadIfChanged();
+
+        assertTrue(FastPathRules.contains(scorer.getRules().blockedMerchantMask(), Merchant.APPLE));
+    }
+
+    private static CustomerProfile establishedProfile() {
+        return CustomerProfile.from(customer(), 50);
+    }
+
+    private static Customer customer() {
+        return new Customer("user-1", List.of(Merchant.LIDL, Merchant.TESCO), List.of(Category.GROCERY),
+                100.0, 10.0, Currency.EUR);
+    }
+}
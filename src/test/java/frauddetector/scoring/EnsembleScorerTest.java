@@ -0,0 +1,109 @@
+package frauddetector.scoring;
+
+import frauddetector.rules.FastPathRules;
+import frauddetector.velocity.VelocityFeatures;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EnsembleScorerTest {
+
+    private static final ScoringContext CONTEXT = ScoringContext.of(new Document("transactionId", "tx1"),
+            null, VelocityFeatures.EMPTY, FastPathRules.compile(new Properties()));
+
+    private EnsembleScorer scorer;
+
+    @AfterEach
+    void tearDown() {
+        scorer.close();
+    }
+
+    @Test
+    void combinesSignalsIntoWeightedMean() {
+        scorer = scorer("a=3,b=1", "", fixed("a", 1.0), fixed("b", 0.0));
+
+        EnsembleResult result = scorer.score(CONTEXT);
+        assertEquals(0.75, result.score(), 1e-9);
+        assertTrue(result.fraud());
+        assertEquals(List.of("a 1.00: a", "b 0.00: b"), result.reasons());
+    }
+
+    @Test
+    void leavesOutSignalsThatMissTheirBudget() throws InterruptedException {
+        CountDownLatch cancelled = new CountDownLatch(1);
+        scorer = scorer("fast=1,slow=1", "slow=20", fixed("fast", 0.2), sleeping("slow", 2_000, cancelled));
+
+        long start = System.nanoTime();
+        EnsembleResult result = scorer.score(CONTEXT);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMillis < 1_000, "took " + elapsedMillis + " ms");
+        assertEquals(0.2, result.score(), 1e-9);
+        assertFalse(result.fraud());
+        assertEquals(List.of("fast 0.20: fast", "slow timed out"), result.reasons());
+        assertTrue(cancelled.await(1, TimeUnit.SECONDS), "slow signal was not interrupted");
+    }
+
+    @Test
+    void fallsBackToLegitimateWhenEverySignalAbstains() {
+        // The kNN vote abstains on an empty neighbour list instead of dividing by zero
+        scorer = scorer("knn=1,boom=1", "", new NeighbourVoteSignal(transaction -> List.of()), failing("boom"));
+
+        EnsembleResult result = scorer.score(CONTEXT);
+        assertEquals(0.0, result.score());
+        assertFalse(result.fraud());
+        assertEquals(List.of("boom failed", "no-signals"), result.reasons());
+    }
+
+    private static EnsembleScorer scorer(String weights, String budgets, Signal... signals) {
+        return new EnsembleScorer(List.of(signals), new EnsembleSettings(500, 0.5, weights, budgets),
+                new SimpleMeterRegistry());
+    }
+
+    private static Signal fixed(String name, double score) {
+        return signal(name, context -> new SignalResult(score, name));
+    }
+
+    private static Signal sleeping(String name, long millis, CountDownLatch interrupted) {
+        return signal(name, context -> {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                Thread.currentThread().interrupt();
+            }
+            return new SignalResult(1.0, name);
+        });
+    }
+
+    private static Signal failing(String name) {
+        return signal(name, context -> {
+            throw new IllegalStateException(name);
+        });
+    }
+
+    private static Signal signal(String name, Function<ScoringContext, SignalResult> evaluation) {
+        return new Signal() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public SignalResult evaluate(ScoringContext context) {
+                return evaluation.apply(context);
+            }
+        };
+    }
+}
@@ -0,0 +1,114 @@
+package frauddetector.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExactVectorIndexTest {
+
+    private static final int DIMENSIONS = 67; // not a multiple of any lane count, exercises the tails
+
+    private final SplittableRandom random = new SplittableRandom(7);
+
+    @Test
+    void kernelsAgreeWithScalarFallback() {
+        VectorKernels best = VectorKernels.best();
+        VectorKernels scalar = VectorKernels.scalar();
+        float[] a = randomVector();
+        float[] b = randomVector();
+
+        assertEquals(scalar.dot(a, 0, b, 0, DIMENSIONS), best.dot(a, 0, b, 0, DIMENSIONS), 1e-4);
+        assertEquals(scalar.cosine(a, 0, b, 0, DIMENSIONS), best.cosine(a, 0, b, 0, DIMENSIONS), 1e-5);
+        assertEquals(1f, best.cosine(a, 0, a, 0, DIMENSIONS), 1e-5);
+
+        byte[] codes = new byte[DIMENSIONS + 3];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = (byte) random.nextInt(256);
+        }
+        assertEquals(scalar.dotInt8(a, codes, 3, DIMENSIONS), best.dotInt8(a, codes, 3, DIMENSIONS), 1e-2);
+    }
+
+    @Test
+    void returnsTheExactTopKAcrossParallelChunks() {
+        ExactVectorIndex index = new ExactVectorIndex(DIMENSIONS, 50_000);
+        List<float[]> vectors = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            float[] vector = randomVector();
+            vectors.add(vector);
+            index.add("tx" + i, vector, i % 10 == 0);
+        }
+        float[] query = randomVector();
+
+        List<Neighbor> neighbors = index.search(query, 10, 0);
+
+        VectorKernels scalar = VectorKernels.scalar();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < vectors.size(); i++) {
+            expected.add(i);
+        }
+        expected.sort(Comparator.comparingDouble(
+                (Integer i) -> scalar.cosine(query, 0, vectors.get(i), 0, DIMENSIONS)).reversed());
+        assertEquals(10, neighbors.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals("tx" + expected.get(i), neighbors.get(i).transactionId());
+            assertEquals(expected.get(i) % 10 == 0, neighbors.get(i).fraud());
+        }
+    }
+
+    @Test
+    void overwritesTheOldestRowsOnceFull() {
+        ExactVectorIndex index = new ExactVectorIndex(DIMENSIONS, 3);
+        float[] first = randomVector();
+        index.add("tx0", first, false);
+        index.add("tx1", randomVector(), false);
+        index.add("tx2", randomVector(), false);
+        assertTrue(index.add("tx3", randomVector(), false));
+
+        assertEquals(3, index.size());
+        assertFalse(index.search(first, 3, 0).stream().anyMatch(n -> n.transactionId().equals("tx0")));
+        assertTrue(index.add("tx0", first, true));
+        assertEquals("tx0", index.search(first, 1, 0).get(0).transactionId());
+    }
+
+    @Test
+    void servesAsGroundTruthForHnswRecall() {
+        int dimensions = 16;
+        ExactVectorIndex exact = new ExactVectorIndex(dimensions, 10_000);
+        HnswVectorIndex hnsw = new HnswVectorIndex(dimensions, 16, 100);
+        for (int i = 0; i < 5_000; i++) {
+            float[] vector = randomVector(dimensions);
+            exact.add("tx" + i, vector, false);
+            hnsw.add("tx" + i, vector, false);
+        }
+
+        int found = 0;
+        int queries = 50;
+        for (int q = 0; q < queries; q++) {
+            float[] query = randomVector(dimensions);
+            List<String> truth = exact.search(query, 10, 0).stream().map(Neighbor::transactionId).toList();
+            found += (int) hnsw.search(query, 10, 100).stream()
+                    .filter(n -> truth.contains(n.transactionId()))
+                    .count();
+        }
+        assertTrue(found / (queries * 10.0) > 0.9, "HNSW recall@10 against exact search");
+    }
+
+    private float[] randomVector() {
+        return randomVector(DIMENSIONS);
+    }
+
+    private float[] randomVector(int dimensions) {
+        float[] vector = new float[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
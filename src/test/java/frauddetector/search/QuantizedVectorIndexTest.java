@@ -0,0 +1,107 @@
+package frauddetector.search;
+
+import frauddetector.quantization.ProductQuantizer;
+import frauddetector.quantization.Quantizer;
+import frauddetector.quantization.ScalarQuantizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuantizedVectorIndexTest {
+
+    private static final int DIMENSIONS = 32;
+
+    private final SplittableRandom random = new SplittableRandom(11);
+
+    @Test
+    void asymmetricScoresApproximateTheDotProduct() {
+        List<float[]> samples = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            samples.add(unitVector());
+        }
+        Quantizer scalar = ScalarQuantizer.train(samples, DIMENSIONS);
+        Quantizer product = ProductQuantizer.train(samples, DIMENSIONS, 8, 10, 1L);
+        assertEquals(DIMENSIONS, scalar.codeSize());
+        assertEquals(8, product.codeSize());
+
+        float[] query = unitVector();
+        float[] vector = samples.get(0);
+        float exact = VectorKernels.scalar().dot(query, 0, vector, 0, DIMENSIONS);
+        byte[] codes = new byte[DIMENSIONS];
+        scalar.encode(vector, codes, 0);
+        assertEquals(exact, scalar.scorer(query).score(codes, 0), 0.02);
+        product.encode(vector, codes, 0);
+        assertEquals(exact, product.scorer(query).score(codes, 0), 0.5);
+    }
+
+    @Test
+    void searchesExactlyUntilTrainedThenOnCodes() {
+        QuantizedVectorIndex index = new QuantizedVectorIndex(DIMENSIONS, 1_000, 100,
+                samples -> ScalarQuantizer.train(samples, DIMENSIONS), null);
+        float[] target = unitVector();
+        index.add("target", target, true);
+        for (int i = 0; i < 98; i++) {
+            index.add("tx" + i, unitVector(), false);
+        }
+        assertFalse(index.isTrained());
+        assertEquals("target", index.search(target, 1, 10).get(0).transactionId());
+
+        index.add("tx98", unitVector(), false);
+        assertTrue(index.isTrained());
+        assertEquals(DIMENSIONS, index.bytesPerVector());
+        for (int i = 99; i < 500; i++) {
+            index.add("tx" + i, unitVector(), false);
+        }
+        Neighbor best = index.search(target, 1, 10).get(0);
+        assertEquals("target", best.transactionId());
+        assertTrue(best.fraud());
+    }
+
+    @Test
+    void reRanksCandidatesWithFullPrecisionVectors() {
+        Map<String, float[]> stored = new HashMap<>();
+        List<String> looked = new ArrayList<>();
+        EmbeddingLookup lookup = ids -> {
+            looked.addAll(ids);
+            Map<String, float[]> found = new HashMap<>();
+            ids.forEach(id -> found.put(id, stored.get(id)));
+            return found;
+        };
+        QuantizedVectorIndex index = new QuantizedVectorIndex(DIMENSIONS, 1_000, 50,
+                samples -> ProductQuantizer.train(samples, DIMENSIONS, 4, 10, 1L), lookup);
+        for (int i = 0; i < 300; i++) {
+            float[] vector = unitVector();
+            stored.put("tx" + i, vector);
+            index.add("tx" + i, vector, false);
+        }
+        float[] query = stored.get("tx123");
+
+        List<Neighbor> neighbors = index.search(query, 3, 40);
+
+        assertEquals(40, looked.size());
+        assertEquals(3, neighbors.size());
+        assertEquals("tx123", neighbors.get(0).transactionId());
+        assertEquals(1f, neighbors.get(0).score(), 1e-5);
+    }
+
+    private float[] unitVector() {
+        float[] vector = new float[DIMENSIONS];
+        double norm = 0;
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] = (float) random.nextGaussian();
+            norm += vector[i] * vector[i];
+        }
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] /= (float) Math.sqrt(norm);
+        }
+        return vector;
+    }
+}
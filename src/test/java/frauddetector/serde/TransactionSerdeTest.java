@@ -0,0 +1,151 @@
+package frauddetector.serde;
+
+import frauddetector.enums.Category;
+import frauddetector.enums.Currency;
+import frauddetector.enums.Merchant;
+import frauddetector.model.Transaction;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransactionSerdeTest {
+
+    private final TransactionSerializer serializer = new TransactionSerializer();
+    private final TransactionDeserializer deserializer = new TransactionDeserializer();
+
+    @BeforeEach
+    void setUp() {
+        deserializer.configure(Map.of(), false);
+    }
+
+    @Test
+    void roundTripsAllFields() {
+        Transaction transaction = new Transaction("user1", 123.45, Currency.GBP, Merchant.STARBUCKS, Category.BEVERAGES);
+        transaction.setId("65f0c0ffee");
+        transaction.setFraud(true);
+        transaction.setEmbedding(new float[]{0.25f, -1.5f, Float.MIN_VALUE, 42f});
+
+        byte[] bytes = serializer.serialize("transactions", transaction);
+        Transaction decoded = deserializer.deserialize("transactions", bytes);
+
+        assertEquals(transaction.getTransactionId(), decoded.getTransactionId());
+        assertEquals("65f0c0ffee", decoded.getId());
+        assertEquals("user1", decoded.getUserId());
+        assertEquals(123.45, decoded.getAmount());
+        assertEquals(Currency.GBP, decoded.getCurrency());
+        assertEquals(transaction.getTimestamp(), decoded.getTimestamp());
+        assertEquals(Merchant.STARBUCKS, decoded.getMerchant());
+        assertEquals(Category.BEVERAGES, decoded.getCategory());
+        assertTrue(decoded.isFraud());
+        assertArrayEquals(transaction.getEmbedding(), decoded.getEmbedding());
+    }
+
+    @Test
+    void roundTripsNullsAndNonAsciiText() {
+        Transaction transaction = new Transaction("ü-€-😀", 1.0, null, null, null);
+        transaction.setEmbedding(null);
+
+        Transaction decoded = deserializer.deserialize("transactions", serializer.serialize("transactions", transaction));
+
+        assertEquals(transaction.getUserId(), decoded.getUserId());
+        assertNull(decoded.getId());
+        assertNull(decoded.getCurrency());
+        assertNull(decoded.getMerchant());
+        assertNull(decoded.getCategory());
+        assertEquals(0, decoded.getEmbedding().length);
+    }
+
+    @Test
+    void fallsBackToJsonForLegacyRecords() {
+        Transaction transaction = new Transaction("user2", 50.0, Currency.EUR, Merchant.LIDL, Category.GROCERY);
+        transaction.setEmbedding(new float[]{1f, 2f});
+        byte[] json;
+        try (JsonSerializer<Transaction> jsonSerializer = new JsonSerializer<>()) {
+            json = jsonSerializer.serialize("transactions", transaction);
+        }
+
+        Transaction decoded = deserializer.deserialize("transactions", json);
+
+        assertEquals("user2", decoded.getUserId());
+        assertEquals(Merchant.LIDL, decoded.getMerchant());
+        assertArrayEquals(new float[]{1f, 2f}, decoded.getEmbedding());
+    }
+
+    @Test
+    void binaryEncodingIsSmallerThanJson() {
+        Transaction transaction = new Transaction("user3", 10.0, Currency.USD, Merchant.APPLE, Category.TECH);
+        transaction.setEmbedding(new float[384]);
+        for (int i = 0; i < 384; i++) {
+            transaction.getEmbedding()[i] = (float) Math.random();
+        }
+        byte[] json;
+        try (JsonSerializer<Transaction> jsonSerializer = new JsonSerializer<>()) {
+            json = jsonSerializer.serialize("transactions", transaction);
+        }
+
+        assertTrue(serializer.serialize("transactions", transaction).length * 2 < json.length);
+    }
+
+    @Test
+    void rejectsUnknownSchemaVersion() {
+        assertThrows(SerializationException.class, () -> deserializer.deserialize("transactions", new byte[]{9, 0, 0}));
+    }
+
+    @Test
+    void rejectsNegativeEmbeddingLength() {
+        byte[] bytes = serializer.serialize("transactions", embeddedTransaction());
+        writeInt(bytes, bytes.length - 2 * Float.BYTES - Integer.BYTES, -5);
+
+        SerializationException e = assertThrows(SerializationException.class,
+                () -> deserializer.deserialize("transactions", bytes));
+        assertEquals("Negative embedding length -5", e.getMessage());
+    }
+
+    @Test
+    void rejectsLengthLargerThanTheRecord() {
+        byte[] bytes = serializer.serialize("transactions", embeddedTransaction());
+        writeInt(bytes, bytes.length - 2 * Float.BYTES - Integer.BYTES, Integer.MAX_VALUE);
+
+        SerializationException e = assertThrows(SerializationException.class,
+                () -> deserializer.deserialize("transactions", bytes));
+        assertTrue(e.getMessage().startsWith("embedding length " + Integer.MAX_VALUE + " exceeds"), e.getMessage());
+
+        byte[] idTooLong = serializer.serialize("transactions", embeddedTransaction());
+        writeInt(idTooLong, 1, idTooLong.length);
+        e = assertThrows(SerializationException.class, () -> deserializer.deserialize("transactions", idTooLong));
+        assertTrue(e.getMessage().startsWith("transactionId length"), e.getMessage());
+    }
+
+    @Test
+    void rejectsOutOfRangeOrdinal() {
+        byte[] bytes = serializer.serialize("transactions", embeddedTransaction());
+        // currency, merchant, category and isFraud sit just before the embedding length
+        int merchantPos = bytes.length - 2 * Float.BYTES - Integer.BYTES - 3;
+        bytes[merchantPos] = (byte) Merchant.values().length;
+
+        SerializationException e = assertThrows(SerializationException.class,
+                () -> deserializer.deserialize("transactions", bytes));
+        assertEquals("Unknown merchant ordinal " + Merchant.values().length, e.getMessage());
+    }
+
+    private static Transaction embeddedTransaction() {
+        Transaction transaction = new Transaction("user4", 9.99, Currency.EUR, Merchant.LIDL, Category.GROCERY);
+        transaction.setEmbedding(new float[]{1f, 2f});
+        return transaction;
+    }
+
+    private static void writeInt(byte[] bytes, int pos, int value) {
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(pos, value);
+    }
+}
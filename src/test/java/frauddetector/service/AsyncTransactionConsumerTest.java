@@ -0,0 +1,137 @@
+package frauddetector.service;
+
+import frauddetector.dedupe.DuplicateFilter;
+import frauddetector.decision.FraudDecisionSink;
+import frauddetector.enums.Category;
+import frauddetector.enums.Currency;
+import frauddetector.enums.Merchant;
+import frauddetector.loadgen.EndToEndLatencyRecorder;
+import frauddetector.loadgen.LatencyHeaders;
+import frauddetector.model.Transaction;
+import frauddetector.profile.CustomerProfileCache;
+import frauddetector.repository.TransactionRepository;
+import frauddetector.velocity.VelocityStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AsyncTransactionConsumerTest {
+
+    private static final String DEAD_LETTER_TOPIC = "transactions.DLT";
+
+    private TransactionRepository repository;
+    private KafkaTemplate<String, Transaction> kafkaTemplate;
+    private DuplicateFilter duplicateFilter;
+    private EndToEndLatencyRecorder latencyRecorder;
+    private AsyncTransactionConsumer consumer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        repository = mock(TransactionRepository.class);
+        kafkaTemplate = mock(KafkaTemplate.class);
+        duplicateFilter = mock(DuplicateFilter.class);
+        TransactionVectorSearchService vectorSearchService = mock(TransactionVectorSearchService.class);
+        when(vectorSearchService.evaluateAsync(any())).thenAnswer(invocation -> {
+            Transaction transaction = invocation.getArgument(0);
+            return CompletableFuture.completedFuture(new FraudDecision(transaction.getTransactionId(),
+                transaction.getUserId(), false, 0.1, null, List.of(), 1_000));
+        });
+        when(repository.save(any())).thenThrow(new DataAccessResourceFailureException("primary unavailable"));
+
+        latencyRecorder = new EndToEndLatencyRecorder(new SimpleMeterRegistry(), "async");
+        consumer = new AsyncTransactionConsumer(repository, vectorSearchService, mock(CustomerProfileCache.class),
+            mock(VelocityStore.class), mock(FraudDecisionSink.class), duplicateFilter, latencyRecorder, kafkaTemplate,
+            new SimpleMeterRegistry(), 0.0, 3, 1, DEAD_LETTER_TOPIC);
+    }
+
+    @AfterEach
+    void tearDown() {
+        consumer.shutdown();
+    }
+
+    @Test
+    void failedPersistIsNotAcknowledgedWhenTheDeadLetterPublishFails() throws InterruptedException {
+        CountDownLatch deadLettered = new CountDownLatch(1);
+        when(kafkaTemplate.send(eq(DEAD_LETTER_TOPIC), anyString(), any())).thenAnswer(invocation -> {
+            deadLettered.countDown();
+            return CompletableFuture.failedFuture(new IllegalStateException("broker unavailable"));
+        });
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+
+        consumer.consumeTransaction(stampedRecord("t-1"), acknowledgment);
+
+        assertTrue(deadLettered.await(5, TimeUnit.SECONDS));
+        verify(duplicateFilter, timeout(5_000)).release("t-1");
+        verify(repository, times(3)).save(any());
+        verify(acknowledgment, never()).acknowledge();
+        latencyRecorder.report();
+        assertEquals(0, latencyRecorder.getCumulativeHistogram().getTotalCount());
+    }
+
+    @Test
+    void failedPersistIsAcknowledgedOnlyOnceDeadLettered() {
+        when(kafkaTemplate.send(eq(DEAD_LETTER_TOPIC), anyString(), any()))
+            .thenReturn(CompletableFuture.completedFuture(null));
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+
+        consumer.consumeTransaction(stampedRecord("t-2"), acknowledgment);
+
+        verify(acknowledgment, timeout(5_000)).acknowledge();
+        verify(repository, times(3)).save(any());
+        verify(kafkaTemplate).send(eq(DEAD_LETTER_TOPIC), eq("t-2"), any());
+    }
+
+    @Test
+    void latencyIsRecordedOnCompletionNotWhenTheListenerReturns() {
+        doAnswer(invocation -> invocation.getArgument(0)).when(repository).save(any());
+        ConsumerRecord<String, Transaction> record = stampedRecord("t-3");
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+
+        consumer.consumeTransaction(record, acknowledgment);
+        latencyRecorder.afterRecord(untyped(record), null);
+
+        verify(acknowledgment, timeout(5_000)).acknowledge();
+        latencyRecorder.report();
+        assertEquals(1, latencyRecorder.getCumulativeHistogram().getTotalCount());
+    }
+
+    private static ConsumerRecord<String, Transaction> stampedRecord(String id) {
+        ConsumerRecord<String, Transaction> record = new ConsumerRecord<>("transactions", 0, 0L, id, transaction(id));
+        LatencyHeaders.stamp(record.headers(), LatencyHeaders.nowMicros());
+        return record;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ConsumerRecord<Object, Object> untyped(ConsumerRecord<String, Transaction> record) {
+        return (ConsumerRecord<Object, Object>) (ConsumerRecord<?, ?>) record;
+    }
+
+    private static Transaction transaction(String id) {
+        return new Transaction(id, "user-1", 42.0, Currency.EUR, System.currentTimeMillis(), Merchant.LIDL,
+            Category.GROCERY);
+    }
+}
@@ -0,0 +1,129 @@
+package frauddetector.service;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import frauddetector.dedupe.DuplicateFilter;
+import frauddetector.decision.FraudDecisionSink;
+import frauddetector.enums.Category;
+import frauddetector.enums.Currency;
+import frauddetector.enums.Merchant;
+import frauddetector.model.Transaction;
+import frauddetector.profile.CustomerProfileCache;
+import frauddetector.velocity.VelocityFeatures;
+import frauddetector.velocity.VelocityStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BatchTransactionConsumerTest {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private BulkOperations bulkOperations;
+    private TransactionVectorSearchService vectorSearchService;
+    private CustomerProfileCache profileCache;
+    private VelocityStore velocityStore;
+    private BatchTransactionConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        bulkOperations = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(Transaction.class))).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+
+        vectorSearchService = mock(TransactionVectorSearchService.class);
+        when(vectorSearchService.evaluate(any(Document.class))).thenAnswer(invocation -> {
+            Document transaction = invocation.getArgument(0);
+            return new FraudDecision(transaction.getString("transactionId"), transaction.getString("userId"),
+                false, 0.1, null, List.of(), 1_000);
+        });
+        profileCache = mock(CustomerProfileCache.class);
+        velocityStore = new VelocityStore(1_000, 60_000);
+        // A restarted consumer whose Bloom filter has not seen the redelivered poll
+        DuplicateFilter duplicateFilter = mock(DuplicateFilter.class);
+
+        consumer = new BatchTransactionConsumer(mongoTemplate, vectorSearchService, profileCache,
+            velocityStore, mock(FraudDecisionSink.class), duplicateFilter, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void replayedBatchOnlyUpdatesStateForNewlyStoredRows() {
+        Transaction first = transaction("user-1");
+        Transaction second = transaction("user-2");
+        Transaction third = transaction("user-3");
+        when(bulkOperations.execute())
+            .thenReturn(BulkWriteResult.acknowledged(2, 0, 0, 0, List.of(), List.of()))
+            .thenThrow(duplicateKeyErrorsAt(0, 1));
+
+        consumer.consumeTransactions(List.of(first, second), mock(Acknowledgment.class));
+        consumer.consumeTransactions(List.of(copyOf(first), copyOf(second), third), mock(Acknowledgment.class));
+
+        for (Transaction transaction : List.of(first, second, third)) {
+            verify(vectorSearchService, times(1)).indexScoredTransaction(
+                argThat(doc -> transaction.getTransactionId().equals(doc.getString("transactionId"))));
+            verify(profileCache, times(1)).recordTransaction(eq(transaction.getUserId()), anyDouble(), anyBoolean());
+        }
+    }
+
+    @Test
+    void redeliveredBatchDoesNotCountVelocityAgain() {
+        Transaction first = transaction("user-1");
+        Transaction second = transaction("user-1");
+        when(bulkOperations.execute())
+            .thenReturn(BulkWriteResult.acknowledged(2, 0, 0, 0, List.of(), List.of()))
+            .thenThrow(duplicateKeyErrorsAt(0, 1));
+
+        consumer.consumeTransactions(List.of(first, second), mock(Acknowledgment.class));
+        VelocityFeatures afterFirstDelivery = velocityStore.features("user-1", second.getTimestamp());
+        consumer.consumeTransactions(List.of(copyOf(first), copyOf(second)), mock(Acknowledgment.class));
+
+        assertEquals(2, afterFirstDelivery.count1m());
+        assertEquals(afterFirstDelivery, velocityStore.features("user-1", second.getTimestamp()));
+    }
+
+    private static BulkOperationException duplicateKeyErrorsAt(int... indexes) {
+        List<BulkWriteError> errors = Arrays.stream(indexes)
+            .mapToObj(index -> new BulkWriteError(DUPLICATE_KEY, "E11000 duplicate key error", new BsonDocument(), index))
+            .toList();
+        MongoBulkWriteException cause = new MongoBulkWriteException(
+            BulkWriteResult.acknowledged(1, 0, 0, 0, List.of(), List.of()), errors, null, new ServerAddress());
+        return new BulkOperationException("Bulk write failed", cause);
+    }
+
+    private static Transaction transaction(String userId) {
+        Transaction transaction = new Transaction(userId, 25.0, Currency.EUR, Merchant.LIDL, Category.GROCERY);
+        transaction.setEmbedding(new float[]{0.5f, 0.5f});
+        return transaction;
+    }
+
+    private static Transaction copyOf(Transaction transaction) {
+        Transaction copy = new Transaction(transaction.getTransactionId(), transaction.getUserId(), transaction.getAmount(),
+            transaction.getCurrency(), transaction.getTimestamp(), transaction.getMerchant(), transaction.getCategory());
+        copy.setEmbedding(transaction.getEmbedding());
+        return copy;
+    }
+}
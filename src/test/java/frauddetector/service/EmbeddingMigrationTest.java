@@ -0,0 +1,98 @@
+package frauddetector.service;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import frauddetector.search.Embeddings;
+import org.bson.BsonBinary;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.Binary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EmbeddingMigrationTest {
+
+    // Stand-in for the transactions collection, keyed by _id
+    private final Map<Integer, Document> stored = new LinkedHashMap<>();
+    private EmbeddingMigration migration;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        stored.put(1, new Document("_id", 1).append("embedding", List.of(0.5, 1, 2L)));
+        stored.put(2, new Document("_id", 2).append("embedding", List.of(-0.5, 0.25, 0.0)));
+        stored.put(3, new Document("_id", 3).append("embedding", Embeddings.toBinaryVector(new float[]{1f, 2f, 3f})));
+
+        MongoCollection<Document> collection = mock(MongoCollection.class);
+        when(collection.find(any(Bson.class))).thenAnswer(invocation -> arrayEmbeddings());
+        when(collection.bulkWrite(anyList(), any(BulkWriteOptions.class))).thenAnswer(invocation -> {
+            List<WriteModel<Document>> updates = invocation.getArgument(0);
+            updates.forEach(this::apply);
+            return BulkWriteResult.acknowledged(0, updates.size(), 0, updates.size(), List.of(), List.of());
+        });
+        migration = new EmbeddingMigration(collection, 1);
+    }
+
+    @Test
+    void rerunningTheMigrationLeavesMigratedDocumentsAlone() {
+        assertEquals(2, migration.migrate());
+        assertEquals(0, migration.migrate());
+
+        assertArrayEquals(new float[]{0.5f, 1f, 2f}, embeddingOf(1));
+        assertArrayEquals(new float[]{-0.5f, 0.25f, 0f}, embeddingOf(2));
+        assertArrayEquals(new float[]{1f, 2f, 3f}, embeddingOf(3));
+    }
+
+    private float[] embeddingOf(int id) {
+        Object embedding = stored.get(id).get("embedding");
+        assertInstanceOf(Binary.class, embedding);
+        return Embeddings.toFloatArray(embedding);
+    }
+
+    @SuppressWarnings("unchecked")
+    private FindIterable<Document> arrayEmbeddings() {
+        List<Document> matches = new ArrayList<>();
+        stored.values().stream().filter(doc -> doc.get("embedding") instanceof List).forEach(matches::add);
+        Iterator<Document> rows = matches.iterator();
+        MongoCursor<Document> cursor = mock(MongoCursor.class);
+        when(cursor.hasNext()).thenAnswer(invocation -> rows.hasNext());
+        when(cursor.next()).thenAnswer(invocation -> rows.next());
+        FindIterable<Document> find = mock(FindIterable.class);
+        when(find.projection(any(Bson.class))).thenReturn(find);
+        when(find.batchSize(anyInt())).thenReturn(find);
+        when(find.iterator()).thenReturn(cursor);
+        return find;
+    }
+
+    private void apply(WriteModel<Document> model) {
+        UpdateOneModel<Document> update = (UpdateOneModel<Document>) model;
+        BsonDocument filter = update.getFilter().toBsonDocument(Document.class, MongoClientSettings.getDefaultCodecRegistry());
+        BsonDocument set = update.getUpdate().toBsonDocument(Document.class, MongoClientSettings.getDefaultCodecRegistry())
+                .getDocument("$set");
+        BsonBinary embedding = set.getBinary("embedding");
+        stored.get(filter.getInt32("_id").getValue())
+                .put("embedding", new Binary(embedding.getType(), embedding.getData()));
+    }
+}
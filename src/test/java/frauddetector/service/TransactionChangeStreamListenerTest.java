@@ -0,0 +1,165 @@
+package frauddetector.service;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import frauddetector.decision.FraudDecisionSink;
+import frauddetector.dedupe.DuplicateFilter;
+import frauddetector.profile.CustomerProfileCache;
+import frauddetector.velocity.VelocityStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TransactionChangeStreamListenerTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {280, 286})
+    @SuppressWarnings("unchecked")
+    void restartsFromNowWhenTheStoredTokenCannotBeResumed(int errorCode) throws InterruptedException {
+        BsonDocument storedToken = new BsonDocument("_data", new BsonString("8263F1A2B3000000012B"));
+        MongoDatabase database = mock(MongoDatabase.class);
+        MongoCollection<Document> tokens = mock(MongoCollection.class);
+        MongoCollection<BsonDocument> tokensAsBson = mock(MongoCollection.class);
+        FindIterable<BsonDocument> storedTokens = mock(FindIterable.class);
+        when(database.getCollection(any())).thenReturn(tokens);
+        when(tokens.withDocumentClass(BsonDocument.class)).thenReturn(tokensAsBson);
+        when(tokensAsBson.find(any(Bson.class))).thenReturn(storedTokens);
+        when(storedTokens.first()).thenReturn(new BsonDocument("resumeToken", storedToken));
+
+        MongoCollection<Document> transactions = mock(MongoCollection.class);
+        ChangeStreamIterable<Document> fromNow = mock(ChangeStreamIterable.class);
+        ChangeStreamIterable<Document> resumed = mock(ChangeStreamIterable.class);
+        when(transactions.watch(anyList())).thenReturn(fromNow);
+        when(fromNow.resumeAfter(storedToken)).thenReturn(resumed);
+        when(resumed.iterator()).thenThrow(new MongoCommandException(
+                new BsonDocument("ok", new BsonInt32(0)).append("code", new BsonInt32(errorCode)), new ServerAddress()));
+        CountDownLatch restarted = new CountDownLatch(1);
+        MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = mock(MongoChangeStreamCursor.class);
+        when(fromNow.iterator()).thenReturn(cursor);
+        when(cursor.hasNext()).thenAnswer(invocation -> {
+            restarted.countDown();
+            Thread.sleep(10);
+            return false;
+        });
+
+        TransactionChangeStreamListener listener = new TransactionChangeStreamListener(transactions, database,
+                mock(TransactionVectorSearchService.class), mock(CustomerProfileCache.class), mock(VelocityStore.class),
+                mock(FraudDecisionSink.class), mock(DuplicateFilter.class), 1, 10,
+                List.of("transactionId", "userId"), false, false, 0.0, 3, 1, new SimpleMeterRegistry());
+        listener.startListening();
+        try {
+            assertTrue(restarted.await(5, TimeUnit.SECONDS), "change stream was not restarted from now");
+        } finally {
+            listener.shutdown();
+        }
+        // The unusable token was dropped after the first failure, not retried
+        verify(resumed, times(1)).iterator();
+    }
+
+    @Test
+    void eventThatKeepsFailingIsDeadLetteredAndCheckpointedPast() throws InterruptedException {
+        FailingStream stream = new FailingStream();
+
+        stream.listener.startListening();
+        verify(stream.deadLetters, timeout(5_000)).insertOne(argThat(doc -> "t-1".equals(doc.getString("transactionId"))));
+        stream.listener.shutdown();
+
+        verify(stream.vectorSearchService, times(3)).evaluate(any(Document.class));
+        verify(stream.tokens).replaceOne(any(Bson.class), argThat(doc -> stream.token.equals(doc.get("resumeToken"))),
+                any(ReplaceOptions.class));
+    }
+
+    @Test
+    void checkpointStaysBeforeAnEventThatCouldNotBeDeadLettered() throws InterruptedException {
+        FailingStream stream = new FailingStream();
+        when(stream.deadLetters.insertOne(any())).thenThrow(new MongoException("primary unavailable"));
+
+        stream.listener.startListening();
+        verify(stream.deadLetters, timeout(5_000)).insertOne(any());
+        stream.listener.shutdown();
+
+        verify(stream.tokens, never()).replaceOne(any(Bson.class), any(Document.class), any(ReplaceOptions.class));
+    }
+
+    /**
+     * A listener starting from now whose stream delivers one insert that scoring always rejects.
+     */
+    private static class FailingStream {
+
+        final BsonDocument token = new BsonDocument("_data", new BsonString("8263F1A2B3000000022B"));
+        final MongoCollection<Document> tokens;
+        final MongoCollection<Document> deadLetters;
+        final TransactionVectorSearchService vectorSearchService = mock(TransactionVectorSearchService.class);
+        final TransactionChangeStreamListener listener;
+
+        @SuppressWarnings("unchecked")
+        FailingStream() {
+            MongoDatabase database = mock(MongoDatabase.class);
+            tokens = mock(MongoCollection.class);
+            deadLetters = mock(MongoCollection.class);
+            MongoCollection<BsonDocument> tokensAsBson = mock(MongoCollection.class);
+            FindIterable<BsonDocument> storedTokens = mock(FindIterable.class);
+            when(database.getCollection(eq("changeStreamResumeTokens"))).thenReturn(tokens);
+            when(database.getCollection(eq("changeStreamDeadLetters"))).thenReturn(deadLetters);
+            when(tokens.withDocumentClass(BsonDocument.class)).thenReturn(tokensAsBson);
+            when(tokensAsBson.find(any(Bson.class))).thenReturn(storedTokens);
+
+            ChangeStreamDocument<Document> insert = mock(ChangeStreamDocument.class);
+            when(insert.getOperationType()).thenReturn(OperationType.INSERT);
+            when(insert.getFullDocument()).thenReturn(new Document("transactionId", "t-1").append("userId", "user-1"));
+            when(insert.getResumeToken()).thenReturn(token);
+            AtomicBoolean delivered = new AtomicBoolean();
+            MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = mock(MongoChangeStreamCursor.class);
+            when(cursor.hasNext()).thenAnswer(invocation -> {
+                if (delivered.compareAndSet(false, true)) {
+                    return true;
+                }
+                Thread.sleep(10);
+                return false;
+            });
+            when(cursor.next()).thenReturn(insert);
+            MongoCollection<Document> transactions = mock(MongoCollection.class);
+            ChangeStreamIterable<Document> changeStream = mock(ChangeStreamIterable.class);
+            when(transactions.watch(anyList())).thenReturn(changeStream);
+            when(changeStream.iterator()).thenReturn(cursor);
+            when(vectorSearchService.evaluate(any(Document.class))).thenThrow(new IllegalStateException("scoring failed"));
+
+            listener = new TransactionChangeStreamListener(transactions, database, vectorSearchService,
+                    mock(CustomerProfileCache.class), mock(VelocityStore.class), mock(FraudDecisionSink.class),
+                    mock(DuplicateFilter.class), 1, 10, List.of("transactionId", "userId"), false, false, 0.0, 3, 1,
+                    new SimpleMeterRegistry());
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package frauddetector.service;
+
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import frauddetector.profile.CustomerProfileCache;
+import frauddetector.rules.FastPathScorer;
+import frauddetector.scoring.EnsembleSettings;
+import frauddetector.search.HnswVectorIndex;
+import frauddetector.search.VectorIndex;
+import frauddetector.velocity.VelocityStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TransactionVectorSearchServiceTest {
+
+    private static final int DIMENSIONS = 4;
+
+    private MongoCollection<Document> collection;
+    private VectorIndex vectorIndex;
+    private TransactionVectorSearchService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        collection = mock(MongoCollection.class);
+        vectorIndex = new HnswVectorIndex(DIMENSIONS, 16, 50);
+        service = new TransactionVectorSearchService(collection, vectorIndex, mock(CustomerProfileCache.class),
+                mock(FastPathScorer.class), mock(VelocityStore.class), new SimpleMeterRegistry(),
+                EnsembleSettings.defaults(), "hnsw", 5, 50, 0.0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void embeddingsOfTheWrongLengthAreSkippedInsteadOfThrowing() {
+        assertFalse(service.indexTransaction(transaction("t-1", List.of(0.1, 0.2, 0.3))));
+        assertTrue(service.indexTransaction(transaction("t-2", List.of(0.1, 0.2, 0.3, 0.4))));
+        service.indexScoredTransaction(transaction("t-3", List.of(0.1, 0.2)));
+
+        assertEquals(1, vectorIndex.size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void loadingTheIndexSkipsMismatchedEmbeddingsAndKeepsGoing() {
+        List<Document> stored = List.of(
+                transaction("t-1", List.of(0.1, 0.2, 0.3, 0.4)),
+                transaction("t-2", List.of(0.1, 0.2, 0.3, 0.4, 0.5, 0.6)),
+                transaction("t-3", List.of(0.4, 0.3, 0.2, 0.1)));
+        Iterator<Document> rows = stored.iterator();
+        MongoCursor<Document> cursor = mock(MongoCursor.class);
+        when(cursor.hasNext()).thenAnswer(invocation -> rows.hasNext());
+        when(cursor.next()).thenAnswer(invocation -> rows.next());
+        FindIterable<Document> find = mock(FindIterable.class);
+        when(collection.find()).thenReturn(find);
+        when(find.projection(any(Bson.class))).thenReturn(find);
+        when(find.batchSize(anyInt())).thenReturn(find);
+        when(find.iterator()).thenReturn(cursor);
+
+        service.loadIndex();
+
+        assertEquals(2, vectorIndex.size());
+    }
+
+    private static Document transaction(String id, List<Double> embedding) {
+        return new Document("transactionId", id).append("isFraud", false).append("embedding", embedding);
+    }
+}
@@ -0,0 +1,58 @@
+package frauddetector.velocity;
+
+import frauddetector.enums.Merchant;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class VelocityStoreTest {
+
+    private static final long T0 = 1_700_000_000_000L;
+
+    private final VelocityStore store = new VelocityStore(1_000, 60_000);
+
+    @Test
+    void aggregatesOverEachWindow() {
+        store.record("user1", T0, 10.0, Merchant.STARBUCKS);
+        store.record("user1", T0 + 20_000, 20.0, Merchant.TESCO);
+        store.record("user1", T0 + 30 * 60_000, 30.0, Merchant.STARBUCKS);
+
+        VelocityFeatures features = store.features("user1", T0 + 30 * 60_000 + 1_000);
+        assertEquals(1, features.count1m());
+        assertEquals(30.0, features.amount1m(), 1e-9);
+        assertEquals(3, features.count1h());
+        assertEquals(60.0, features.amount1h(), 1e-9);
+        assertEquals(3, features.count24h());
+        assertEquals(2, features.distinctMerchants24h());
+    }
+
+    @Test
+    void expiresOldBucketsAsTimeAdvances() {
+        store.record("user1", T0, 10.0, Merchant.STARBUCKS);
+        store.record("user1", T0 + 1_000, 10.0, Merchant.STARBUCKS);
+
+        assertEquals(2, store.features("user1", T0 + 2_000).count1m());
+        assertEquals(0, store.features("user1", T0 + 2 * 60_000).count1m());
+        assertEquals(2, store.features("user1", T0 + 2 * 60_000).count1h());
+        assertEquals(0, store.features("user1", T0 + 25 * 3_600_000L).count24h());
+        assertEquals(0.0, store.features("user1", T0 + 25 * 3_600_000L).amount1h());
+    }
+
+    @Test
+    void countsLateEventsInsideTheWindowAndDropsOlderOnes() {
+        store.record("user1", T0 + 50_000, 10.0, Merchant.STARBUCKS);
+        store.record("user1", T0 + 20_000, 5.0, Merchant.TESCO);
+        store.record("user1", T0 - 2 * 3_600_000L, 99.0, Merchant.SHELL);
+
+        VelocityFeatures features = store.features("user1", T0 + 55_000);
+        assertEquals(2, features.count1m());
+        assertEquals(15.0, features.amount1h(), 1e-9);
+        assertEquals(3, features.count24h());
+    }
+
+    @Test
+    void unknownUsersHaveNoHistory() {
+        assertEquals(VelocityFeatures.EMPTY, store.features("nobody", T0));
+        assertEquals(VelocityFeatures.EMPTY, store.features(null, T0));
+    }
+}
@@ -0,0 +1,74 @@
+package frauddetector.web;
+
+import frauddetector.service.FraudDecision;
+import frauddetector.service.InlineScoringService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ScoringControllerTest {
+
+    private InlineScoringService scoringService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        scoringService = mock(InlineScoringService.class);
+        mockMvc = MockMvcBuilders.standaloneSetup(new ScoringController(scoringService)).build();
+    }
+
+    @Test
+    void rejectsBodyWithoutTransactionIdOrUser() throws Exception {
+        mockMvc.perform(post("/score").contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                    {"transaction_id": null, "amount": 12.5, "currency": "EUR", "merchant": "LIDL", "category": "GROCERY"}
+                    """))
+            .andExpect(status().isBadRequest());
+
+        verify(scoringService, never()).score(any());
+    }
+
+    @Test
+    void rejectsNegativeAmountAndMissingEnums() throws Exception {
+        mockMvc.perform(post("/score").contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                    {"transaction_id": "t-1", "userId": "user-1", "amount": -3}
+                    """))
+            .andExpect(status().isBadRequest());
+
+        verify(scoringService, never()).score(any());
+    }
+
+    @Test
+    void scoresValidBody() throws Exception {
+        when(scoringService.score(any())).thenReturn(CompletableFuture.completedFuture(
+            new FraudDecision("t-2", "user-1", false, 0.2, null, List.of(), 1_000)));
+
+        MvcResult result = mockMvc.perform(post("/score").contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                    {"transaction_id": "t-2", "userId": "user-1", "amount": 12.5,
+                     "currency": "EUR", "merchant": "LIDL", "category": "GROCERY"}
+                    """))
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.transactionId").value("t-2"));
+    }
+}